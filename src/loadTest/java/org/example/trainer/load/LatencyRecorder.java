@@ -0,0 +1,55 @@
+package org.example.trainer.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe recorder of latency samples in nanoseconds with percentile reporting.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+
+    /**
+     * Records a single latency sample.
+     *
+     * @param nanos the observed latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Returns the latency at the given percentile in milliseconds.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in milliseconds, or 0 when nothing was recorded
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Formats the p50, p99 and p99.9 latencies for the report.
+     *
+     * @return a single-line latency summary
+     */
+    public String summary() {
+        return String.format("p50=%.2fms p99=%.2fms p999=%.2fms",
+                percentileMillis(50), percentileMillis(99), percentileMillis(99.9));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.trainer.load;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Traffic mix driven by {@link WorkloadLoadTest}, {@link ReactiveBenchmarkTest},
+ * {@link MessageFormatBenchmarkTest} and {@link StartupBenchmarkTest}. Every value can be overridden with a
+ * {@code load.*} system property, e.g. {@code gradle loadTest -Dload.messages=50000 -Dload.requestRatio=0.5}.
+ */
+@Getter
+@Builder
+@ToString
+public class LoadProfile {
+
+    private final int messages;
+    private final double requestRatio;
+    private final int trainers;
+    private final int hotTrainers;
+    private final double hotTrafficRatio;
+    private final int producers;
+    private final int ratePerSecond;
+    private final int inFlight;
+    private final boolean reactiveBridge;
+    private final String messageFormat;
+    private final boolean warmUp;
+    private final Duration drainTimeout;
+    private final String appLogLevel;
+    private final long maxLostUpdates;
+    private final double maxP99Millis;
+
+    /**
+     * Builds the profile from {@code load.*} system properties, falling back to a short smoke-sized run.
+     *
+     * @return the configured load profile
+     */
+    public static LoadProfile fromSystemProperties() {
+        return LoadProfile.builder()
+                .messages(Integer.getInteger("load.messages", 5_000))
+                .requestRatio(doubleProperty("load.requestRatio", 0.2))
+                .trainers(Integer.getInteger("load.trainers", 50))
+                .hotTrainers(Integer.getInteger("load.hotTrainers", 3))
+                .hotTrafficRatio(doubleProperty("load.hotTrafficRatio", 0.5))
+                .producers(Integer.getInteger("load.producers", 4))
+                .ratePerSecond(Integer.getInteger("load.ratePerSecond", 0))
+                .inFlight(Integer.getInteger("load.inFlight", 200))
+                .reactiveBridge(Boolean.getBoolean("load.reactiveBridge"))
+                .messageFormat(System.getProperty("load.messageFormat", "json"))
+                .warmUp(Boolean.parseBoolean(System.getProperty("load.warmUp", "true")))
+                .drainTimeout(Duration.ofSeconds(Long.getLong("load.drainTimeoutSeconds", 120L)))
+                .appLogLevel(System.getProperty("load.appLogLevel", "WARN"))
+                .maxLostUpdates(Long.getLong("load.maxLostUpdates", -1L))
+                .maxP99Millis(doubleProperty("load.maxP99Millis", -1))
+                .build();
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.trainer.load;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.ServerVersion;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.broker.Broker;
+import org.apache.activemq.broker.BrokerFilter;
+import org.apache.activemq.broker.BrokerPlugin;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.ConnectionContext;
+import org.apache.activemq.broker.region.MessageReference;
+import org.apache.activemq.broker.region.policy.PolicyEntry;
+import org.apache.activemq.broker.region.policy.PolicyMap;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.example.trainer.TrainerServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Self-contained runtime for load tests: an embedded ActiveMQ broker, an in-memory Mongo wire-protocol
+ * server and a full trainerService application context wired to both.
+ * The broker is instrumented so the harness can time a message from send until the service acknowledges it.
+ */
+@Slf4j
+public class LoadTestEnvironment implements AutoCloseable {
+
+    static final String SENT_AT_PROPERTY = "loadSentAtNanos";
+
+    private final MongoServer mongoServer;
+    private final BrokerService broker;
+    @Getter
+    private final String brokerUrl;
+    @Getter
+    private final ConfigurableApplicationContext applicationContext;
+    @Getter
+    private final long startupMillis;
+    private final Map<String, LatencyRecorder> consumeLatencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> consumedCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the broker, the Mongo stand-in and the application.
+     *
+     * @param profile the load profile, used for the application log level, the update consumer, the warm-up
+     *                and the Mongo overload guard: the bulkheads admit {@code load.inFlight} concurrent calls and
+     *                the in-memory Mongo's queueing never counts as slow calls, so the harness measures work
+     *                rather than overload rejections
+     * @throws Exception if any of the embedded components fails to start
+     */
+    public LoadTestEnvironment(LoadProfile profile) throws Exception {
+        broker = new BrokerService();
+        broker.setBrokerName("trainer-load-broker");
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.setPlugins(new BrokerPlugin[] {ConsumeTimingFilter::new});
+        PolicyEntry consumedAdvisory = new PolicyEntry();
+        consumedAdvisory.setAdvisoryForConsumed(true);
+        PolicyMap destinationPolicy = new PolicyMap();
+        destinationPolicy.setDefaultEntry(consumedAdvisory);
+        broker.setDestinationPolicy(destinationPolicy);
+        broker.addConnector("tcp://127.0.0.1:0");
+        broker.start();
+        broker.waitUntilStarted();
+        brokerUrl = broker.getTransportConnectors().get(0).getPublishableConnectString();
+
+        mongoServer = new MongoServer(new MemoryBackend().version(ServerVersion.MONGO_4_0));
+        InetSocketAddress mongoAddress = mongoServer.bind();
+        String mongoUri = "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/trainerDB";
+
+        long start = System.nanoTime();
+        applicationContext = new SpringApplicationBuilder(TrainerServiceApplication.class)
+                .run("--spring.data.mongodb.uri=" + mongoUri,
+                        "--ACTIVEMQ_BROKER_URL=" + brokerUrl,
+                        "--eureka.client.enabled=false",
+                        "--server.port=0",
+                        "--trainer.reactive.enabled=" + profile.isReactiveBridge(),
+                        "--trainer.lifecycle.warm-up.enabled=" + profile.isWarmUp(),
+                        "--resilience4j.bulkhead.instances.mongoWrites.max-concurrent-calls=" + profile.getInFlight(),
+                        "--resilience4j.bulkhead.instances.mongoReads.max-concurrent-calls=" + profile.getInFlight(),
+                        "--resilience4j.circuitbreaker.instances.mongoWrites.slow-call-duration-threshold="
+                                + profile.getDrainTimeout().toMillis() + "ms",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.org.example.trainer=" + profile.getAppLogLevel(),
+                        "--logging.level.org.example.trainer.load=INFO");
+        startupMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("trainerService started against {} in {} ms", brokerUrl, startupMillis);
+    }
+
+    /**
+     * Returns send-to-acknowledge latencies recorded by the broker for the given queue.
+     *
+     * @param queue the destination name
+     * @return the latency recorder for the queue
+     */
+    public LatencyRecorder consumeLatency(String queue) {
+        return consumeLatencies.computeIfAbsent(queue, q -> new LatencyRecorder());
+    }
+
+    public long consumedCount(String queue) {
+        return consumedCounts.computeIfAbsent(queue, q -> new AtomicLong()).get();
+    }
+
+    /**
+     * Returns the number of messages currently waiting on the given queue.
+     *
+     * @param queue the destination name
+     * @return the queue depth, or 0 when the queue was never created
+     * @throws Exception if the broker cannot resolve the destination
+     */
+    public long queueDepth(String queue) throws Exception {
+        return broker.getDestination(new ActiveMQQueue(queue)).getDestinationStatistics().getMessages().getCount();
+    }
+
+    @Override
+    public void close() throws Exception {
+        applicationContext.close();
+        broker.stop();
+        broker.waitUntilStopped();
+        mongoServer.shutdownNow();
+    }
+
+    /**
+     * Broker filter recording, for every consumed message stamped by the harness, the time between
+     * the send and the acknowledgement from the service.
+     */
+    private final class ConsumeTimingFilter extends BrokerFilter {
+
+        private ConsumeTimingFilter(Broker next) {
+            super(next);
+        }
+
+        @Override
+        public void messageConsumed(ConnectionContext context, MessageReference reference) {
+            try {
+                Object sentAt = reference.getMessage().getProperty(SENT_AT_PROPERTY);
+                if (sentAt instanceof Long) {
+                    String queue = reference.getMessage().getDestination().getPhysicalName();
+                    consumeLatency(queue).record(System.nanoTime() - (Long) sentAt);
+                    consumedCounts.computeIfAbsent(queue, q -> new AtomicLong()).incrementAndGet();
+                }
+            } catch (IOException e) {
+                log.warn("Could not read load-test timestamp from consumed message", e);
+            }
+            super.messageConsumed(context, reference);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.trainer.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.dto.request.TrainerHoursDto;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerWorkloadResponseDto;
+import org.example.trainer.service.WorkloadMessageCodec;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the JSON and CBOR encodings of the three workload message payloads: bytes on the wire and decode
+ * time per message. Runs in-process against {@link WorkloadMessageCodec}, so it measures the encoding only;
+ * the end-to-end effect is measured by {@link WorkloadLoadTest} with {@code -Dload.messageFormat=cbor}.
+ * The iteration count is {@code load.messages} (at least 10 000).
+ */
+@Slf4j
+public class MessageFormatBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+
+    private final int iterations = Math.max(10_000, LoadProfile.fromSystemProperties().getMessages());
+    private final ObjectMapper jsonMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final WorkloadMessageCodec codec = new WorkloadMessageCodec(jsonMapper);
+
+    @Test
+    void jsonVersusCbor() throws Exception {
+        Map<Integer, Map<Integer, Integer>> fiveYears = new HashMap<>();
+        for (int year = 2021; year <= 2025; year++) {
+            for (int month = 1; month <= 12; month++) {
+                fiveYears.computeIfAbsent(year, y -> new HashMap<>()).put(month, 40 + month);
+            }
+        }
+
+        StringBuilder report = new StringBuilder(String.format("%n=== JSON vs CBOR message payloads (%d decodes) ===",
+                iterations));
+        report.append(compare("update", new TrainerWorkloadRequestDto("load.trainer.001", "Load", "Trainer1",
+                true, LocalDate.of(2025, 3, 1), 1, "ADD"), TrainerWorkloadRequestDto.class));
+        report.append(compare("hours request", new TrainerHoursDto("load.trainer.001", 3,
+                "6f1c2d9e-4b7a-4c1e-9f8a-2b3c4d5e6f70"), TrainerHoursDto.class));
+        report.append(compare("reply (5 years)", new TrainerWorkloadResponseDto("load.trainer.001", "Load",
+                "Trainer1", true, fiveYears), TrainerWorkloadResponseDto.class));
+        log.info(report.toString());
+    }
+
+    private String compare(String name, Object payload, Class<?> type) throws Exception {
+        String json = jsonMapper.writeValueAsString(payload);
+        byte[] cbor = codec.toBytes(payload, MessageFormat.CBOR);
+
+        double jsonNanos = decodeNanos(() -> jsonMapper.readValue(json, type));
+        double cborNanos = decodeNanos(() -> codec.fromBytes(cbor, type, MessageFormat.CBOR));
+        assertThat(cbor.length).as("%s CBOR size", name).isLessThan(json.getBytes(StandardCharsets.UTF_8).length);
+
+        int jsonBytes = json.getBytes(StandardCharsets.UTF_8).length;
+        return String.format("%n%-16s json=%4d B %7.0f ns/decode | cbor=%4d B %7.0f ns/decode | bytes %+.0f%%, "
+                        + "decode time %+.0f%%", name, jsonBytes, jsonNanos, cbor.length, cborNanos,
+                100.0 * (cbor.length - jsonBytes) / jsonBytes, 100.0 * (cborNanos - jsonNanos) / jsonNanos);
+    }
+
+    /**
+     * Returns the best of several timed rounds after a warm-up round, to filter out JIT and GC noise.
+     */
+    private double decodeNanos(Decode decode) throws Exception {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                decode.run();
+            }
+            double nanos = (System.nanoTime() - start) / (double) iterations;
+            if (round > 0) {
+                best = Math.min(best, nanos);
+            }
+        }
+        return best;
+    }
+
+    @FunctionalInterface
+    private interface Decode {
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,238 @@
+package org.example.trainer.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.example.trainer.service.MongoOverloadGuard;
+import org.example.trainer.service.ReactiveTrainerWorkloadService;
+import org.example.trainer.service.TrainerWorkloadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Benchmark comparing the blocking {@link TrainerWorkloadService} with {@link ReactiveTrainerWorkloadService}
+ * at the same number of in-flight operations ({@code load.inFlight}).
+ * The blocking path needs one thread per in-flight operation, so its cost per in-flight request is mostly
+ * the reserved thread stack; the reactive path keeps the operations as pipeline state on a few driver threads.
+ * Reported per path: throughput, peak extra threads, stack reserved per in-flight operation and heap allocated
+ * per operation. Each operation is a training hours read or a one-hour ADD, mixed by {@code load.requestRatio}.
+ * Operations the broker would redeliver are retried and reported as retries rather than failures.
+ */
+@Slf4j
+public class ReactiveBenchmarkTest {
+
+    private static final int WARM_UP_OPERATIONS = 500;
+    private static final int MAX_REDELIVERIES = 20;
+
+    private final LoadProfile profile = LoadProfile.fromSystemProperties();
+    private final LocalDate trainingDate = LocalDate.now();
+
+    private LoadTestEnvironment environment;
+    private TrainerWorkloadService blockingService;
+    private ReactiveTrainerWorkloadService reactiveService;
+
+    @BeforeEach
+    void startEnvironment() throws Exception {
+        environment = new LoadTestEnvironment(profile);
+        blockingService = environment.getApplicationContext().getBean(TrainerWorkloadService.class);
+        reactiveService = environment.getApplicationContext().getBean(ReactiveTrainerWorkloadService.class);
+        TrainerWorkloadRepository repository = environment.getApplicationContext()
+                .getBean(TrainerWorkloadRepository.class);
+        for (int i = 0; i < profile.getTrainers(); i++) {
+            Map<Integer, Map<Integer, Integer>> summary = new HashMap<>();
+            summary.computeIfAbsent(trainingDate.getYear(), y -> new HashMap<>()).put(trainingDate.getMonthValue(), 0);
+            repository.save(new TrainerWorkloadEntity(null, trainerName(i), "Bench", "Trainer" + i, true,
+                    summary, null, new HashSet<>()));
+        }
+    }
+
+    @AfterEach
+    void stopEnvironment() throws Exception {
+        if (environment != null) {
+            environment.close();
+        }
+    }
+
+    @Test
+    void blockingVersusReactive() throws Exception {
+        runBlocking(WARM_UP_OPERATIONS);
+        runReactive(WARM_UP_OPERATIONS);
+
+        Result blocking = runBlocking(profile.getMessages());
+        Result reactive = runReactive(profile.getMessages());
+
+        log.info(String.format("%n=== blocking vs reactive workload service ===%n"
+                        + "profile: %s%n"
+                        + "thread stack size: %d KB%n%s%n%s",
+                profile, stackSizeKb(), blocking, reactive));
+
+        assertThat(blocking.failures()).as("blocking failures").isZero();
+        assertThat(reactive.failures()).as("reactive failures").isZero();
+    }
+
+    private Result runBlocking(int operations) throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(profile.getInFlight());
+        Result result = measure("blocking", operations, failures, retries, () -> {
+            List<Future<?>> runs = new ArrayList<>(operations);
+            for (int i = 0; i < operations; i++) {
+                int operation = i;
+                runs.add(workers.submit(() -> {
+                    for (int attempt = 0; ; attempt++) {
+                        try {
+                            blockingOperation(operation);
+                            return;
+                        } catch (RuntimeException e) {
+                            if (!isRedelivered(e) || attempt == MAX_REDELIVERIES) {
+                                failures.incrementAndGet();
+                                return;
+                            }
+                            retries.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        });
+        workers.shutdown();
+        return result;
+    }
+
+    private Result runReactive(int operations) throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+        return measure("reactive", operations, failures, retries, () -> Flux.range(0, operations)
+                .flatMap(i -> Mono.defer(() -> reactiveOperation(i))
+                        .retryWhen(Retry.max(MAX_REDELIVERIES).filter(ReactiveBenchmarkTest::isRedelivered)
+                                .doBeforeRetry(signal -> retries.incrementAndGet()))
+                        .onErrorResume(e -> {
+                            failures.incrementAndGet();
+                            return Mono.empty();
+                        }), profile.getInFlight())
+                .then()
+                .block(profile.getDrainTimeout()));
+    }
+
+    /**
+     * Tells whether the broker would redeliver an update that failed this way: a call rejected by the Mongo
+     * overload guard or a version conflict left after the service's own retries. The benchmark retries those
+     * the same way, so contention on the few benchmark trainers is measured as work and not as failures.
+     */
+    private static boolean isRedelivered(Throwable failure) {
+        return MongoOverloadGuard.isRejected(failure) || failure instanceof OptimisticLockingFailureException;
+    }
+
+    private void blockingOperation(int operation) {
+        int trainer = operation % profile.getTrainers();
+        if (isRead()) {
+            blockingService.getTrainingHoursForMonth(trainerName(trainer), trainingDate.getMonthValue());
+        } else {
+            blockingService.updateTrainingHours(update(trainer));
+        }
+    }
+
+    private Mono<?> reactiveOperation(int operation) {
+        int trainer = operation % profile.getTrainers();
+        if (isRead()) {
+            return reactiveService.getTrainingHoursForMonth(trainerName(trainer), trainingDate.getMonthValue());
+        }
+        return reactiveService.updateTrainingHours(update(trainer));
+    }
+
+    private Result measure(String name, int operations, AtomicInteger failures, AtomicInteger retries, Run run)
+            throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        System.gc();
+        int baselineThreads = threads.getThreadCount();
+        AtomicLong peakThreads = new AtomicLong(baselineThreads);
+        sampler.scheduleAtFixedRate(() -> peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max),
+                0, 5, TimeUnit.MILLISECONDS);
+
+        long allocatedBefore = allocatedBytes(threads);
+        long start = System.nanoTime();
+        run.run();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        long allocated = allocatedBytes(threads) - allocatedBefore;
+
+        sampler.shutdownNow();
+        long extraThreads = Math.max(0, peakThreads.get() - baselineThreads);
+        return new Result(name, operations, failures.get(), retries.get(), elapsedSeconds, extraThreads,
+                extraThreads * stackSizeKb() / (double) profile.getInFlight(), allocated / (double) operations);
+    }
+
+    /**
+     * Sums the heap allocated by all live threads; worker threads are measured before they are shut down.
+     */
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+
+    private boolean isRead() {
+        return ThreadLocalRandom.current().nextDouble() < profile.getRequestRatio();
+    }
+
+    private TrainerWorkloadRequestDto update(int trainer) {
+        return new TrainerWorkloadRequestDto(trainerName(trainer), "Bench", "Trainer" + trainer, true,
+                trainingDate, 1, "ADD");
+    }
+
+    private static long stackSizeKb() {
+        long configured = Long.parseLong(ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+                .getVMOption("ThreadStackSize").getValue());
+        return configured > 0 ? configured : 1024;
+    }
+
+    private static String trainerName(int index) {
+        return String.format("bench.trainer.%03d", index);
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        void run() throws Exception;
+    }
+
+    private record Result(String name, int operations, int failures, int retries, double elapsedSeconds,
+                          long extraThreads, double stackKbPerInFlight, double heapBytesPerOperation) {
+
+        @Override
+        public String toString() {
+            return String.format("%-8s ops=%d failures=%d retries=%d throughput=%.1f ops/s extra threads=%d "
+                            + "stack/in-flight=%.1f KB heap/op=%.1f KB",
+                    name, operations, failures, retries, operations / elapsedSeconds, extraThreads,
+                    stackKbPerInFlight, heapBytesPerOperation / 1024);
+        }
+    }
+}
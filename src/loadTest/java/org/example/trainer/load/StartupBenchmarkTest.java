@@ -0,0 +1,108 @@
+package org.example.trainer.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures how quickly a freshly started instance serves its first messages: the application startup time,
+ * the time from sending the first training update until it is saved and the reply latency of the first
+ * training hours request, compared with the steady-state request latency afterwards.
+ * Class loading is shared across application contexts in one JVM, so compare the warm-up on and off in
+ * separate runs: {@code gradle loadTest --tests '*StartupBenchmarkTest' -Dload.warmUp=false}.
+ */
+@Slf4j
+public class StartupBenchmarkTest {
+
+    private static final String TRAINER = "startup.trainer";
+    private static final int STEADY_STATE_REQUESTS = 50;
+    private static final long REPLY_TIMEOUT_MILLIS = 30_000;
+
+    private final LoadProfile profile = LoadProfile.fromSystemProperties();
+    private final LocalDate trainingDate = LocalDate.now();
+
+    private LoadTestEnvironment environment;
+    private Connection connection;
+
+    @AfterEach
+    void stopEnvironment() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+        if (environment != null) {
+            environment.close();
+        }
+    }
+
+    @Test
+    void timeToFirstMessage() throws Exception {
+        environment = new LoadTestEnvironment(profile);
+        connection = new ActiveMQConnectionFactory(environment.getBrokerUrl()).createConnection();
+        connection.start();
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageConsumer replies = session.createConsumer(session.createQueue(WorkloadLoadTest.RESPONSE_QUEUE));
+
+        double firstUpdateMillis = sendUpdate(session);
+        double firstRequestMillis = requestHours(session, replies);
+        LatencyRecorder steadyState = new LatencyRecorder();
+        for (int i = 0; i < STEADY_STATE_REQUESTS; i++) {
+            steadyState.record((long) (requestHours(session, replies) * 1_000_000));
+        }
+
+        log.info(String.format("%n=== Startup and first messages (warm-up %s) ===%n"
+                        + "application startup: %d ms%n"
+                        + "first update:        %.1f ms send to saved%n"
+                        + "first request:       %.1f ms send to reply%n"
+                        + "steady state:        %s",
+                profile.isWarmUp() ? "on" : "off", environment.getStartupMillis(), firstUpdateMillis,
+                firstRequestMillis, steadyState.summary()));
+        assertThat(firstRequestMillis).isPositive();
+    }
+
+    private double sendUpdate(Session session) throws Exception {
+        ObjectMapper objectMapper = environment.getApplicationContext().getBean(ObjectMapper.class);
+        TextMessage update = session.createTextMessage(objectMapper.writeValueAsString(
+                new TrainerWorkloadRequestDto(TRAINER, "Startup", "Trainer", true, trainingDate, 1, "ADD")));
+        TrainerWorkloadRepository repository = environment.getApplicationContext()
+                .getBean(TrainerWorkloadRepository.class);
+
+        long start = System.nanoTime();
+        session.createProducer(session.createQueue(WorkloadLoadTest.UPDATE_QUEUE)).send(update);
+        long deadline = System.currentTimeMillis() + REPLY_TIMEOUT_MILLIS;
+        while (repository.findByTrainerUsername(TRAINER).isEmpty()) {
+            assertThat(System.currentTimeMillis()).as("first update saved").isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private double requestHours(Session session, MessageConsumer replies) throws Exception {
+        String correlationId = UUID.randomUUID().toString();
+        MapMessage request = session.createMapMessage();
+        request.setString("trainerUsername", TRAINER);
+        request.setInt("month", trainingDate.getMonthValue());
+        request.setString("correlationId", correlationId);
+
+        long start = System.nanoTime();
+        session.createProducer(session.createQueue(WorkloadLoadTest.REQUEST_QUEUE)).send(request);
+        Message reply = replies.receive(REPLY_TIMEOUT_MILLIS);
+        assertThat(reply).as("reply to %s", correlationId).isNotNull();
+        assertThat(reply.getJMSCorrelationID()).isEqualTo(correlationId);
+        return (System.nanoTime() - start) / 1e6;
+    }
+}
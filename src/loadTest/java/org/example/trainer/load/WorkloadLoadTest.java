@@ -0,0 +1,275 @@
+package org.example.trainer.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.jms.Connection;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.example.trainer.dto.request.TrainerHoursDto;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.example.trainer.service.WorkloadMessageCodec;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Load test that drives a configurable mix of {@code trainer.training.update} and
+ * {@code request.traininghours.queue} traffic through the real listeners and reports throughput,
+ * latency percentiles and lost updates on contended trainers. With {@code -Dload.messageFormat=cbor} updates,
+ * requests and replies use the binary message format instead of JSON.
+ * Every update adds exactly one hour, so the difference between the hours sent and the hours stored
+ * is the number of updates that were lost.
+ */
+@Slf4j
+public class WorkloadLoadTest {
+
+    static final String UPDATE_QUEUE = "trainer.training.update";
+    static final String REQUEST_QUEUE = "request.traininghours.queue";
+    static final String RESPONSE_QUEUE = "response.traininghours.queue";
+    static final String DEAD_LETTER_QUEUE = "trainer.training.update.dlq";
+
+    private final LoadProfile profile = LoadProfile.fromSystemProperties();
+    private final LocalDate trainingDate = LocalDate.now();
+    private final Map<String, Long> pendingRequests = new ConcurrentHashMap<>();
+    private final LatencyRecorder requestLatency = new LatencyRecorder();
+    private final AtomicLong repliesReceived = new AtomicLong();
+    private final AtomicLong requestsSent = new AtomicLong();
+    private final AtomicLong updatesSent = new AtomicLong();
+
+    private LoadTestEnvironment environment;
+    private Connection connection;
+    private AtomicIntegerArray hoursSent;
+
+    @BeforeEach
+    void startEnvironment() throws Exception {
+        environment = new LoadTestEnvironment(profile);
+        connection = new ActiveMQConnectionFactory(environment.getBrokerUrl()).createConnection();
+        connection.start();
+        hoursSent = new AtomicIntegerArray(profile.getTrainers());
+        seedTrainers();
+    }
+
+    @AfterEach
+    void stopEnvironment() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+        if (environment != null) {
+            environment.close();
+        }
+    }
+
+    @Test
+    void workloadTrafficMix() throws Exception {
+        listenForReplies();
+        ObjectMapper objectMapper = environment.getApplicationContext().getBean(ObjectMapper.class);
+        WorkloadMessageCodec codec = environment.getApplicationContext().getBean(WorkloadMessageCodec.class);
+        MessageFormat format = MessageFormat.valueOf(profile.getMessageFormat().toUpperCase(Locale.ROOT));
+
+        long start = System.nanoTime();
+        ExecutorService producers = Executors.newFixedThreadPool(profile.getProducers());
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < profile.getProducers(); i++) {
+            int share = profile.getMessages() / profile.getProducers()
+                    + (i < profile.getMessages() % profile.getProducers() ? 1 : 0);
+            runs.add(producers.submit(() -> {
+                produce(share, objectMapper, codec, format);
+                return null;
+            }));
+        }
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        producers.shutdown();
+
+        boolean drained = awaitDrain();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Long> lostByTrainer = lostUpdates();
+        long lostTotal = lostByTrainer.values().stream().mapToLong(Long::longValue).sum();
+        report(elapsedSeconds, lostByTrainer, lostTotal);
+
+        assertThat(drained).as("all messages processed within %s", profile.getDrainTimeout()).isTrue();
+        if (profile.getMaxLostUpdates() >= 0) {
+            assertThat(lostTotal).as("lost updates").isLessThanOrEqualTo(profile.getMaxLostUpdates());
+        }
+        if (profile.getMaxP99Millis() >= 0) {
+            assertThat(environment.consumeLatency(UPDATE_QUEUE).percentileMillis(99))
+                    .as("update p99 latency").isLessThanOrEqualTo(profile.getMaxP99Millis());
+            assertThat(requestLatency.percentileMillis(99))
+                    .as("request p99 latency").isLessThanOrEqualTo(profile.getMaxP99Millis());
+        }
+    }
+
+    private void seedTrainers() {
+        TrainerWorkloadRepository repository = environment.getApplicationContext()
+                .getBean(TrainerWorkloadRepository.class);
+        for (int i = 0; i < profile.getTrainers(); i++) {
+            Map<Integer, Map<Integer, Integer>> summary = new HashMap<>();
+            summary.computeIfAbsent(trainingDate.getYear(), y -> new HashMap<>()).put(trainingDate.getMonthValue(), 0);
+            repository.save(new TrainerWorkloadEntity(null, trainerName(i), "Load", "Trainer" + i, true,
+                    summary, null, new HashSet<>()));
+        }
+    }
+
+    private void listenForReplies() throws Exception {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageConsumer consumer = session.createConsumer(session.createQueue(RESPONSE_QUEUE));
+        consumer.setMessageListener(message -> {
+            try {
+                Long sentAt = pendingRequests.remove(message.getJMSCorrelationID());
+                if (sentAt != null) {
+                    requestLatency.record(System.nanoTime() - sentAt);
+                    repliesReceived.incrementAndGet();
+                }
+            } catch (Exception e) {
+                log.warn("Could not read reply", e);
+            }
+        });
+    }
+
+    private void produce(int messages, ObjectMapper objectMapper, WorkloadMessageCodec codec, MessageFormat format)
+            throws Exception {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageProducer updates = session.createProducer(session.createQueue(UPDATE_QUEUE));
+        MessageProducer requests = session.createProducer(session.createQueue(REQUEST_QUEUE));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long intervalNanos = profile.getRatePerSecond() > 0
+                ? TimeUnit.SECONDS.toNanos(profile.getProducers()) / profile.getRatePerSecond() : 0;
+        long next = System.nanoTime();
+
+        try {
+            for (int i = 0; i < messages; i++) {
+                if (intervalNanos > 0) {
+                    next += intervalNanos;
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+
+                int trainer = pickTrainer(random);
+                if (random.nextDouble() < profile.getRequestRatio()) {
+                    String correlationId = UUID.randomUUID().toString();
+                    Message request = format == MessageFormat.JSON
+                            ? mapRequest(session, trainer, correlationId)
+                            : codec.encode(session, new TrainerHoursDto(trainerName(trainer),
+                                    trainingDate.getMonthValue(), correlationId), format);
+                    request.setStringProperty(WorkloadMessageCodec.ACCEPT_PROPERTY, format.getContentType());
+                    request.setJMSCorrelationID(correlationId);
+                    pendingRequests.put(correlationId, System.nanoTime());
+                    requests.send(request);
+                    requestsSent.incrementAndGet();
+                } else {
+                    TrainerWorkloadRequestDto payload = new TrainerWorkloadRequestDto(trainerName(trainer), "Load",
+                            "Trainer" + trainer, true, trainingDate, 1, "ADD");
+                    Message update = format == MessageFormat.JSON
+                            ? session.createTextMessage(objectMapper.writeValueAsString(payload))
+                            : codec.encode(session, payload, format);
+                    hoursSent.incrementAndGet(trainer);
+                    update.setLongProperty(LoadTestEnvironment.SENT_AT_PROPERTY, System.nanoTime());
+                    updates.send(update);
+                    updatesSent.incrementAndGet();
+                }
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    private MapMessage mapRequest(Session session, int trainer, String correlationId) throws Exception {
+        MapMessage request = session.createMapMessage();
+        request.setString("trainerUsername", trainerName(trainer));
+        request.setInt("month", trainingDate.getMonthValue());
+        request.setString("correlationId", correlationId);
+        return request;
+    }
+
+    private int pickTrainer(ThreadLocalRandom random) {
+        int hot = Math.min(profile.getHotTrainers(), profile.getTrainers());
+        if (hot > 0 && random.nextDouble() < profile.getHotTrafficRatio()) {
+            return random.nextInt(hot);
+        }
+        return random.nextInt(profile.getTrainers());
+    }
+
+    private boolean awaitDrain() throws InterruptedException {
+        long deadline = System.nanoTime() + profile.getDrainTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            if (environment.consumedCount(UPDATE_QUEUE) >= updatesSent.get()
+                    && repliesReceived.get() >= requestsSent.get()) {
+                return true;
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        return false;
+    }
+
+    private Map<String, Long> lostUpdates() {
+        TrainerWorkloadRepository repository = environment.getApplicationContext()
+                .getBean(TrainerWorkloadRepository.class);
+        Map<String, Long> lost = new HashMap<>();
+        for (int i = 0; i < profile.getTrainers(); i++) {
+            int stored = repository.findByTrainerUsername(trainerName(i))
+                    .map(workload -> workload.getTrainingSummary()
+                            .getOrDefault(trainingDate.getYear(), Map.of())
+                            .getOrDefault(trainingDate.getMonthValue(), 0))
+                    .orElse(0);
+            long missing = hoursSent.get(i) - (long) stored;
+            if (missing != 0) {
+                lost.put(trainerName(i), missing);
+            }
+        }
+        return lost;
+    }
+
+    private void report(double elapsedSeconds, Map<String, Long> lostByTrainer, long lostTotal) throws Exception {
+        long processed = environment.consumedCount(UPDATE_QUEUE) + repliesReceived.get();
+        StringBuilder hot = new StringBuilder();
+        for (int i = 0; i < Math.min(profile.getHotTrainers(), profile.getTrainers()); i++) {
+            hot.append(String.format("%n    %s sent=%d lost=%d", trainerName(i), hoursSent.get(i),
+                    lostByTrainer.getOrDefault(trainerName(i), 0L)));
+        }
+
+        log.info(String.format("%n=== trainerService load test ===%n"
+                        + "profile: %s%n"
+                        + "elapsed: %.2fs, throughput: %.1f msg/s (%d processed)%n"
+                        + "updates:  sent=%d acked=%d dead-lettered=%d  %s%n"
+                        + "requests: sent=%d replied=%d  %s%n"
+                        + "lost updates: total=%d across %d trainers; hot trainers:%s",
+                profile, elapsedSeconds, processed / elapsedSeconds, processed,
+                updatesSent.get(), environment.consumedCount(UPDATE_QUEUE), environment.queueDepth(DEAD_LETTER_QUEUE),
+                environment.consumeLatency(UPDATE_QUEUE).summary(),
+                requestsSent.get(), repliesReceived.get(), requestLatency.summary(),
+                lostTotal, lostByTrainer.size(), hot));
+    }
+
+    private static String trainerName(int index) {
+        return String.format("load.trainer.%03d", index);
+    }
+}
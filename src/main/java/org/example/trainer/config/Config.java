@@ -1,5 +1,7 @@
 package org.example.trainer.config;
 
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.servers.Server;
@@ -60,6 +62,18 @@ public class Config implements WebMvcConfigurer {
         return new SecureRandom();
     }
 
+    /**
+     * Enables the {@link io.micrometer.core.annotation.Timed} annotation on Spring beans, which is used
+     * to time the JMS listeners.
+     *
+     * @param meterRegistry the registry the timers are published to
+     * @return a {@link TimedAspect} bound to the registry
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
     /**
      * Registers the {@link TransactionInterceptor} to capture and log transaction IDs for every request.
      * The interceptor is applied to all incoming HTTP requests to ensure a unique transaction ID is associated
@@ -3,6 +3,10 @@ package org.example.trainer.config;
 import javax.jms.ConnectionFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.RedeliveryPolicy;
+import org.apache.activemq.broker.region.policy.RedeliveryPolicyMap;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
@@ -19,16 +23,33 @@ import org.springframework.jms.support.converter.MessageConverter;
 @Slf4j
 public class JmsConfig {
 
-    String brokerUrl = System.getenv("ACTIVEMQ_BROKER_URL");
-    String brokerUsername = System.getenv("ACTIVEMQ_USERNAME");
-    String brokerPassword = System.getenv("ACTIVEMQ_PASSWORD");
+    static final long REDELIVERY_INITIAL_DELAY_MS = 1000;
+    static final long REDELIVERY_MAX_DELAY_MS = 30_000;
+    static final String TRAINING_UPDATE_QUEUE = "trainer.training.update";
+    static final String TRAINING_UPDATE_SHARD_QUEUES = "trainer.training.update.shard.>";
 
+    @Value("${ACTIVEMQ_BROKER_URL:#{null}}")
+    String brokerUrl;
+    @Value("${ACTIVEMQ_USERNAME:#{null}}")
+    String brokerUsername;
+    @Value("${ACTIVEMQ_PASSWORD:#{null}}")
+    String brokerPassword;
+    @Value("${trainer.reactive.enabled:false}")
+    boolean reactiveBridgeEnabled;
+    @Value("${trainer.sharding.enabled:false}")
+    boolean shardingEnabled;
+    @Value("${trainer.jms.update-max-redeliveries:20}")
+    int updateMaxRedeliveries;
 
 
     /**
      * Creates and configures a {@link ConnectionFactory} to establish connections to the ActiveMQ broker.
-     * The connection is configured using the broker URL, username, and password, which are injected
-     * via application properties.
+     * The connection is configured using the broker URL, username, and password, which are resolved
+     * from the {@code ACTIVEMQ_*} environment variables or the matching application properties.
+     * Training updates rolled back on the {@code trainer.training.update} queue and its shard queues are
+     * redelivered with an exponential backoff from 1 to 30 seconds, at most {@code trainer.jms.update-max-redeliveries}
+     * times, after which the broker moves them to its dead letter queue; only updates rejected while Mongo is
+     * overloaded are ever rolled back. All other destinations keep the broker client's default redelivery policy.
      *
      * @return a configured {@link ConnectionFactory} for ActiveMQ.
      */
@@ -38,9 +59,23 @@ public class JmsConfig {
         connectionFactory.setBrokerURL(brokerUrl);
         connectionFactory.setUserName(brokerUsername);
         connectionFactory.setPassword(brokerPassword);
+        RedeliveryPolicyMap redeliveryPolicies = connectionFactory.getRedeliveryPolicyMap();
+        redeliveryPolicies.put(new ActiveMQQueue(TRAINING_UPDATE_QUEUE), updateRedeliveryPolicy());
+        redeliveryPolicies.put(new ActiveMQQueue(TRAINING_UPDATE_SHARD_QUEUES), updateRedeliveryPolicy());
         return connectionFactory;
     }
 
+    RedeliveryPolicy updateRedeliveryPolicy() {
+        RedeliveryPolicy redeliveryPolicy = new RedeliveryPolicy();
+        redeliveryPolicy.setInitialRedeliveryDelay(REDELIVERY_INITIAL_DELAY_MS);
+        redeliveryPolicy.setRedeliveryDelay(REDELIVERY_INITIAL_DELAY_MS);
+        redeliveryPolicy.setUseExponentialBackOff(true);
+        redeliveryPolicy.setBackOffMultiplier(2);
+        redeliveryPolicy.setMaximumRedeliveryDelay(REDELIVERY_MAX_DELAY_MS);
+        redeliveryPolicy.setMaximumRedeliveries(updateMaxRedeliveries);
+        return redeliveryPolicy;
+    }
+
     /**
      * Configures a {@link MessageConverter} that is responsible for converting messages to and from
      * JMS message formats. The default converter used here is the {@link MappingJackson2MessageConverter},
@@ -67,18 +102,80 @@ public class JmsConfig {
     }
 
     /**
-     * Configures a {@link DefaultJmsListenerContainerFactory} which is used to create listener containers
-     * for processing incoming JMS messages asynchronously. The factory is set to support concurrent listeners
-     * with a concurrency range of 3 to 10.
+     * Configures the {@link DefaultJmsListenerContainerFactory} for the {@code trainer.training.update} queue.
+     * Update traffic gets its own consumers so that bulk update storms cannot starve request/reply traffic.
+     * The container is not started when {@code trainer.reactive.enabled} hands the queue to the reactive bridge
+     * or when {@code trainer.sharding.enabled} routes the queue to the shard queues instead.
+     * Its sessions are transacted, so an update rethrown while Mongo is overloaded is rolled back and
+     * redelivered instead of being lost.
+     *
+     * @param connectionFactory the {@link ConnectionFactory} bean used to establish JMS connections.
+     * @param properties        the configured consumer limits for both listeners.
+     * @return a configured {@link DefaultJmsListenerContainerFactory} for training update messages.
+     */
+    @Bean
+    public DefaultJmsListenerContainerFactory trainingUpdateContainerFactory(
+            ConnectionFactory connectionFactory, ListenerConcurrencyProperties properties) {
+        DefaultJmsListenerContainerFactory factory = containerFactory(connectionFactory, properties.getUpdate());
+        factory.setAutoStartup(!reactiveBridgeEnabled && !shardingEnabled);
+        factory.setSessionTransacted(true);
+        return factory;
+    }
+
+    /**
+     * Configures the {@link DefaultJmsListenerContainerFactory} for the {@code request.traininghours.queue}.
+     * Its minimum concurrency is a reserve of consumers that the adaptive controller never takes away.
+     *
+     * @param connectionFactory the {@link ConnectionFactory} bean used to establish JMS connections.
+     * @param properties        the configured consumer limits for both listeners.
+     * @return a configured {@link DefaultJmsListenerContainerFactory} for training hours requests.
+     */
+    @Bean
+    public DefaultJmsListenerContainerFactory trainingHoursRequestContainerFactory(
+            ConnectionFactory connectionFactory, ListenerConcurrencyProperties properties) {
+        return containerFactory(connectionFactory, properties.getRequest());
+    }
+
+    /**
+     * Configures the {@link DefaultJmsListenerContainerFactory} for the router that forwards training updates
+     * to their shard queues when {@code trainer.sharding.enabled} is set. Its sessions are transacted, so the
+     * forward and the removal from the inbound queue commit together.
      *
      * @param connectionFactory the {@link ConnectionFactory} bean used to establish JMS connections.
-     * @return a configured {@link DefaultJmsListenerContainerFactory} for asynchronous message processing.
+     * @param properties        the configured consumer limits, of which the update limits apply to the router.
+     * @return a configured {@link DefaultJmsListenerContainerFactory} for routing training updates.
      */
     @Bean
-    public DefaultJmsListenerContainerFactory jmsListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public DefaultJmsListenerContainerFactory trainingUpdateRouterContainerFactory(
+            ConnectionFactory connectionFactory, ListenerConcurrencyProperties properties) {
+        DefaultJmsListenerContainerFactory factory = containerFactory(connectionFactory, properties.getUpdate());
+        factory.setSessionTransacted(true);
+        return factory;
+    }
+
+    /**
+     * Configures the {@link DefaultJmsListenerContainerFactory} for the {@code trainer.workload.revisions} topic,
+     * on which every instance announces the new versions of the trainers it updated so the others can drop their
+     * cached replies. A single consumer per instance subscribes without a durable subscription, since versions
+     * broadcast while an instance is down are irrelevant to its empty cache.
+     *
+     * @param connectionFactory the {@link ConnectionFactory} bean used to establish JMS connections.
+     * @return a configured {@link DefaultJmsListenerContainerFactory} for trainer revision broadcasts.
+     */
+    @Bean
+    public DefaultJmsListenerContainerFactory revisionTopicContainerFactory(ConnectionFactory connectionFactory) {
+        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setPubSubDomain(true);
+        factory.setConcurrency("1");
+        return factory;
+    }
+
+    private DefaultJmsListenerContainerFactory containerFactory(ConnectionFactory connectionFactory,
+                                                                ListenerConcurrencyProperties.Limits limits) {
         DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
-        factory.setConcurrency("3-10");
+        factory.setConcurrency(limits.toConcurrency());
         return factory;
     }
 }
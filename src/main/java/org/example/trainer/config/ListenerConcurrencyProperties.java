@@ -0,0 +1,50 @@
+package org.example.trainer.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Concurrency limits for the JMS listener containers and the thresholds used by the adaptive
+ * concurrency controller to grow or shrink them.
+ */
+@Component
+@ConfigurationProperties(prefix = "trainer.jms.concurrency")
+@Getter
+@Setter
+public class ListenerConcurrencyProperties {
+
+    private boolean adaptive = false;
+    private Duration adjustInterval = Duration.ofSeconds(5);
+    private Duration targetLatency = Duration.ofMillis(200);
+    private int backlogPerConsumer = 20;
+    private Duration statisticsTimeout = Duration.ofSeconds(1);
+    private double mongoPoolSaturation = 0.8;
+    private Limits update = new Limits(3, 10);
+    private Limits request = new Limits(3, 10);
+
+    /**
+     * Minimum and maximum number of consumers of a single listener container.
+     * For the request/reply listener the minimum is the reserve kept during update storms.
+     */
+    @Getter
+    @Setter
+    public static class Limits {
+        private int minConsumers;
+        private int maxConsumers;
+
+        public Limits() {
+        }
+
+        public Limits(int minConsumers, int maxConsumers) {
+            this.minConsumers = minConsumers;
+            this.maxConsumers = maxConsumers;
+        }
+
+        public String toConcurrency() {
+            return minConsumers + "-" + maxConsumers;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.trainer.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the periodic reconciliation of the trainer workload totals against the event log.
+ * The I/O rate of a run is limited separately by the {@code reconciliation} rate limiter configured under
+ * {@code resilience4j.ratelimiter}, so a run never competes with live traffic for the Mongo bulkheads.
+ * A run holds the {@code workload-reconciliation} job lease, which it renews before every chunk.
+ */
+@Component
+@ConfigurationProperties(prefix = "trainer.reconciliation")
+@Getter
+@Setter
+public class ReconciliationProperties {
+
+    private boolean enabled = false;
+    private boolean repair = false;
+    private Duration interval = Duration.ofHours(6);
+    private int chunkSize = 100;
+    private int parallelism = 2;
+    private Duration lease = Duration.ofMinutes(30);
+}
@@ -1,8 +1,12 @@
 package org.example.trainer.config;
 
+import java.util.Map;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 
@@ -14,6 +18,10 @@ import org.springframework.retry.support.RetryTemplate;
 @Configuration
 public class RetryConfig {
 
+    public static final int OPTIMISTIC_LOCK_MAX_ATTEMPTS = 8;
+    public static final long OPTIMISTIC_LOCK_INITIAL_BACKOFF_MS = 5;
+    public static final long OPTIMISTIC_LOCK_MAX_BACKOFF_MS = 200;
+
     /**
      * Creates a {@link RetryTemplate} bean with custom retry and backoff policies.
      * The retry policy is configured to allow a maximum of 3 retries, and the backoff policy
@@ -32,4 +40,26 @@ public class RetryConfig {
         template.setRetryPolicy(retryPolicy);
         return template;
     }
+
+    /**
+     * Creates the {@link RetryTemplate} used for optimistic concurrency conflicts on trainer workload documents.
+     * Conflicts are retried up to 8 attempts with a randomized exponential backoff starting at 5 milliseconds
+     * and capped at 200 milliseconds, so that consumers racing on the same trainer do not retry in lockstep.
+     *
+     * @return a {@link RetryTemplate} retrying only optimistic locking failures and duplicate inserts.
+     */
+    @Bean
+    public RetryTemplate optimisticLockRetryTemplate() {
+        RetryTemplate template = new RetryTemplate();
+        ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+        backOffPolicy.setInitialInterval(OPTIMISTIC_LOCK_INITIAL_BACKOFF_MS);
+        backOffPolicy.setMultiplier(2.0);
+        backOffPolicy.setMaxInterval(OPTIMISTIC_LOCK_MAX_BACKOFF_MS);
+        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(OPTIMISTIC_LOCK_MAX_ATTEMPTS, Map.of(
+                OptimisticLockingFailureException.class, true,
+                DuplicateKeyException.class, true));
+        template.setBackOffPolicy(backOffPolicy);
+        template.setRetryPolicy(retryPolicy);
+        return template;
+    }
 }
@@ -0,0 +1,28 @@
+package org.example.trainer.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the sharded scaling mode, in which every instance consumes the training updates of only
+ * its share of trainers. The number of buckets must be the same on every instance and must not change
+ * while updates are queued, since it decides which shard queue a trainer's updates are routed to.
+ * Sharding replaces the reactive bridge, so {@code trainer.reactive.enabled} must stay off.
+ * Only training updates are sharded; training hours requests are answered by any instance.
+ */
+@Component
+@ConfigurationProperties(prefix = "trainer.sharding")
+@Getter
+@Setter
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    private int buckets = 64;
+    private int virtualNodes = 100;
+    private int consumersPerBucket = 1;
+    private Duration heartbeatInterval = Duration.ofSeconds(5);
+    private Duration leaseDuration = Duration.ofSeconds(15);
+}
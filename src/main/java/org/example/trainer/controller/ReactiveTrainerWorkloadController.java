@@ -0,0 +1,75 @@
+package org.example.trainer.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerWorkloadResponseDto;
+import org.example.trainer.service.ReactiveTrainerWorkloadService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller exposing the non-blocking workload operations of {@link ReactiveTrainerWorkloadService}.
+ * Handlers return {@link Mono} and {@link Flux}, so the request thread is released while Mongo is working
+ * and streamed results are written only as fast as the client reads them.
+ */
+@RestController
+@RequestMapping("/api/reactive/trainer-workloads")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveTrainerWorkloadController {
+
+    private final ReactiveTrainerWorkloadService workloadService;
+
+    /**
+     * Applies a training hours update, like a message on the {@code trainer.training.update} queue.
+     * A request missing the trainer, the training date, the duration or the action is rejected with 400.
+     *
+     * @param request the trainer and the hours to add or delete
+     * @return an empty response once the update is stored
+     */
+    @PostMapping
+    @Operation(summary = "Add or delete training hours without blocking a request thread")
+    public Mono<ResponseEntity<Void>> updateTrainingHours(@Valid @RequestBody TrainerWorkloadRequestDto request) {
+        log.debug("Reactive training hours update for trainer: {}", request.getTrainerUsername());
+        return workloadService.updateTrainingHours(request)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+    }
+
+    /**
+     * Returns a trainer's training hours for a month.
+     *
+     * @param trainerUsername the trainer username
+     * @param month           the month
+     * @return the training summary for the month
+     */
+    @GetMapping("/{trainerUsername}")
+    @Operation(summary = "Get a trainer's training hours for a month")
+    public Mono<TrainerWorkloadResponseDto> getTrainingHoursForMonth(@PathVariable String trainerUsername,
+                                                                     @RequestParam Integer month) {
+        return workloadService.getTrainingHoursForMonth(trainerUsername, month);
+    }
+
+    /**
+     * Streams the training hours of all trainers for a month as newline-delimited JSON.
+     *
+     * @param month the month
+     * @return one training summary per trainer with hours in that month
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all trainers' training hours for a month")
+    public Flux<TrainerWorkloadResponseDto> streamTrainingHoursForMonth(@RequestParam Integer month) {
+        return workloadService.streamTrainingHoursForMonth(month);
+    }
+}
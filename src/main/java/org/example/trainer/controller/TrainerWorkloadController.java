@@ -0,0 +1,106 @@
+package org.example.trainer.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.dto.response.TrainerHoursAsOfDto;
+import org.example.trainer.dto.response.TrainerHoursRangeDto;
+import org.example.trainer.dto.response.TrainerSearchResultDto;
+import org.example.trainer.service.TrainerSearchIndex;
+import org.example.trainer.service.TrainerWorkloadService;
+import org.example.trainer.service.WorkloadHistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller exposing read-only trainer workload lookups to the main application.
+ */
+@RestController
+@RequestMapping("/api/trainer-workloads")
+@RequiredArgsConstructor
+@Slf4j
+public class TrainerWorkloadController {
+
+    private final TrainerSearchIndex searchIndex;
+    private final WorkloadHistoryService historyService;
+    private final TrainerWorkloadService workloadService;
+
+    /**
+     * Autocompletes trainers by first name, last name or username prefix.
+     * The lookup is served entirely from the in-memory {@link TrainerSearchIndex}.
+     *
+     * @param query the prefix typed so far
+     * @param limit the maximum number of trainers to return
+     * @return the matching trainers with their current-month training hours
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search trainers by name or username prefix")
+    public ResponseEntity<List<TrainerSearchResultDto>> searchTrainers(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Searching trainers by prefix: {}", query);
+        return ResponseEntity.ok(searchIndex.search(query, limit));
+    }
+
+    /**
+     * Returns the hours a trainer had for a month as they were recorded at a point in time.
+     *
+     * @param trainerUsername the trainer username
+     * @param year            the year of the month
+     * @param month           the month
+     * @param asOf            the point in time to reconstruct; defaults to now
+     * @return the reconstructed hours for the month
+     */
+    @GetMapping("/{trainerUsername}/history")
+    @Operation(summary = "Get a trainer's monthly hours as of a point in time")
+    public ResponseEntity<TrainerHoursAsOfDto> getTrainingHoursAsOf(
+            @PathVariable String trainerUsername,
+            @RequestParam Integer year,
+            @RequestParam Integer month,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) {
+        return ResponseEntity.ok(historyService.getTrainingHoursAsOf(trainerUsername, year, month,
+                asOf == null ? Instant.now() : asOf));
+    }
+
+    /**
+     * Returns a trainer's training hours summed over an inclusive range of months, e.g. a quarter.
+     *
+     * @param trainerUsername the trainer username
+     * @param from            the first month of the range, e.g. {@code 2025-01}
+     * @param to              the last month of the range, e.g. {@code 2025-03}
+     * @return the total, the monthly average and the hours of every month in the range
+     */
+    @GetMapping("/{trainerUsername}/hours")
+    @Operation(summary = "Get a trainer's training hours over a range of months")
+    public ResponseEntity<TrainerHoursRangeDto> getTrainingHoursForRange(
+            @PathVariable String trainerUsername,
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to) {
+        return ResponseEntity.ok(workloadService.getTrainingHoursForRange(trainerUsername, from, to));
+    }
+
+    /**
+     * Returns the training hours of several trainers summed over an inclusive range of months.
+     *
+     * @param trainers the trainer usernames
+     * @param from     the first month of the range, e.g. {@code 2025-01}
+     * @param to       the last month of the range, e.g. {@code 2025-03}
+     * @return one result per trainer with the total, the monthly average and the hours of every month
+     */
+    @GetMapping("/hours")
+    @Operation(summary = "Get the training hours of several trainers over a range of months")
+    public ResponseEntity<List<TrainerHoursRangeDto>> getTrainingHoursForRange(
+            @RequestParam List<String> trainers,
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to) {
+        return ResponseEntity.ok(workloadService.getTrainingHoursForRange(trainers, from, to));
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.trainer.dto.request;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,11 +14,15 @@ import lombok.Setter;
 @AllArgsConstructor
 public class TrainerWorkloadRequestDto {
 
+    @NotBlank
     private String trainerUsername;
     private String firstName;
     private String lastName;
     private boolean isActive;
+    @NotNull
     private LocalDate trainingDate;
+    @NotNull
     private Integer trainingDuration;
+    @NotBlank
     private String actionType;
 }
@@ -0,0 +1,20 @@
+package org.example.trainer.dto.response;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainerHoursAsOfDto {
+
+    private String trainerUsername;
+    private Integer year;
+    private Integer month;
+    private Instant asOf;
+    private Integer hours;
+}
@@ -0,0 +1,22 @@
+package org.example.trainer.dto.response;
+
+import java.time.YearMonth;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainerHoursRangeDto {
+
+    private String trainerUsername;
+    private YearMonth from;
+    private YearMonth to;
+    private Integer totalHours;
+    private Double averageMonthlyHours;
+    private Map<YearMonth, Integer> monthlyHours;
+}
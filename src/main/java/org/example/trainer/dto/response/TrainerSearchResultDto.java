@@ -0,0 +1,19 @@
+package org.example.trainer.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainerSearchResultDto {
+
+    private String trainerUsername;
+    private String firstName;
+    private String lastName;
+    private boolean isActive;
+    private Integer currentMonthHours;
+}
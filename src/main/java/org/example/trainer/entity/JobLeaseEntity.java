@@ -0,0 +1,26 @@
+package org.example.trainer.entity;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "trainer_job_leases")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class JobLeaseEntity {
+
+    @Id
+    private String id;
+
+    private String owner;
+
+    private Instant expiresAt;
+}
@@ -0,0 +1,24 @@
+package org.example.trainer.entity;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "trainer_shard_members")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class TrainerShardMemberEntity {
+
+    @Id
+    private String id;
+
+    private Instant expiresAt;
+}
@@ -0,0 +1,29 @@
+package org.example.trainer.entity;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = TrainerWorkloadArchiveEntity.COLLECTION)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class TrainerWorkloadArchiveEntity {
+
+    public static final String COLLECTION = "trainer_workloads_archive";
+
+    @Id
+    private String id;
+
+    private Map<Integer, Map<Integer, Integer>> trainingSummary = new HashMap<>();
+
+    private Map<Integer, Long> versions = new HashMap<>();
+}
@@ -2,13 +2,16 @@ package org.example.trainer.entity;
 
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -36,4 +39,9 @@ public class TrainerWorkloadEntity {
 
     private Map<Integer, Map<Integer, Integer>> trainingSummary = new HashMap<>();
 
+    @Version
+    private Long version;
+
+    private Set<Integer> archivedYears = new HashSet<>();
+
 }
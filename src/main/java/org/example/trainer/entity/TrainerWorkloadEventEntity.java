@@ -0,0 +1,43 @@
+package org.example.trainer.entity;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "trainer_workload_events")
+@CompoundIndex(name = "trainer_occurred_at", def = "{'trainerUsername': 1, 'occurredAt': 1}")
+@CompoundIndex(name = "trainer_inserted_at", def = "{'trainerUsername': 1, 'insertedAt': 1}")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class TrainerWorkloadEventEntity {
+
+    public static final String ARCHIVE_COLLECTION = "trainer_workload_events_archive";
+
+    @Id
+    private String id;
+
+    private String trainerUsername;
+
+    private Integer year;
+
+    private Integer month;
+
+    private String actionType;
+
+    private Integer trainingDuration;
+
+    private Integer appliedDelta;
+
+    private Instant occurredAt;
+
+    private Instant insertedAt;
+}
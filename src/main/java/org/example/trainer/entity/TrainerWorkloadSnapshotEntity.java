@@ -0,0 +1,38 @@
+package org.example.trainer.entity;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "trainer_workload_snapshots")
+@CompoundIndex(name = "trainer_as_of", def = "{'trainerUsername': 1, 'asOf': -1}")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class TrainerWorkloadSnapshotEntity {
+
+    @Id
+    private String id;
+
+    private String trainerUsername;
+
+    private Instant asOf;
+
+    private boolean baseline;
+
+    private Map<Integer, Map<Integer, Integer>> trainingSummary = new HashMap<>();
+
+    private Map<Integer, Map<Integer, Integer>> requestedSummary = new HashMap<>();
+
+    private Instant insertedUpTo;
+}
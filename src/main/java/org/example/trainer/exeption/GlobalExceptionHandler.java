@@ -1,8 +1,12 @@
 package org.example.trainer.exeption;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.ResponseStatusException;
@@ -52,6 +56,33 @@ public class GlobalExceptionHandler {
         return buildErrorResponse("workload  not found: " + ex.getMessage(), ex.getHttpStatus());
     }
 
+    /**
+     * Handles request bodies failing validation, naming the invalid fields.
+     *
+     * @param e The validation failure of the request body.
+     * @return A {@link ResponseEntity} with a standardized {@link ErrorResponse} and a 400 status.
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException e) {
+        String fields = e.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        log.warn("Invalid request: {}", fields);
+        return buildErrorResponse("Invalid request: " + fields, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles requests rejected while Mongo is overloaded, telling the client to retry later.
+     *
+     * @param e The rejection raised by the circuit breaker or bulkhead guarding Mongo.
+     * @return A {@link ResponseEntity} with a standardized {@link ErrorResponse} and a 503 status.
+     */
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public ResponseEntity<ErrorResponse> handleOverload(RuntimeException e) {
+        log.warn("Request rejected while Mongo is overloaded: {}", e.getMessage());
+        return buildErrorResponse("Service temporarily overloaded, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * Handles general application-level exceptions, providing a consistent response format.
      *
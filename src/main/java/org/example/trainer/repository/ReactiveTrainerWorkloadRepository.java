@@ -0,0 +1,11 @@
+package org.example.trainer.repository;
+
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveTrainerWorkloadRepository extends ReactiveMongoRepository<TrainerWorkloadEntity, String> {
+    Mono<TrainerWorkloadEntity> findByTrainerUsername(String trainerUsername);
+}
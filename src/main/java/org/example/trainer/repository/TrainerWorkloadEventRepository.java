@@ -0,0 +1,28 @@
+package org.example.trainer.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.example.trainer.entity.TrainerWorkloadEventEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TrainerWorkloadEventRepository extends MongoRepository<TrainerWorkloadEventEntity, String> {
+    boolean existsByTrainerUsername(String trainerUsername);
+
+    @Query(value = "{'trainerUsername': ?0, $or: [{'insertedAt': {$gt: ?2, $lte: ?3}}, "
+            + "{'insertedAt': {$exists: false}, 'occurredAt': {$gt: ?1, $lte: ?3}}]}", sort = "{'occurredAt': 1}")
+    List<TrainerWorkloadEventEntity> findEventsBetween(String trainerUsername, Instant occurredAfter,
+                                                       Instant insertedAfter, Instant upTo);
+
+    @Query(value = "{'trainerUsername': ?0, $or: [{'insertedAt': {$gt: ?2}}, "
+            + "{'insertedAt': {$exists: false}, 'occurredAt': {$gt: ?1}}]}", sort = "{'occurredAt': 1}")
+    List<TrainerWorkloadEventEntity> findEventsAfter(String trainerUsername, Instant occurredAfter,
+                                                     Instant insertedAfter);
+
+    @Query(value = "{'trainerUsername': ?0, 'year': ?1, 'month': ?2, 'occurredAt': {$gt: ?3, $lte: ?4}}",
+            sort = "{'occurredAt': 1}")
+    List<TrainerWorkloadEventEntity> findMonthEventsBetween(String trainerUsername, Integer year, Integer month,
+                                                            Instant after, Instant upTo);
+}
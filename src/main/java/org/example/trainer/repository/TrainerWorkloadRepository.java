@@ -1,6 +1,7 @@
 package org.example.trainer.repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.example.trainer.entity.TrainerWorkloadEntity;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -8,4 +9,6 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface TrainerWorkloadRepository extends MongoRepository<TrainerWorkloadEntity, String> {
     Optional<TrainerWorkloadEntity> findByTrainerUsername(String trainerUsername);
+
+    Stream<TrainerWorkloadEntity> streamAllBy();
 }
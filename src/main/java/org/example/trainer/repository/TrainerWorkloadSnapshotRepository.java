@@ -0,0 +1,19 @@
+package org.example.trainer.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import org.example.trainer.entity.TrainerWorkloadSnapshotEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TrainerWorkloadSnapshotRepository extends MongoRepository<TrainerWorkloadSnapshotEntity, String> {
+    Optional<TrainerWorkloadSnapshotEntity>
+            findFirstByTrainerUsernameAndAsOfLessThanEqualOrderByAsOfDescInsertedUpToDesc(String trainerUsername,
+                                                                                        Instant asOf);
+
+    Optional<TrainerWorkloadSnapshotEntity> findFirstByTrainerUsernameOrderByAsOfDescInsertedUpToDesc(
+            String trainerUsername);
+
+    boolean existsByTrainerUsername(String trainerUsername);
+}
@@ -0,0 +1,111 @@
+package org.example.trainer.service;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Takes the instance out of rotation before it shuts down. On stop it first marks the instance DOWN in Eureka
+ * and waits {@code trainer.lifecycle.deregistration-delay} so that clients refresh their registry, then
+ * stops the JMS listener containers and the reactive bridge and only reports itself stopped once every
+ * message already being processed has been saved and acknowledged. Messages not yet received stay on the
+ * broker for the next instance instead of being cut off mid-save and redelivered.
+ * It runs in the last lifecycle phase and depends on the listener registry, so it stops before the listeners,
+ * the Eureka registration and the Mongo client.
+ */
+@Component
+@Slf4j
+public class GracefulShutdownDrain implements SmartLifecycle {
+
+    private final JmsListenerEndpointRegistry listenerRegistry;
+    private final ObjectProvider<ReactiveJmsBridge> reactiveBridge;
+    private final ObjectProvider<ApplicationInfoManager> eurekaInstance;
+    private final Duration deregistrationDelay;
+
+    private volatile boolean running;
+
+    /**
+     * Constructs a GracefulShutdownDrain with the components it stops.
+     *
+     * @param listenerRegistry    Registry holding the JMS listener containers
+     * @param reactiveBridge      The reactive bridge, when {@code trainer.reactive.enabled} is set
+     * @param eurekaInstance      The Eureka instance, when the Eureka client is enabled
+     * @param deregistrationDelay How long to keep consuming after reporting DOWN to Eureka
+     */
+    public GracefulShutdownDrain(JmsListenerEndpointRegistry listenerRegistry,
+                                 ObjectProvider<ReactiveJmsBridge> reactiveBridge,
+                                 ObjectProvider<ApplicationInfoManager> eurekaInstance,
+                                 @Value("${trainer.lifecycle.deregistration-delay:0s}") Duration deregistrationDelay) {
+        this.listenerRegistry = listenerRegistry;
+        this.reactiveBridge = reactiveBridge;
+        this.eurekaInstance = eurekaInstance;
+        this.deregistrationDelay = deregistrationDelay;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Deregisters the instance, stops the message consumers and invokes the callback once they have drained.
+     *
+     * @param callback invoked when no message is in flight any more
+     */
+    @Override
+    public void stop(Runnable callback) {
+        running = false;
+        long start = System.nanoTime();
+        deregister();
+
+        ReactiveJmsBridge bridge = reactiveBridge.getIfAvailable();
+        AtomicInteger pending = new AtomicInteger(bridge == null ? 1 : 2);
+        Runnable drained = () -> {
+            if (pending.decrementAndGet() == 0) {
+                log.info("Drained in-flight messages in {} ms", (System.nanoTime() - start) / 1_000_000);
+                callback.run();
+            }
+        };
+        log.info("Stopping JMS consumers and draining in-flight messages");
+        listenerRegistry.stop(drained);
+        if (bridge != null) {
+            bridge.stop(drained);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    private void deregister() {
+        ApplicationInfoManager instance = eurekaInstance.getIfAvailable();
+        if (instance == null) {
+            return;
+        }
+        instance.setInstanceStatus(InstanceStatus.DOWN);
+        log.info("Marked instance DOWN in Eureka, waiting {} before stopping consumers", deregistrationDelay);
+        try {
+            Thread.sleep(deregistrationDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
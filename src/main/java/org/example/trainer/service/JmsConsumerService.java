@@ -1,15 +1,19 @@
 package org.example.trainer.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import java.io.IOException;
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.MapMessage;
+import javax.jms.TextMessage;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
+import org.example.trainer.dto.request.TrainerHoursDto;
 import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
-import org.example.trainer.dto.response.TrainerWorkloadResponseDto;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
 import org.springframework.stereotype.Service;
 
 /**
@@ -20,53 +24,68 @@ import org.springframework.stereotype.Service;
 @Service
 @Slf4j
 public class JmsConsumerService {
+    public static final String TRAINING_UPDATE_LISTENER = "trainingUpdateListener";
+    public static final String TRAINING_HOURS_REQUEST_LISTENER = "trainingHoursRequestListener";
+    public static final String PROCESSING_TIMER = "trainer.jms.listener.processing";
+    public static final String REPLY_STATUS_PROPERTY = "status";
+    public static final String REPLY_STATUS_ERROR = "ERROR";
+    public static final String REPLY_STATUS_OVERLOADED = "OVERLOADED";
+    static final String DEAD_LETTER_QUEUE = "trainer.training.update.dlq";
+    static final String TRAINING_HOURS_RESPONSE_QUEUE = "response.traininghours.queue";
+
     private final TrainerWorkloadService trainerWorkloadService;
-    private final ObjectMapper objectMapper;
     private final JmsTemplate jmsTemplate;
+    private final WorkloadMessageCodec messageCodec;
+    private final StartupWarmUp startupWarmUp;
 
     /**
      * Constructs a JmsConsumerService with the necessary dependencies for handling messages.
      *
      * @param trainerWorkloadService the service for updating trainer workload data
-     * @param objectMapper           the mapper for converting between JSON strings and Java objects
      * @param jmsTemplate            the JMS template for sending messages to queues, like a dead letter queue
+     * @param messageCodec           the codec for binary messages and reply format negotiation
+     * @param startupWarmUp          the startup tracker measuring the time to the first message
      */
     @Autowired
-    public JmsConsumerService(TrainerWorkloadService trainerWorkloadService,
-                              ObjectMapper objectMapper, JmsTemplate jmsTemplate) {
+    public JmsConsumerService(TrainerWorkloadService trainerWorkloadService, JmsTemplate jmsTemplate,
+                              WorkloadMessageCodec messageCodec, StartupWarmUp startupWarmUp) {
         this.trainerWorkloadService = trainerWorkloadService;
-        this.objectMapper = objectMapper;
         this.jmsTemplate = jmsTemplate;
+        this.messageCodec = messageCodec;
+        this.startupWarmUp = startupWarmUp;
     }
 
     /**
      * Listens to a JMS queue for messages regarding trainer training updates.
-     * Processes incoming messages by deserializing them and passing them to
-     * the workload service, or by handling errors and sending messages to the DLQ.
+     * JSON text messages and binary messages are both decoded with the {@link WorkloadMessageCodec}, so the
+     * {@code formatVersion} of every message is checked. A message that cannot be processed is forwarded
+     * unchanged to the dead letter queue with the error attached as properties.
+     * An update rejected by the {@link MongoOverloadGuard} before it ran is not dead-lettered: the failure is
+     * rethrown, so the transacted session rolls the message back and the broker redelivers it with a backoff.
+     * Any other failure is dead-lettered, since the hours may already have been written and a redelivery would
+     * apply them twice.
      *
-     * @param message the JSON string message received from the queue
+     * @param message the JMS message received from the "trainer.training.update" queue
      */
-    @JmsListener(destination = "trainer.training.update", containerFactory = "jmsListenerContainerFactory")
-    public void receiveTrainingUpdate(String message) {
-        log.info("Received raw message: {}", message);
-
-        if (StringUtils.isBlank(message)) {
-            log.error("Received an empty or null message! Ignoring...");
-            return;
-        }
-
+    @JmsListener(id = TRAINING_UPDATE_LISTENER, destination = "trainer.training.update",
+            containerFactory = "trainingUpdateContainerFactory")
+    @Timed(value = PROCESSING_TIMER, extraTags = {"listener", TRAINING_UPDATE_LISTENER})
+    public void receiveTrainingUpdate(javax.jms.Message message) {
+        startupWarmUp.recordMessageReceived();
         try {
-            log.info("Attempting to deserialize message: {}", message);
-            TrainerWorkloadRequestDto request = objectMapper.readValue(message, TrainerWorkloadRequestDto.class);
-            log.info("Deserialized TrainerWorkloadRequest: {}", request);
-
-            if (request.getTrainerUsername() == null || request.getActionType() == null) {
-                throw new IllegalArgumentException("Missing required fields in TrainerWorkloadRequest");
+            if (message instanceof TextMessage textMessage) {
+                log.info("Received raw message: {}", textMessage.getText());
             }
 
-            trainerWorkloadService.updateTrainingHours(request);
-            log.info("Successfully processed training update for trainer: {}", request.getTrainerUsername());
+            TrainerWorkloadRequestDto request = messageCodec.decode(message, TrainerWorkloadRequestDto.class);
+            if (request == null) {
+                log.error("Received an empty or null message! Ignoring...");
+                return;
+            }
+            log.info("Decoded TrainerWorkloadRequest: {}", request);
+            applyTrainingUpdate(request);
         } catch (Exception e) {
+            rethrowIfOverloaded(e);
             log.error("Failed to process training update message: {}, redirecting to DLQ", message, e);
             sendToDeadLetterQueue(message, e);
         }
@@ -75,46 +94,84 @@ public class JmsConsumerService {
     /**
      * Listener to handle incoming JMS requests for training hours.
      * Receives a message from the request queue, processes it, and sends back a response.
+     * Requests arrive either as a {@link MapMessage} or as a binary {@link TrainerHoursDto}; the reply is JSON
+     * unless the request's {@code accept} property asks for the binary format. Encoded replies are cached by
+     * the {@link TrainerWorkloadService} until the trainer is updated.
+     * If the lookup fails, the requester gets an empty reply whose {@code status} property is {@code OVERLOADED}
+     * while Mongo is overloaded and {@code ERROR} otherwise, with the error attached, instead of waiting for
+     * its timeout. Requests that cannot be read are forwarded to the dead letter queue.
      *
      * @param message the JMS message received from the "request.traininghours.queue"
      */
-    @JmsListener(destination = "request.traininghours.queue")
+    @JmsListener(id = TRAINING_HOURS_REQUEST_LISTENER, destination = "request.traininghours.queue",
+            containerFactory = "trainingHoursRequestContainerFactory")
+    @Timed(value = PROCESSING_TIMER, extraTags = {"listener", TRAINING_HOURS_REQUEST_LISTENER})
     public void handleTrainingHoursRequest(javax.jms.Message message) {
+        startupWarmUp.recordMessageReceived();
+        TrainerHoursDto request = null;
         try {
-            if (message instanceof MapMessage) {
-                MapMessage mapMessage = (MapMessage) message;
-                String trainerUsername = mapMessage.getString("trainerUsername");
-                Integer month = mapMessage.getInt("month");
-                String correlationId = mapMessage.getString("correlationId");
-
-                log.info("Received training hours request for {} (month: {}) with correlationId = {}", trainerUsername,
-                        month, correlationId);
-
-                TrainerWorkloadResponseDto responseDto = trainerWorkloadService.getTrainingHoursForMonth(
-                        trainerUsername, month);
-
-                sendTrainingHoursResponse(responseDto, correlationId);
-
+            if (message instanceof MapMessage mapMessage) {
+                request = new TrainerHoursDto(mapMessage.getString("trainerUsername"), mapMessage.getInt("month"),
+                        mapMessage.getString("correlationId"));
+            } else if (message instanceof BytesMessage) {
+                request = messageCodec.decode(message, TrainerHoursDto.class);
             } else {
                 log.error("Received invalid message type: {}", message.getClass().getName());
+                return;
             }
-        } catch (JMSException e) {
+
+            log.info("Received training hours request for {} (month: {}) with correlationId = {}",
+                    request.getTrainerUsername(), request.getMonth(), request.getCorrelationId());
+
+            MessageFormat format = messageCodec.replyFormat(message);
+            byte[] reply = trainerWorkloadService.getEncodedTrainingHoursForMonth(request.getTrainerUsername(),
+                    request.getMonth(), format);
+
+            sendTrainingHoursResponse(message, reply, request.getCorrelationId(), format);
+        } catch (JMSException | IOException e) {
             log.error("Error processing request message.", e);
-            sendToDeadLetterQueue(String.valueOf(message), e);
+            sendToDeadLetterQueue(message, e);
+        } catch (RuntimeException e) {
+            if (request == null || request.getCorrelationId() == null) {
+                log.error("Error processing request message.", e);
+                sendToDeadLetterQueue(message, e);
+                return;
+            }
+            log.error("Failed to retrieve training hours for correlationId = {}", request.getCorrelationId(), e);
+            sendTrainingHoursError(message, request.getCorrelationId(), e);
+        }
+    }
+
+    private static void rethrowIfOverloaded(Exception e) {
+        if (e instanceof RuntimeException runtimeException && MongoOverloadGuard.isRejected(e)) {
+            log.warn("Mongo is overloaded, rolling back training update for redelivery: {}", e.getMessage());
+            throw runtimeException;
         }
     }
 
+    private void applyTrainingUpdate(TrainerWorkloadRequestDto request) {
+        if (request.getTrainerUsername() == null || request.getActionType() == null) {
+            throw new IllegalArgumentException("Missing required fields in TrainerWorkloadRequest");
+        }
+
+        trainerWorkloadService.updateTrainingHours(request);
+        log.info("Successfully processed training update for trainer: {}", request.getTrainerUsername());
+    }
+
     /**
      * Sends the response with the training hours to the response queue.
+     * If the response cannot be sent, the request is forwarded to the dead letter queue.
      *
-     * @param responseDto   The response DTO containing the calculated workload.
+     * @param request       The request being answered.
+     * @param reply         The encoded response DTO containing the calculated workload.
      * @param correlationId The correlation ID for the response.
+     * @param format        The wire format the reply was encoded in.
      */
-    private void sendTrainingHoursResponse(TrainerWorkloadResponseDto responseDto, String correlationId) {
+    private void sendTrainingHoursResponse(javax.jms.Message request, byte[] reply, String correlationId,
+                                           MessageFormat format) {
         try {
-            String responsePayload = objectMapper.writeValueAsString(responseDto);
-
-            jmsTemplate.convertAndSend("response.traininghours.queue", responsePayload, message -> {
+            jmsTemplate.send(TRAINING_HOURS_RESPONSE_QUEUE, session -> {
+                javax.jms.Message message = messageCodec.wrap(session, reply, format);
                 message.setJMSCorrelationID(correlationId);
                 return message;
             });
@@ -123,23 +180,49 @@ public class JmsConsumerService {
 
         } catch (Exception e) {
             log.error("Error sending response message for correlationId = {}", correlationId, e);
-            sendToDeadLetterQueue("Error sending response message", e);
+            sendToDeadLetterQueue(request, e);
+        }
+    }
+
+    /**
+     * Replies to a training hours request that could not be answered, so the requester does not wait for its
+     * timeout. The reply has no body; its {@code status} property tells an overload apart from other errors.
+     * If the reply cannot be sent, the request is forwarded to the dead letter queue.
+     *
+     * @param request       The request that failed.
+     * @param correlationId The correlation ID for the reply.
+     * @param failure       The reason the request failed.
+     */
+    private void sendTrainingHoursError(javax.jms.Message request, String correlationId, RuntimeException failure) {
+        String status = MongoOverloadGuard.isOverload(failure) ? REPLY_STATUS_OVERLOADED : REPLY_STATUS_ERROR;
+        try {
+            jmsTemplate.send(TRAINING_HOURS_RESPONSE_QUEUE, session -> {
+                javax.jms.Message message = WorkloadMessageCodec.withError(session.createMessage(), failure);
+                message.setStringProperty(REPLY_STATUS_PROPERTY, status);
+                message.setJMSCorrelationID(correlationId);
+                return message;
+            });
+            log.info("Sent {} reply for correlationId = {}", status, correlationId);
+        } catch (Exception e) {
+            log.error("Error sending {} reply for correlationId = {}", status, correlationId, e);
+            sendToDeadLetterQueue(request, failure);
         }
     }
 
     /**
-     * Sends the failed message to the Dead Letter Queue (DLQ) for further investigation.
+     * Forwards the failed message to the Dead Letter Queue (DLQ) for further investigation.
+     * The body and properties are kept as received and the error is attached as properties.
      *
      * @param message   the message that failed to process
      * @param exception the exception encountered while processing the message
      */
-    private void sendToDeadLetterQueue(String message, Exception exception) {
+    private void sendToDeadLetterQueue(javax.jms.Message message, Exception exception) {
+        sendToDeadLetterQueue(session -> WorkloadMessageCodec.deadLetter(session, message, exception));
+    }
+
+    private void sendToDeadLetterQueue(MessageCreator deadLetter) {
         try {
-            String errorDetails = "Failed message: "
-                    + message
-                    + "\nError: "
-                    + exception.getMessage();
-            jmsTemplate.convertAndSend("trainer.training.update.dlq", errorDetails);
+            jmsTemplate.send(DEAD_LETTER_QUEUE, deadLetter);
             log.info("Failed message sent to DLQ");
         } catch (Exception e) {
             log.error("Failed to send message to DLQ", e);
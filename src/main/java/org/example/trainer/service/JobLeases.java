@@ -0,0 +1,76 @@
+package org.example.trainer.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.entity.JobLeaseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Leases in {@code trainer_job_leases} that let a scheduled job run on one instance at a time.
+ * A lease is claimed like a shard bucket lease: it is taken over only when this instance already owns it or
+ * when it expired, so a crashed instance blocks the job for at most the lease duration.
+ */
+@Component
+@Slf4j
+public class JobLeases {
+
+    private final MongoTemplate mongoTemplate;
+    private final Clock clock;
+    private final String instanceId;
+
+    /**
+     * Constructs JobLeases owned by a random instance id.
+     *
+     * @param mongoTemplate Template used to claim and release the leases
+     */
+    @Autowired
+    public JobLeases(MongoTemplate mongoTemplate) {
+        this(mongoTemplate, Clock.systemUTC(), UUID.randomUUID().toString());
+    }
+
+    JobLeases(MongoTemplate mongoTemplate, Clock clock, String instanceId) {
+        this.mongoTemplate = mongoTemplate;
+        this.clock = clock;
+        this.instanceId = instanceId;
+    }
+
+    /**
+     * Claims or renews the lease of a job.
+     *
+     * @param job      The name of the job
+     * @param duration How long the lease is held unless renewed or released
+     * @return {@code true} if this instance holds the lease, {@code false} if another instance does
+     */
+    public boolean tryAcquire(String job, Duration duration) {
+        Instant now = clock.instant();
+        Query claimable = Query.query(Criteria.where("_id").is(job).orOperator(
+                Criteria.where("owner").is(instanceId), Criteria.where("expiresAt").lt(now)));
+        try {
+            mongoTemplate.upsert(claimable, new Update().set("owner", instanceId)
+                    .set("expiresAt", now.plus(duration)), JobLeaseEntity.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.debug("Job {} is leased by another instance", job);
+            return false;
+        }
+    }
+
+    /**
+     * Releases the lease of a job if this instance holds it.
+     *
+     * @param job The name of the job
+     */
+    public void release(String job) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(job).and("owner").is(instanceId)),
+                JobLeaseEntity.class);
+    }
+}
@@ -0,0 +1,232 @@
+package org.example.trainer.service;
+
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.TemporaryQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.config.ListenerConcurrencyProperties;
+import org.example.trainer.config.ListenerConcurrencyProperties.Limits;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically resizes the JMS listener containers based on the broker queue depth, the recent
+ * processing latency of each listener and the saturation of the Mongo connection pool.
+ * The queue depth is read from the ActiveMQ statistics plugin, so the broker must run with
+ * {@code statisticsBrokerPlugin} enabled and the tuner is only created with {@code trainer.jms.concurrency.adaptive}
+ * set. If a statistics query still goes unanswered, the broker is assumed to lack the plugin: the tuner logs a
+ * single warning and stops querying, and the containers keep their size.
+ * Only the upper bound of each container is adjusted; the lower bound stays at the configured minimum,
+ * which for the request/reply listener is a reserve that keeps it responsive during update storms.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trainer.jms.concurrency", name = "adaptive", havingValue = "true")
+@Slf4j
+public class ListenerConcurrencyTuner {
+
+    static final String TRAINING_UPDATE_QUEUE = "trainer.training.update";
+    static final String TRAINING_HOURS_REQUEST_QUEUE = "request.traininghours.queue";
+    static final String STATISTICS_DESTINATION_PREFIX = "ActiveMQ.Statistics.Destination.";
+
+    private final JmsListenerEndpointRegistry listenerRegistry;
+    private final JmsTemplate jmsTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ListenerConcurrencyProperties properties;
+    private final int mongoPoolMaxSize;
+    private final Map<String, long[]> lastTimerReadings = new ConcurrentHashMap<>();
+    private volatile boolean statisticsAvailable = true;
+
+    /**
+     * Constructs a ListenerConcurrencyTuner and registers a gauge with the current consumer ceiling
+     * of every listener.
+     *
+     * @param listenerRegistry    registry holding the running listener containers
+     * @param jmsTemplate         template used to query the broker statistics
+     * @param meterRegistry       registry providing listener timers and Mongo pool gauges
+     * @param properties          consumer limits and tuning thresholds
+     * @param mongoClientSettings the Mongo client settings the client is built from
+     * @param mongoCustomizers    the customizers applied to those settings, including the connection string
+     */
+    public ListenerConcurrencyTuner(JmsListenerEndpointRegistry listenerRegistry, JmsTemplate jmsTemplate,
+                                    MeterRegistry meterRegistry, ListenerConcurrencyProperties properties,
+                                    ObjectProvider<MongoClientSettings> mongoClientSettings,
+                                    ObjectProvider<MongoClientSettingsBuilderCustomizer> mongoCustomizers) {
+        this.listenerRegistry = listenerRegistry;
+        this.jmsTemplate = jmsTemplate;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.mongoPoolMaxSize = effectivePoolMaxSize(
+                mongoClientSettings.getIfAvailable(() -> MongoClientSettings.builder().build()),
+                mongoCustomizers.orderedStream().toList());
+
+        for (String listenerId : List.of(JmsConsumerService.TRAINING_UPDATE_LISTENER,
+                JmsConsumerService.TRAINING_HOURS_REQUEST_LISTENER)) {
+            Gauge.builder("trainer.jms.listener.max.consumers", () -> maxConsumers(listenerId))
+                    .tag("listener", listenerId)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Re-evaluates the consumer ceiling of both listener containers, unless the broker turned out to answer no
+     * statistics queries.
+     */
+    @Scheduled(fixedDelayString = "${trainer.jms.concurrency.adjust-interval:5s}",
+            initialDelayString = "${trainer.jms.concurrency.adjust-interval:5s}")
+    public void adjust() {
+        if (!statisticsAvailable) {
+            return;
+        }
+        double saturation = mongoPoolSaturation();
+        adjustListener(JmsConsumerService.TRAINING_UPDATE_LISTENER, TRAINING_UPDATE_QUEUE,
+                properties.getUpdate(), saturation);
+        adjustListener(JmsConsumerService.TRAINING_HOURS_REQUEST_LISTENER, TRAINING_HOURS_REQUEST_QUEUE,
+                properties.getRequest(), saturation);
+    }
+
+    /**
+     * Computes the next consumer ceiling of a listener. The ceiling shrinks while the Mongo pool is
+     * saturated or processing is far slower than the target, grows by one while the backlog exceeds
+     * what the current consumers can absorb, and falls back towards the minimum when the queue is empty.
+     */
+    static int nextMaxConsumers(int current, Limits limits, long depth, Duration latency, double saturation,
+                                ListenerConcurrencyProperties properties) {
+        int next = current;
+        if (saturation >= properties.getMongoPoolSaturation()
+                || latency.compareTo(properties.getTargetLatency().multipliedBy(2)) > 0) {
+            next = current - 1;
+        } else if (depth > (long) current * properties.getBacklogPerConsumer()
+                && latency.compareTo(properties.getTargetLatency()) <= 0) {
+            next = current + 1;
+        } else if (depth == 0) {
+            next = current - 1;
+        }
+        return Math.max(limits.getMinConsumers(), Math.min(limits.getMaxConsumers(), next));
+    }
+
+    /**
+     * Resolves the maximum Mongo pool size the way the client is built: the settings bean with every
+     * customizer applied, so a {@code maxPoolSize} given in {@code spring.data.mongodb.uri} is honoured.
+     */
+    static int effectivePoolMaxSize(MongoClientSettings settings,
+                                    List<MongoClientSettingsBuilderCustomizer> customizers) {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder(settings);
+        customizers.forEach(customizer -> customizer.customize(builder));
+        return builder.build().getConnectionPoolSettings().getMaxSize();
+    }
+
+    private void adjustListener(String listenerId, String queue, Limits limits, double saturation) {
+        MessageListenerContainer listenerContainer = listenerRegistry.getListenerContainer(listenerId);
+        if (!(listenerContainer instanceof DefaultMessageListenerContainer container) || !container.isRunning()
+                || !statisticsAvailable) {
+            return;
+        }
+
+        long depth = queueDepth(queue);
+        if (depth < 0) {
+            return;
+        }
+        Duration latency = recentLatency(listenerId);
+        int current = container.getMaxConcurrentConsumers();
+        int next = nextMaxConsumers(current, limits, depth, latency, saturation, properties);
+
+        if (next != current) {
+            container.setMaxConcurrentConsumers(next);
+            log.info("Listener {} resized from {} to {} consumers (depth: {}, latency: {} ms, mongo pool: {}%)",
+                    listenerId, current, next, depth, latency.toMillis(), Math.round(saturation * 100));
+        }
+    }
+
+    private long queueDepth(String queue) {
+        try {
+            Long depth = jmsTemplate.execute(session -> {
+                TemporaryQueue replyQueue = session.createTemporaryQueue();
+                MessageConsumer consumer = session.createConsumer(replyQueue);
+                MessageProducer producer = session.createProducer(
+                        session.createQueue(STATISTICS_DESTINATION_PREFIX + queue));
+                try {
+                    Message query = session.createMessage();
+                    query.setJMSReplyTo(replyQueue);
+                    producer.send(query);
+                    return depthOf(consumer.receive(properties.getStatisticsTimeout().toMillis()));
+                } finally {
+                    producer.close();
+                    consumer.close();
+                    replyQueue.delete();
+                }
+            }, true);
+            if (depth == null || depth < 0) {
+                statisticsAvailable = false;
+                log.warn("No statistics reply for queue {} within {}, the broker does not seem to run the "
+                        + "statistics plugin; adaptive listener concurrency is disabled until restart",
+                        queue, properties.getStatisticsTimeout());
+                return -1;
+            }
+            return depth;
+        } catch (JmsException e) {
+            log.warn("Could not query the statistics of queue {} to measure its depth", queue, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the queue size from a statistics plugin reply, or returns -1 when there was no reply.
+     */
+    static long depthOf(Message reply) throws JMSException {
+        return reply instanceof MapMessage statistics && statistics.itemExists("size")
+                ? statistics.getLong("size")
+                : -1;
+    }
+
+    private Duration recentLatency(String listenerId) {
+        Timer timer = meterRegistry.find(JmsConsumerService.PROCESSING_TIMER).tag("listener", listenerId).timer();
+        if (timer == null) {
+            return Duration.ZERO;
+        }
+        long count = timer.count();
+        long totalNanos = (long) timer.totalTime(TimeUnit.NANOSECONDS);
+        long[] previous = lastTimerReadings.put(listenerId, new long[] {count, totalNanos});
+        long processed = previous == null ? count : count - previous[0];
+        long elapsed = previous == null ? totalNanos : totalNanos - previous[1];
+        return processed <= 0 ? Duration.ZERO : Duration.ofNanos(elapsed / processed);
+    }
+
+    private double mongoPoolSaturation() {
+        if (meterRegistry.find("mongodb.driver.pool.waitqueuesize").gauges().stream()
+                .anyMatch(gauge -> gauge.value() > 0)) {
+            return 1.0;
+        }
+        Collection<Gauge> checkedOut = meterRegistry.find("mongodb.driver.pool.checkedout").gauges();
+        if (checkedOut.isEmpty() || mongoPoolMaxSize <= 0) {
+            return 0;
+        }
+        double inUse = checkedOut.stream().mapToDouble(Gauge::value).sum();
+        return inUse / ((double) mongoPoolMaxSize * checkedOut.size());
+    }
+
+    private int maxConsumers(String listenerId) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+        return container instanceof DefaultMessageListenerContainer dmc ? dmc.getMaxConcurrentConsumers() : 0;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.trainer.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import java.util.function.Supplier;
+import lombok.Getter;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Protects Mongo from being driven further into overload. Every write attempt runs through the
+ * {@code mongoWrites} circuit breaker, which opens when too many writes fail with resource or timeout errors
+ * or take longer than the configured slow-call threshold, and rejects writes until Mongo has recovered.
+ * Blocking writes and reads additionally run in separate {@code mongoWrites} and {@code mongoReads} bulkheads,
+ * so a write storm can never take all Mongo connections away from training hours lookups.
+ * All thresholds are configured under {@code resilience4j.circuitbreaker} and {@code resilience4j.bulkhead}.
+ */
+@Component
+public class MongoOverloadGuard {
+
+    public static final String WRITES = "mongoWrites";
+    public static final String READS = "mongoReads";
+
+    @Getter
+    private final CircuitBreaker writeCircuitBreaker;
+    private final Bulkhead writeBulkhead;
+    private final Bulkhead readBulkhead;
+
+    /**
+     * Constructs a MongoOverloadGuard from the configured resilience4j instances.
+     *
+     * @param circuitBreakerRegistry Registry holding the {@code mongoWrites} circuit breaker
+     * @param bulkheadRegistry       Registry holding the {@code mongoWrites} and {@code mongoReads} bulkheads
+     */
+    public MongoOverloadGuard(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        this.writeCircuitBreaker = circuitBreakerRegistry.circuitBreaker(WRITES);
+        this.writeBulkhead = bulkheadRegistry.bulkhead(WRITES);
+        this.readBulkhead = bulkheadRegistry.bulkhead(READS);
+    }
+
+    /**
+     * Runs a blocking write within the write bulkhead and circuit breaker.
+     *
+     * @param write the write to run
+     * @throws BulkheadFullException     if too many writes are already running
+     * @throws CallNotPermittedException if the circuit breaker is open
+     */
+    public void write(Runnable write) {
+        writeBulkhead.executeRunnable(() -> writeCircuitBreaker.executeRunnable(write));
+    }
+
+    /**
+     * Runs a reactive write within the write circuit breaker. The reactive path is bounded by the in-flight
+     * limit of {@link ReactiveJmsBridge} instead of a bulkhead.
+     *
+     * @param write the write to run
+     * @param <T>   the result type
+     * @return the guarded write, failing with {@link CallNotPermittedException} if the circuit breaker is open
+     */
+    public <T> Mono<T> write(Mono<T> write) {
+        return write.transformDeferred(CircuitBreakerOperator.of(writeCircuitBreaker));
+    }
+
+    /**
+     * Runs a blocking read within the read bulkhead.
+     *
+     * @param read the read to run
+     * @param <T>  the result type
+     * @return the result of the read
+     * @throws BulkheadFullException if too many reads are already running
+     */
+    public <T> T read(Supplier<T> read) {
+        return readBulkhead.executeSupplier(read);
+    }
+
+    /**
+     * Tells whether a call was rejected by the guard before it ran, so nothing of it was written to Mongo.
+     * Unlike {@link #isOverload(Throwable)}, a resource failure raised part-way through an update is not a
+     * rejection, because the training hours may already have been written.
+     *
+     * @param failure the failure to classify
+     * @return {@code true} if the circuit breaker or the bulkhead rejected the call
+     */
+    public static boolean isRejected(Throwable failure) {
+        return failure instanceof CallNotPermittedException || failure instanceof BulkheadFullException;
+    }
+
+    /**
+     * Tells whether a failure was caused by overload rather than by the message itself, so the message
+     * should be retried later instead of being dead-lettered. Exhausted version conflicts are not overload.
+     *
+     * @param failure the failure to classify
+     * @return {@code true} for rejected calls and transient Mongo resource failures
+     */
+    public static boolean isOverload(Throwable failure) {
+        return failure instanceof CallNotPermittedException
+                || failure instanceof BulkheadFullException
+                || failure instanceof DataAccessResourceFailureException
+                || (failure instanceof TransientDataAccessException
+                && !(failure instanceof OptimisticLockingFailureException));
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.trainer.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker.State;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops pulling training updates from the broker while Mongo is overloaded. When the {@code mongoWrites}
+ * circuit breaker of the {@link MongoOverloadGuard} opens, the update listener container, or in sharded mode
+ * the {@link TrainerShardRouter} and the shard containers of the {@link TrainerShardCoordinator}, is stopped,
+ * so new updates wait on the broker instead of failing one after
+ * another; updates already received are rolled back and redelivered later with a backoff. Once the breaker lets
+ * trial writes through again, the containers are restarted. Only containers this switch stopped itself are
+ * restarted, and never after the context started closing.
+ * The {@code trainer.jms.listener.paused} gauge reports per listener whether it is currently paused.
+ */
+@Component
+@Slf4j
+public class OverloadListenerSwitch {
+
+    static final List<String> UPDATE_LISTENERS = List.of(JmsConsumerService.TRAINING_UPDATE_LISTENER,
+            TrainerShardRouter.TRAINING_UPDATE_ROUTER);
+    static final List<String> PAUSABLE_LISTENERS = List.of(JmsConsumerService.TRAINING_UPDATE_LISTENER,
+            TrainerShardRouter.TRAINING_UPDATE_ROUTER, TrainerShardCoordinator.SHARD_CONSUMER);
+
+    private final JmsListenerEndpointRegistry listenerRegistry;
+    private final ObjectProvider<TrainerShardCoordinator> shardCoordinator;
+    private final Set<String> pausedListeners = new HashSet<>();
+
+    private boolean closing;
+
+    /**
+     * Constructs an OverloadListenerSwitch and subscribes it to the write circuit breaker's state transitions.
+     *
+     * @param overloadGuard    Guard whose write circuit breaker decides when to pause
+     * @param listenerRegistry Registry holding the update listener containers
+     * @param shardCoordinator Coordinator of the shard containers, available in sharded mode only
+     * @param meterRegistry    Registry for the paused gauges
+     */
+    public OverloadListenerSwitch(MongoOverloadGuard overloadGuard, JmsListenerEndpointRegistry listenerRegistry,
+                                  ObjectProvider<TrainerShardCoordinator> shardCoordinator,
+                                  MeterRegistry meterRegistry) {
+        this.listenerRegistry = listenerRegistry;
+        this.shardCoordinator = shardCoordinator;
+        overloadGuard.getWriteCircuitBreaker().getEventPublisher().onStateTransition(this::onStateTransition);
+        for (String listenerId : PAUSABLE_LISTENERS) {
+            Gauge.builder("trainer.jms.listener.paused", this,
+                            listenerSwitch -> listenerSwitch.isPaused(listenerId) ? 1 : 0)
+                    .tag("listener", listenerId)
+                    .register(meterRegistry);
+        }
+    }
+
+    void onStateTransition(CircuitBreakerOnStateTransitionEvent event) {
+        State state = event.getStateTransition().getToState();
+        if (state == State.OPEN || state == State.FORCED_OPEN) {
+            pause();
+        } else {
+            resume();
+        }
+    }
+
+    /**
+     * Keeps a paused container stopped once the application context starts shutting down.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void onContextClosed() {
+        closing = true;
+    }
+
+    synchronized boolean isPaused(String listenerId) {
+        return pausedListeners.contains(listenerId);
+    }
+
+    private synchronized void pause() {
+        TrainerShardCoordinator coordinator = shardCoordinator.getIfAvailable();
+        if (!closing && coordinator != null && coordinator.isRunning()
+                && pausedListeners.add(TrainerShardCoordinator.SHARD_CONSUMER)) {
+            coordinator.pauseConsumers();
+            log.warn("Mongo is overloaded, paused listener {}", TrainerShardCoordinator.SHARD_CONSUMER);
+        }
+        for (String listenerId : UPDATE_LISTENERS) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+            if (closing || container == null || !container.isRunning() || !pausedListeners.add(listenerId)) {
+                continue;
+            }
+            container.stop();
+            log.warn("Mongo is overloaded, paused listener {}", listenerId);
+        }
+    }
+
+    private synchronized void resume() {
+        if (closing) {
+            return;
+        }
+        TrainerShardCoordinator coordinator = shardCoordinator.getIfAvailable();
+        if (pausedListeners.remove(TrainerShardCoordinator.SHARD_CONSUMER) && coordinator != null) {
+            coordinator.resumeConsumers();
+            log.info("Mongo accepts writes again, resumed listener {}", TrainerShardCoordinator.SHARD_CONSUMER);
+        }
+        for (String listenerId : pausedListeners) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+            if (container != null) {
+                container.start();
+                log.info("Mongo accepts writes again, resumed listener {}", listenerId);
+            }
+        }
+        pausedListeners.clear();
+    }
+}
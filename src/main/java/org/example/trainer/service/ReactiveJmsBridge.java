@@ -0,0 +1,275 @@
+package org.example.trainer.service;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.ActiveMQSession;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Feeds the {@code trainer.training.update} queue into {@link ReactiveTrainerWorkloadService} with
+ * end-to-end backpressure. JMS has no reactive API, so a single bridge thread pulls messages from a plain
+ * consumer on demand only. Updates are spread over {@code trainer.reactive.max-in-flight} lanes by trainer username
+ * and each lane applies its updates one after another, so a hot trainer never has several updates racing for its
+ * document version here. At most {@code max-in-flight} received updates wait for their lane and each lane pulls
+ * the next update only once the previous one completed, so no more than twice {@code max-in-flight} messages are
+ * in flight. The consumer's prefetch is set to that bound, replacing the broker's default queue prefetch of 1000,
+ * so the broker never dispatches more unacknowledged messages to the bridge either.
+ * Each message is acknowledged individually once its update completed or it was forwarded to the dead letter
+ * queue. The acknowledgement is handed back to the bridge thread, which owns the JMS session, and is sent before
+ * its next receive, at the latest after {@code trainer.reactive.receive-timeout}.
+ * An update rejected by the {@link MongoOverloadGuard} before it ran is retried in its lane with a backoff of
+ * 1 to 30 seconds instead of being dead-lettered; the stalled lanes keep the in-flight limit reached, so the bridge
+ * stops pulling further messages until Mongo recovers. Other failures are dead-lettered, since the hours may
+ * already have been written and a retry would apply them twice.
+ * When enabled, the blocking update listener container is not started.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trainer.reactive", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReactiveJmsBridge implements SmartLifecycle {
+
+    static final String TRAINING_UPDATE_QUEUE = "trainer.training.update";
+    static final String DEAD_LETTER_QUEUE = "trainer.training.update.dlq";
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+    private static final Duration OVERLOAD_MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration OVERLOAD_MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final ConnectionFactory connectionFactory;
+    private final ReactiveTrainerWorkloadService workloadService;
+    private final WorkloadMessageCodec messageCodec;
+    private final JmsTemplate jmsTemplate;
+    private final StartupWarmUp startupWarmUp;
+    private final int maxInFlight;
+    private final Duration receiveTimeout;
+    private final Queue<Message> completedMessages = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+    private volatile Runnable onStopped;
+    private Connection connection;
+    private Scheduler receiveScheduler;
+    private Disposable subscription;
+
+    /**
+     * Constructs a ReactiveJmsBridge with the necessary dependencies.
+     *
+     * @param connectionFactory the factory for the bridge's own broker connection
+     * @param workloadService   the reactive service applying the updates
+     * @param messageCodec      the codec for converting JSON or binary messages to requests
+     * @param jmsTemplate       the JMS template for sending failed messages to the dead letter queue
+     * @param startupWarmUp     the startup tracker measuring the time to the first message
+     * @param maxInFlight       the maximum number of updates pulled from the queue but not yet completed
+     * @param receiveTimeout    how long a single receive waits before checking for shutdown
+     */
+    public ReactiveJmsBridge(ConnectionFactory connectionFactory, ReactiveTrainerWorkloadService workloadService,
+                             WorkloadMessageCodec messageCodec, JmsTemplate jmsTemplate, StartupWarmUp startupWarmUp,
+                             @Value("${trainer.reactive.max-in-flight:256}") int maxInFlight,
+                             @Value("${trainer.reactive.receive-timeout:1s}") Duration receiveTimeout) {
+        this.connectionFactory = connectionFactory;
+        this.workloadService = workloadService;
+        this.messageCodec = messageCodec;
+        this.jmsTemplate = jmsTemplate;
+        this.startupWarmUp = startupWarmUp;
+        this.maxInFlight = maxInFlight;
+        this.receiveTimeout = receiveTimeout;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            connection = connectionFactory.createConnection();
+            Session session = connection.createSession(false, ActiveMQSession.INDIVIDUAL_ACKNOWLEDGE);
+            MessageConsumer consumer = session.createConsumer(session.createQueue(TRAINING_UPDATE_QUEUE
+                    + "?consumer.prefetchSize=" + 2 * maxInFlight));
+            connection.start();
+            running = true;
+            receiveScheduler = Schedulers.newSingle("reactive-jms-bridge");
+
+            subscription = receive(consumer)
+                    .subscribeOn(receiveScheduler)
+                    .map(this::toUpdate)
+                    .groupBy(update -> Math.floorMod(update.laneKey().hashCode(), maxInFlight), maxInFlight)
+                    .flatMap(lane -> lane.concatMap(this::process, 0), maxInFlight)
+                    .doFinally(signal -> closeConnection())
+                    .subscribe(null, e -> log.error("Reactive JMS bridge stopped unexpectedly", e));
+            log.info("Reactive JMS bridge consuming {} over {} lanes", TRAINING_UPDATE_QUEUE,
+                    maxInFlight);
+        } catch (JMSException e) {
+            JmsUtils.closeConnection(connection);
+            throw JmsUtils.convertJmsAccessException(e);
+        }
+    }
+
+    /**
+     * Stops pulling new messages and invokes the callback once every in-flight update has completed.
+     *
+     * @param callback invoked when the bridge has fully stopped
+     */
+    @Override
+    public synchronized void stop(Runnable callback) {
+        if (!running) {
+            callback.run();
+            return;
+        }
+        onStopped = callback;
+        running = false;
+    }
+
+    @Override
+    public void stop() {
+        CountDownLatch stopped = new CountDownLatch(1);
+        stop(stopped::countDown);
+        try {
+            if (!stopped.await(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Reactive JMS bridge did not drain within {}s, cancelling in-flight updates",
+                        STOP_TIMEOUT_SECONDS);
+                subscription.dispose();
+                closeConnection();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Emits messages from the consumer on demand only. The generator runs once per requested element, waiting
+     * for the next message, and completes when the bridge is stopped, letting the in-flight updates finish.
+     * Before every receive it acknowledges the messages whose updates completed, so the session is only ever
+     * used by the bridge thread.
+     */
+    Flux<Message> receive(MessageConsumer consumer) {
+        return Flux.generate(sink -> {
+            try {
+                while (running) {
+                    acknowledgeCompleted();
+                    Message message = consumer.receive(receiveTimeout.toMillis());
+                    if (message != null) {
+                        sink.next(message);
+                        return;
+                    }
+                }
+                sink.complete();
+            } catch (JMSException e) {
+                if (running) {
+                    sink.error(e);
+                } else {
+                    sink.complete();
+                }
+            }
+        });
+    }
+
+    Mono<Void> process(InboundUpdate update) {
+        Mono<Void> applied = update.failure() != null
+                ? Mono.error(update.failure())
+                : Mono.justOrEmpty(update.request()).flatMap(workloadService::updateTrainingHours)
+                        .retryWhen(Retry.backoff(Long.MAX_VALUE, OVERLOAD_MIN_BACKOFF)
+                                .maxBackoff(OVERLOAD_MAX_BACKOFF)
+                                .filter(MongoOverloadGuard::isRejected)
+                                .doBeforeRetry(signal -> log.warn("Mongo is overloaded, retrying training update "
+                                        + "(attempt {}): {}", signal.totalRetries() + 1,
+                                        signal.failure().getMessage())));
+        return applied
+                .onErrorResume(e -> {
+                    log.error("Failed to process training update message, redirecting to DLQ", e);
+                    return Mono.fromRunnable(() -> sendToDeadLetterQueue(update.message(), e))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .then();
+                })
+                .then(Mono.fromRunnable(() -> completedMessages.add(update.message())));
+    }
+
+    private InboundUpdate toUpdate(Message message) {
+        startupWarmUp.recordMessageReceived();
+        try {
+            TrainerWorkloadRequestDto request = messageCodec.decode(message, TrainerWorkloadRequestDto.class);
+            if (request == null) {
+                log.error("Received an empty training update message! Ignoring...");
+                return new InboundUpdate(message, null, null);
+            }
+            if (request.getTrainerUsername() == null || request.getActionType() == null) {
+                throw new IllegalArgumentException("Missing required fields in TrainerWorkloadRequest");
+            }
+            return new InboundUpdate(message, request, null);
+        } catch (Exception e) {
+            return new InboundUpdate(message, null, e);
+        }
+    }
+
+    private void acknowledgeCompleted() {
+        Message message;
+        while ((message = completedMessages.poll()) != null) {
+            try {
+                message.acknowledge();
+            } catch (JMSException e) {
+                log.warn("Could not acknowledge training update message, it will be redelivered", e);
+            }
+        }
+    }
+
+    private void sendToDeadLetterQueue(Message message, Throwable exception) {
+        try {
+            jmsTemplate.send(DEAD_LETTER_QUEUE,
+                    session -> WorkloadMessageCodec.deadLetter(session, message, exception));
+            log.info("Failed message sent to DLQ");
+        } catch (Exception e) {
+            log.error("Failed to send message to DLQ", e);
+        }
+    }
+
+    private synchronized void closeConnection() {
+        if (connection != null) {
+            acknowledgeCompleted();
+        }
+        JmsUtils.closeConnection(connection);
+        connection = null;
+        if (receiveScheduler != null) {
+            receiveScheduler.dispose();
+        }
+        Runnable callback = onStopped;
+        onStopped = null;
+        running = false;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    /**
+     * A received message with its parsed request, or the reason it could not be parsed.
+     */
+    record InboundUpdate(Message message, TrainerWorkloadRequestDto request, Exception failure) {
+
+        String laneKey() {
+            return request == null ? "" : request.getTrainerUsername();
+        }
+    }
+}
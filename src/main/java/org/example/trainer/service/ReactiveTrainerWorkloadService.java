@@ -0,0 +1,204 @@
+package org.example.trainer.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.config.RetryConfig;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerWorkloadResponseDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.exeption.WorkloadException;
+import org.example.trainer.repository.ReactiveTrainerWorkloadRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Non-blocking counterpart of {@link TrainerWorkloadService} built on the reactive Mongo driver.
+ * It applies exactly the same version-guarded month updates, so both variants can serve the same
+ * collection side by side; a version conflict is retried on a timer instead of a sleeping thread.
+ * The in-memory search index is updated inline, while the workload event log, which is written through
+ * the blocking {@link WorkloadHistoryService}, is offloaded to the bounded elastic scheduler, and so are the
+ * archive lookups and restores of the blocking {@link WorkloadTieringService}, which only trainers with
+ * archived years need.
+ */
+@Service
+@Slf4j
+public class ReactiveTrainerWorkloadService {
+
+    private final ReactiveTrainerWorkloadRepository workloadRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TrainerSearchIndex searchIndex;
+    private final WorkloadContentionTracker contentionTracker;
+    private final WorkloadHistoryService historyService;
+    private final MongoOverloadGuard overloadGuard;
+    private final TrainingHoursReplyCache replyCache;
+    private final WorkloadTieringService tieringService;
+
+    /**
+     * Constructs a ReactiveTrainerWorkloadService with the necessary dependencies.
+     *
+     * @param workloadRepository Reactive repository for accessing trainer workload data
+     * @param mongoTemplate      Reactive template used for targeted, version-checked updates
+     * @param searchIndex        In-memory trainer search index kept in sync with every update
+     * @param contentionTracker  Records version conflicts per trainer
+     * @param historyService     Appends every applied update to the workload event log
+     * @param overloadGuard      Sheds writes while Mongo is overloaded
+     * @param replyCache         Encoded training hours replies, invalidated by every update
+     * @param tieringService     Merges archived years into reads and restores them before updates
+     */
+    public ReactiveTrainerWorkloadService(ReactiveTrainerWorkloadRepository workloadRepository,
+                                          ReactiveMongoTemplate mongoTemplate, TrainerSearchIndex searchIndex,
+                                          WorkloadContentionTracker contentionTracker,
+                                          WorkloadHistoryService historyService,
+                                          MongoOverloadGuard overloadGuard, TrainingHoursReplyCache replyCache,
+                                          WorkloadTieringService tieringService) {
+        this.workloadRepository = workloadRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndex = searchIndex;
+        this.contentionTracker = contentionTracker;
+        this.historyService = historyService;
+        this.overloadGuard = overloadGuard;
+        this.replyCache = replyCache;
+        this.tieringService = tieringService;
+    }
+
+    /**
+     * Updates the training hours for a trainer based on the provided request data.
+     * Version conflicts are retried with the same attempt count and jittered backoff as the blocking service,
+     * and every attempt runs through the same {@link MongoOverloadGuard} write circuit breaker.
+     *
+     * @param request Contains the details of the trainer and the update parameters like duration and action type
+     * @return a Mono completing once the update is stored, or failing with
+     *         {@link OptimisticLockingFailureException} if the trainer document kept changing through every retry
+     *         or with {@link io.github.resilience4j.circuitbreaker.CallNotPermittedException} while writes are shed
+     */
+    public Mono<Void> updateTrainingHours(TrainerWorkloadRequestDto request) {
+        return overloadGuard.write(Mono.defer(() -> applyTrainingHours(request)))
+                .retryWhen(Retry.backoff(RetryConfig.OPTIMISTIC_LOCK_MAX_ATTEMPTS - 1,
+                                Duration.ofMillis(RetryConfig.OPTIMISTIC_LOCK_INITIAL_BACKOFF_MS))
+                        .maxBackoff(Duration.ofMillis(RetryConfig.OPTIMISTIC_LOCK_MAX_BACKOFF_MS))
+                        .filter(ReactiveTrainerWorkloadService::isConflict)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnError(ReactiveTrainerWorkloadService::isConflict,
+                        e -> contentionTracker.recordExhausted(request.getTrainerUsername()));
+    }
+
+    /**
+     * Retrieves the total training hours for a trainer for a specified month.
+     *
+     * @param trainerUsername The username of the trainer
+     * @param month The specific month for querying total hours
+     * @return a Mono with the training summary for the month, or failing with {@link WorkloadException}
+     *         if no workload data is found for the trainer or the specific month
+     */
+    public Mono<TrainerWorkloadResponseDto> getTrainingHoursForMonth(String trainerUsername, Integer month) {
+        return workloadRepository.findByTrainerUsername(trainerUsername)
+                .switchIfEmpty(Mono.error(() -> new WorkloadException("No workload data found for trainer: "
+                        + trainerUsername)))
+                .flatMap(this::withArchive)
+                .map(workload -> TrainerWorkloadService.monthResponse(workload, month));
+    }
+
+    /**
+     * Streams the training hours of every trainer that has hours recorded for the given month.
+     * Documents are pulled from the Mongo cursor only as fast as the subscriber requests them.
+     *
+     * @param month The specific month for querying total hours
+     * @return the training summaries for the month, one per trainer
+     */
+    public Flux<TrainerWorkloadResponseDto> streamTrainingHoursForMonth(Integer month) {
+        return workloadRepository.findAll()
+                .concatMap(this::withArchive)
+                .filter(workload -> workload.getTrainingSummary().values().stream()
+                        .anyMatch(months -> months.containsKey(month)))
+                .map(workload -> TrainerWorkloadService.monthResponse(workload, month));
+    }
+
+    private Mono<Void> applyTrainingHours(TrainerWorkloadRequestDto request) {
+        return workloadRepository.findByTrainerUsername(request.getTrainerUsername())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(workload -> workload.isPresent()
+                        ? updateExisting(workload.get(), request)
+                        : createWorkload(request));
+    }
+
+    private Mono<Void> createWorkload(TrainerWorkloadRequestDto request) {
+        if (request.getActionType().equalsIgnoreCase("DELETE")) {
+            log.warn("Attempt to delete non-existing workload for trainer: {}", request.getTrainerUsername());
+            return Mono.empty();
+        }
+
+        TrainerWorkloadEntity newWorkload = TrainerWorkloadService.newWorkload(request);
+        int newDuration = newWorkload.getTrainingSummary().get(request.getTrainingDate().getYear())
+                .get(request.getTrainingDate().getMonthValue());
+        return workloadRepository.save(newWorkload)
+                .doOnNext(searchIndex::index)
+                .then(recordEvent(null, request, newDuration));
+    }
+
+    private Mono<Void> updateExisting(TrainerWorkloadEntity workload, TrainerWorkloadRequestDto request) {
+        Integer year = request.getTrainingDate().getYear();
+        Integer month = request.getTrainingDate().getMonthValue();
+        if (WorkloadTieringService.hasArchived(workload, year::equals)) {
+            return Mono.fromRunnable(() -> tieringService.restoreYear(workload, year))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then(Mono.defer(() -> updateExisting(workload, request)));
+        }
+        Map<Integer, Integer> monthlySummary = workload.getTrainingSummary()
+                .computeIfAbsent(year, y -> new HashMap<>());
+        int existingDuration = monthlySummary.getOrDefault(month, 0);
+        int newDuration = TrainerWorkloadService.updatedDuration(existingDuration, request);
+
+        return mongoTemplate.updateFirst(TrainerWorkloadService.sameVersion(workload),
+                        TrainerWorkloadService.monthUpdate(year, month, newDuration), TrainerWorkloadEntity.class)
+                .flatMap(result -> {
+                    if (result.getMatchedCount() == 0) {
+                        contentionTracker.recordConflict(request.getTrainerUsername());
+                        return Mono.error(TrainerWorkloadService.concurrentModification(workload));
+                    }
+                    return recordEvent(workload, request, newDuration - existingDuration);
+                })
+                .then(Mono.defer(() -> {
+                    monthlySummary.put(month, newDuration);
+                    workload.setVersion(workload.getVersion() == null ? 1L : workload.getVersion() + 1);
+                    if (!TrainerWorkloadService.profileChanged(workload, request)) {
+                        return Mono.empty();
+                    }
+                    TrainerWorkloadService.applyProfile(workload, request);
+                    return mongoTemplate.updateFirst(TrainerWorkloadService.byTrainer(request.getTrainerUsername()),
+                            TrainerWorkloadService.profileUpdate(request), TrainerWorkloadEntity.class).then();
+                }))
+                .doOnSuccess(done -> searchIndex.index(workload))
+                .then(Mono.fromRunnable(() -> replyCache.invalidate(request.getTrainerUsername(),
+                                TrainerWorkloadService.versionOf(workload)))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then());
+    }
+
+    private Mono<TrainerWorkloadEntity> withArchive(TrainerWorkloadEntity workload) {
+        if (!WorkloadTieringService.hasArchived(workload, year -> true)) {
+            return Mono.just(workload);
+        }
+        return Mono.fromCallable(() -> tieringService.withArchive(workload, year -> true))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Void> recordEvent(TrainerWorkloadEntity before, TrainerWorkloadRequestDto request, int delta) {
+        return Mono.fromRunnable(() -> historyService.recordEvent(before, request, delta))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private static boolean isConflict(Throwable e) {
+        return e instanceof OptimisticLockingFailureException || e instanceof DuplicateKeyException;
+    }
+}
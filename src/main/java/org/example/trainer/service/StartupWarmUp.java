@@ -0,0 +1,196 @@
+package org.example.trainer.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.trainer.dto.request.TrainerHoursDto;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerWorkloadResponseDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.entity.TrainerWorkloadEventEntity;
+import org.example.trainer.entity.TrainerWorkloadSnapshotEntity;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepares the instance before it takes any traffic. The warm-up runs as a lifecycle bean in an early phase,
+ * so it completes before the instance reports UP to Eureka and before the web server and the JMS listener
+ * containers start. It builds the Jackson serializers of every message payload in both wire formats, opens
+ * {@code trainer.lifecycle.warm-up.mongo-connections} pooled Mongo connections, generates the Mongo mapping
+ * accessors of every entity and rebuilds the {@link TrainerSearchIndex}. The index is always rebuilt; the
+ * other steps can be switched off with {@code trainer.lifecycle.warm-up.enabled=false} and never fail startup.
+ * The time from JVM start until the first message arrives is logged once and published as the
+ * {@code trainer.startup.first.message} gauge.
+ */
+@Component
+@Slf4j
+public class StartupWarmUp implements SmartLifecycle {
+
+    static final int WARM_UP_PHASE = -1000;
+
+    private final WorkloadMessageCodec messageCodec;
+    private final MongoTemplate mongoTemplate;
+    private final TrainerSearchIndex searchIndex;
+    private final boolean enabled;
+    private final int mongoConnections;
+    private final AtomicLong firstMessageMillis = new AtomicLong(-1);
+
+    private volatile boolean running;
+    private volatile long readyAtMillis;
+
+    /**
+     * Constructs a StartupWarmUp and registers the time-to-first-message gauge.
+     *
+     * @param messageCodec     Codec whose JSON and CBOR serializers are warmed up
+     * @param mongoTemplate    Template used to open the pooled Mongo connections and map the entities
+     * @param searchIndex      Index rebuilt before the listeners start
+     * @param meterRegistry    Registry for the time-to-first-message gauge
+     * @param enabled          Whether the Jackson and Mongo warm-up steps run
+     * @param mongoConnections Number of Mongo connections opened in parallel during warm-up
+     */
+    public StartupWarmUp(WorkloadMessageCodec messageCodec, MongoTemplate mongoTemplate,
+                         TrainerSearchIndex searchIndex, MeterRegistry meterRegistry,
+                         @Value("${trainer.lifecycle.warm-up.enabled:true}") boolean enabled,
+                         @Value("${trainer.lifecycle.warm-up.mongo-connections:5}") int mongoConnections) {
+        this.messageCodec = messageCodec;
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndex = searchIndex;
+        this.enabled = enabled;
+        this.mongoConnections = mongoConnections;
+        TimeGauge.builder("trainer.startup.first.message", firstMessageMillis, TimeUnit.MILLISECONDS,
+                        millis -> millis.get() < 0 ? Double.NaN : millis.get())
+                .description("Time from JVM start until the first JMS message was received")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        long start = System.nanoTime();
+        if (enabled) {
+            long jacksonMillis = timed(this::warmUpJackson, "Jackson serializers");
+            long mongoMillis = timed(this::warmUpMongoPool, "Mongo connection pool");
+            long mappingMillis = timed(this::warmUpMongoMapping, "Mongo entity mapping");
+            log.info("Warmed up Jackson serializers in {} ms, {} Mongo connections in {} ms and entity mapping "
+                    + "in {} ms", jacksonMillis, mongoConnections, mongoMillis, mappingMillis);
+        }
+        searchIndex.rebuild();
+        running = true;
+        readyAtMillis = System.currentTimeMillis();
+        log.info("Startup warm-up completed in {} ms, {} ms after JVM start",
+                (System.nanoTime() - start) / 1_000_000, readyAtMillis - jvmStartMillis());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return WARM_UP_PHASE;
+    }
+
+    /**
+     * Records that a message was received. Only the first call after startup is measured and logged.
+     */
+    public void recordMessageReceived() {
+        if (firstMessageMillis.get() >= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (firstMessageMillis.compareAndSet(-1, now - jvmStartMillis())) {
+            log.info("First message received {} ms after JVM start, {} ms after warm-up completed",
+                    firstMessageMillis.get(), now - readyAtMillis);
+        }
+    }
+
+    long firstMessageMillis() {
+        return firstMessageMillis.get();
+    }
+
+    void warmUpJackson() throws Exception {
+        List<Object> payloads = List.of(
+                new TrainerWorkloadRequestDto("warm.up", "Warm", "Up", true, LocalDate.now(), 1, "ADD"),
+                new TrainerHoursDto("warm.up", 1, "warm-up"),
+                new TrainerWorkloadResponseDto("warm.up", "Warm", "Up", true, Map.of(2025, Map.of(1, 1))));
+        for (MessageFormat format : MessageFormat.values()) {
+            for (Object payload : payloads) {
+                messageCodec.fromBytes(messageCodec.toBytes(payload, format), payload.getClass(), format);
+            }
+        }
+    }
+
+    void warmUpMongoPool() {
+        ExecutorService pingers = Executors.newFixedThreadPool(mongoConnections);
+        try {
+            List<CompletableFuture<Document>> pings = new ArrayList<>();
+            for (int i = 0; i < mongoConnections; i++) {
+                pings.add(CompletableFuture.supplyAsync(() -> mongoTemplate.executeCommand(new Document("ping", 1)),
+                        pingers));
+            }
+            CompletableFuture.allOf(pings.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pingers.shutdown();
+        }
+    }
+
+    void warmUpMongoMapping() {
+        Map<Integer, Map<Integer, Integer>> summary = Map.of(2025, Map.of(1, 1));
+        Instant now = Instant.now();
+        List<Object> entities = List.of(
+                new TrainerWorkloadEntity("warm-up", "warm.up", "Warm", "Up", true, summary, 0L, new HashSet<>()),
+                new TrainerWorkloadEventEntity("warm-up", "warm.up", 2025, 1, "ADD", 1, 1, now, now),
+                new TrainerWorkloadSnapshotEntity("warm-up", "warm.up", now, false, summary, summary, now));
+        MongoConverter converter = mongoTemplate.getConverter();
+        for (Object entity : entities) {
+            Document document = new Document();
+            converter.write(entity, document);
+            converter.read(entity.getClass(), document);
+        }
+        mongoTemplate.findOne(Query.query(Criteria.where("trainerUsername").is("warm.up")),
+                TrainerWorkloadEntity.class);
+    }
+
+    private long timed(WarmUpStep step, String name) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } catch (Exception e) {
+            log.warn("Warm-up of {} failed, continuing startup without it", name, e);
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long jvmStartMillis() {
+        return ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    @FunctionalInterface
+    private interface WarmUpStep {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.trainer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapses concurrent read lookups of the same trainer into a single repository call ("single flight").
+ * The first caller for a username performs the lookup; callers arriving while it is in flight wait for and
+ * share its result instead of issuing their own query. Nothing is cached once the lookup completes.
+ * The shared entity must be treated as read-only, so this is used by read paths only, never by updates.
+ * The {@code trainer.workload.lookup.collapse.ratio} gauge reports the share of lookups that were coalesced.
+ */
+@Component
+public class TrainerLookupCoalescer {
+
+    private final TrainerWorkloadRepository workloadRepository;
+    private final Map<String, CompletableFuture<Optional<TrainerWorkloadEntity>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    /**
+     * Constructs a TrainerLookupCoalescer and registers its lookup counters and collapse ratio gauge.
+     *
+     * @param workloadRepository Repository performing the actual lookups
+     * @param meterRegistry      Registry for the coalescing metrics
+     */
+    public TrainerLookupCoalescer(TrainerWorkloadRepository workloadRepository, MeterRegistry meterRegistry) {
+        this.workloadRepository = workloadRepository;
+        this.executed = Counter.builder("trainer.workload.lookup.requests")
+                .description("Trainer read lookups, by whether they queried Mongo or joined one in flight")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("trainer.workload.lookup.requests")
+                .description("Trainer read lookups, by whether they queried Mongo or joined one in flight")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("trainer.workload.lookup.collapse.ratio", this, TrainerLookupCoalescer::collapseRatio)
+                .description("Share of trainer read lookups served by a lookup already in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks up a trainer's workload, joining an identical lookup if one is already in flight.
+     *
+     * @param trainerUsername The username of the trainer
+     * @return the trainer workload, shared with concurrent callers and not to be modified
+     */
+    public Optional<TrainerWorkloadEntity> findByTrainerUsername(String trainerUsername) {
+        CompletableFuture<Optional<TrainerWorkloadEntity>> lookup = new CompletableFuture<>();
+        CompletableFuture<Optional<TrainerWorkloadEntity>> running = inFlight.putIfAbsent(trainerUsername, lookup);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        executed.increment();
+        try {
+            Optional<TrainerWorkloadEntity> workload = workloadRepository.findByTrainerUsername(trainerUsername);
+            lookup.complete(workload);
+            return workload;
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(trainerUsername, lookup);
+        }
+    }
+
+    double collapseRatio() {
+        double total = executed.count() + coalesced.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+
+    private static Optional<TrainerWorkloadEntity> await(CompletableFuture<Optional<TrainerWorkloadEntity>> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
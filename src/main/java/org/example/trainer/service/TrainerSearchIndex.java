@@ -0,0 +1,301 @@
+package org.example.trainer.service;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.example.trainer.dto.response.TrainerSearchResultDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory prefix index over trainer first names, last names and usernames.
+ * The index is rebuilt from {@code trainer_workloads} by {@link StartupWarmUp} before any listener starts,
+ * kept in sync by this instance's own updates and rebuilt again every {@code trainer.search.rebuild-interval},
+ * which picks up the updates applied by other instances, so autocomplete lookups never hit Mongo.
+ * Every searchable token is stored lower-cased in a sorted map, which turns a prefix search into
+ * a single range scan. The range is ranked through a heap bounded by the requested limit, so a short prefix
+ * matching most trainers does not collect and sort all of them.
+ * Each trainer keeps only its hours for the month it was indexed in. After the month turns, a trainer not
+ * updated since shows no hours until the next rebuild indexes the new month.
+ * A rebuild fills a new index off to the side and swaps it in with a single volatile write, so searches
+ * keep using the complete previous index meanwhile; updates indexed during the rebuild go into both, and
+ * the newer document version wins.
+ */
+@Component
+@Slf4j
+public class TrainerSearchIndex {
+
+    static final int MAX_LIMIT = 50;
+    static final String REBUILD_THREAD = "trainer-search-rebuild";
+
+    private final TrainerWorkloadRepository workloadRepository;
+    private final Clock clock;
+
+    private volatile Index current = new Index();
+    private Index building;
+    private final AtomicBoolean rebuildInProgress = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, REBUILD_THREAD);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a TrainerSearchIndex backed by the given repository.
+     *
+     * @param workloadRepository Repository used to rebuild the index at startup
+     */
+    @Autowired
+    public TrainerSearchIndex(TrainerWorkloadRepository workloadRepository) {
+        this(workloadRepository, Clock.systemDefaultZone());
+    }
+
+    TrainerSearchIndex(TrainerWorkloadRepository workloadRepository, Clock clock) {
+        this.workloadRepository = workloadRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts a rebuild on the rebuild thread, unless the previous one is still going, so the shared scheduler
+     * thread is not blocked by the collection scan.
+     */
+    @Scheduled(fixedDelayString = "${trainer.search.rebuild-interval:5m}",
+            initialDelayString = "${trainer.search.rebuild-interval:5m}")
+    public void scheduleRebuild() {
+        if (!rebuildInProgress.compareAndSet(false, true)) {
+            log.warn("Previous trainer search index rebuild is still running, skipping this one");
+            return;
+        }
+        rebuilder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Trainer search index rebuild failed, keeping the previous index", e);
+            } finally {
+                rebuildInProgress.set(false);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the whole index from the workload collection.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        Index fresh = new Index();
+        YearMonth month = YearMonth.now(clock);
+        synchronized (this) {
+            building = fresh;
+        }
+        try (Stream<TrainerWorkloadEntity> workloads = workloadRepository.streamAllBy()) {
+            workloads.forEach(workload -> {
+                synchronized (this) {
+                    fresh.put(workload, month);
+                }
+            });
+        } finally {
+            synchronized (this) {
+                if (building == fresh) {
+                    building = null;
+                }
+            }
+        }
+        synchronized (this) {
+            current = fresh;
+        }
+        log.info("Trainer search index rebuilt with {} trainers in {} ms", fresh.trainers.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adds the trainer to the index or refreshes its names and training summary.
+     *
+     * @param workload the current state of the trainer workload document
+     */
+    public synchronized void index(TrainerWorkloadEntity workload) {
+        if (workload == null || workload.getTrainerUsername() == null) {
+            return;
+        }
+        YearMonth month = YearMonth.now(clock);
+        current.put(workload, month);
+        if (building != null) {
+            building.put(workload, month);
+        }
+    }
+
+    /**
+     * Finds up to {@code limit} trainers whose first name, last name, full name or username
+     * starts with the given prefix, ignoring case. Trainers with a token equal to the prefix come first,
+     * then those whose matching token is shortest, ties broken by username.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of trainers to return, capped at {@value #MAX_LIMIT}
+     * @return the matching trainers with their training hours for the current month
+     */
+    public List<TrainerSearchResultDto> search(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        int maxResults = Math.min(Math.max(limit, 0), MAX_LIMIT);
+        if (normalized.isEmpty() || maxResults == 0) {
+            return Collections.emptyList();
+        }
+
+        Index index = current;
+        PriorityQueue<Match> worstFirst = new PriorityQueue<>(maxResults + 1, RANKING.reversed());
+        Map<String, Match> kept = new HashMap<>();
+        index.tokenIndex.subMap(normalized, true, normalized + Character.MAX_VALUE, true)
+                .forEach((token, usernames) -> usernames.forEach(username -> offer(worstFirst, kept,
+                        new Match(username, token.length()), maxResults)));
+
+        List<String> ranked = worstFirst.stream()
+                .sorted(RANKING)
+                .map(Match::username)
+                .toList();
+        return toResults(index, ranked);
+    }
+
+    /**
+     * Returns the number of trainers currently held by the index.
+     *
+     * @return the indexed trainer count
+     */
+    public int size() {
+        return current.trainers.size();
+    }
+
+    /**
+     * Keeps the candidate if it ranks among the best {@code maxResults} matches seen so far. A trainer matched
+     * by several tokens is kept once, with its shortest token.
+     */
+    private static void offer(PriorityQueue<Match> worstFirst, Map<String, Match> kept, Match candidate,
+                              int maxResults) {
+        Match previous = kept.get(candidate.username());
+        if (previous != null) {
+            if (previous.tokenLength() <= candidate.tokenLength()) {
+                return;
+            }
+            worstFirst.remove(previous);
+        } else if (worstFirst.size() == maxResults && RANKING.compare(candidate, worstFirst.peek()) >= 0) {
+            return;
+        }
+        worstFirst.add(candidate);
+        kept.put(candidate.username(), candidate);
+        if (worstFirst.size() > maxResults) {
+            kept.remove(worstFirst.poll().username());
+        }
+    }
+
+    private List<TrainerSearchResultDto> toResults(Index index, List<String> usernames) {
+        YearMonth today = YearMonth.now(clock);
+        List<TrainerSearchResultDto> results = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            IndexedTrainer trainer = index.trainers.get(username);
+            if (trainer != null) {
+                results.add(new TrainerSearchResultDto(trainer.username, trainer.firstName, trainer.lastName,
+                        trainer.active, trainer.hoursFor(today)));
+            }
+        }
+        return results;
+    }
+
+    private static String normalize(String value) {
+        return StringUtils.normalizeSpace(StringUtils.defaultString(value)).toLowerCase(Locale.ROOT);
+    }
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::tokenLength)
+            .thenComparing(Match::username);
+
+    private record Match(String username, int tokenLength) {
+    }
+
+    /**
+     * Token map and trainer entries of one generation of the index. Writers hold the lock of the
+     * enclosing {@link TrainerSearchIndex}; readers rely on the concurrent maps.
+     */
+    private static final class Index {
+        private final ConcurrentSkipListMap<String, Set<String>> tokenIndex = new ConcurrentSkipListMap<>();
+        private final Map<String, IndexedTrainer> trainers = new ConcurrentHashMap<>();
+
+        private void put(TrainerWorkloadEntity workload, YearMonth month) {
+            IndexedTrainer trainer = new IndexedTrainer(workload, month);
+            IndexedTrainer previous = trainers.get(trainer.username);
+            if (previous != null && previous.version > trainer.version) {
+                return;
+            }
+            trainers.put(trainer.username, trainer);
+
+            if (previous != null) {
+                previous.tokens.stream()
+                        .filter(token -> !trainer.tokens.contains(token))
+                        .forEach(token -> removeToken(token, trainer.username));
+            }
+            trainer.tokens.forEach(token -> tokenIndex
+                    .computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet())
+                    .add(trainer.username));
+        }
+
+        private void removeToken(String token, String username) {
+            tokenIndex.computeIfPresent(token, (t, usernames) -> {
+                usernames.remove(username);
+                return usernames.isEmpty() ? null : usernames;
+            });
+        }
+    }
+
+    /**
+     * Immutable copy of the fields the index needs, detached from the mutable entity.
+     */
+    private static final class IndexedTrainer {
+        private final String username;
+        private final String firstName;
+        private final String lastName;
+        private final boolean active;
+        private final long version;
+        private final YearMonth month;
+        private final int monthHours;
+        private final Set<String> tokens;
+
+        private IndexedTrainer(TrainerWorkloadEntity workload, YearMonth month) {
+            this.username = workload.getTrainerUsername();
+            this.firstName = workload.getFirstName();
+            this.lastName = workload.getLastName();
+            this.active = workload.isActive();
+            this.version = TrainerWorkloadService.versionOf(workload);
+
+            this.month = month;
+            Map<Integer, Map<Integer, Integer>> summary = workload.getTrainingSummary();
+            this.monthHours = summary == null ? 0 : summary.getOrDefault(month.getYear(), Collections.emptyMap())
+                    .getOrDefault(month.getMonthValue(), 0);
+
+            Set<String> indexTokens = new LinkedHashSet<>();
+            Stream.of(username, firstName, lastName, StringUtils.joinWith(" ", firstName, lastName))
+                    .map(TrainerSearchIndex::normalize)
+                    .filter(token -> !token.isEmpty())
+                    .forEach(indexTokens::add);
+            this.tokens = indexTokens;
+        }
+
+        private int hoursFor(YearMonth requested) {
+            return month.equals(requested) ? monthHours : 0;
+        }
+    }
+}
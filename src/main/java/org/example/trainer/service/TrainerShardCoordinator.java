@@ -0,0 +1,278 @@
+package org.example.trainer.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.jms.ConnectionFactory;
+import javax.jms.MessageListener;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.config.ShardingProperties;
+import org.example.trainer.entity.TrainerShardLeaseEntity;
+import org.example.trainer.entity.TrainerShardMemberEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which shard queues this instance consumes when {@code trainer.sharding.enabled} is set.
+ * Every heartbeat the instance renews its entry in {@code trainer_shard_members}, places all live members on a
+ * {@link TrainerShardRing} and claims its buckets through leases in {@code trainer_shard_leases}. A bucket whose
+ * lease is still held by another instance is taken over only after that instance has stopped consuming it and
+ * released the lease, or after the lease expired, so a trainer's updates are consumed by one instance at a time.
+ * Joining or leaving instances therefore rebalance the ring within a few heartbeats, and an instance that dies
+ * loses its buckets once its leases expire. Every leased shard queue is consumed by its own transacted listener
+ * container with {@code trainer.sharding.consumers-per-bucket} consumers, so a rebalance only starts and stops the
+ * containers of the buckets that changed hands. While Mongo is overloaded the {@link OverloadListenerSwitch}
+ * pauses all shard containers, including those started by a rebalance during the pause.
+ * The heartbeat runs on its own thread rather than the shared scheduler, so long scheduled jobs cannot delay it
+ * past the lease duration. When the leases could not be renewed for a full lease duration, the instance fences
+ * itself and stops all shard containers, since another instance may already have claimed its buckets.
+ * Only training updates are sharded: {@code request.traininghours.queue} is still consumed by every instance,
+ * since a lookup only reads the shared trainer document and needs no ordering.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trainer.sharding", name = "enabled", havingValue = "true")
+@Slf4j
+public class TrainerShardCoordinator implements SmartLifecycle {
+
+    static final String SHARD_QUEUE_PREFIX = "trainer.training.update.shard.";
+    static final String SHARD_CONSUMER = "trainerShardConsumer";
+    static final String HEARTBEAT_THREAD = "trainer-shard-heartbeat";
+
+    private final MongoTemplate mongoTemplate;
+    private final ConnectionFactory connectionFactory;
+    private final JmsConsumerService consumerService;
+    private final ShardingProperties properties;
+    private final Clock clock;
+    private final String instanceId;
+    private final Map<Integer, DefaultMessageListenerContainer> shardContainers = new TreeMap<>();
+
+    private volatile boolean running;
+    private volatile Set<Integer> consumedBuckets = Set.of();
+    private boolean paused;
+    private Instant lastRenewal;
+    private ScheduledExecutorService heartbeatScheduler;
+
+    /**
+     * Constructs a TrainerShardCoordinator and registers a gauge with the number of consumed buckets.
+     *
+     * @param mongoTemplate         Template used for the member heartbeats and the bucket leases
+     * @param connectionFactory     Factory for the shard queue consumers
+     * @param consumerService       Service processing the consumed training updates
+     * @param properties            Sharding settings
+     * @param meterRegistry         Registry for the consumed buckets gauge
+     */
+    @Autowired
+    public TrainerShardCoordinator(MongoTemplate mongoTemplate, ConnectionFactory connectionFactory,
+                                   JmsConsumerService consumerService, ShardingProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this(mongoTemplate, connectionFactory, consumerService, properties, meterRegistry, Clock.systemUTC(),
+                UUID.randomUUID().toString());
+    }
+
+    TrainerShardCoordinator(MongoTemplate mongoTemplate, ConnectionFactory connectionFactory,
+                            JmsConsumerService consumerService, ShardingProperties properties,
+                            MeterRegistry meterRegistry, Clock clock, String instanceId) {
+        this.mongoTemplate = mongoTemplate;
+        this.connectionFactory = connectionFactory;
+        this.consumerService = consumerService;
+        this.properties = properties;
+        this.clock = clock;
+        this.instanceId = instanceId;
+        Gauge.builder("trainer.sharding.buckets.consumed", this, coordinator -> coordinator.consumedBuckets.size())
+                .register(meterRegistry);
+    }
+
+    static String shardQueue(int bucket) {
+        return SHARD_QUEUE_PREFIX + bucket;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        log.info("Sharding enabled, instance {} joins the ring of {} buckets", instanceId, properties.getBuckets());
+        rebalance();
+        long interval = properties.getHeartbeatInterval().toMillis();
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, HEARTBEAT_THREAD);
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::rebalance, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Renews this instance's heartbeat and leases, claims the buckets the ring assigns to it and releases
+     * the ones it no longer owns, starting and stopping the shard containers of the buckets that changed.
+     * If the renewal fails, the buckets are kept until the last renewed leases expire and are then stopped.
+     */
+    synchronized void rebalance() {
+        if (!running) {
+            return;
+        }
+        Instant now = clock.instant();
+        try {
+            heartbeat(now);
+            Set<Integer> assigned = new TrainerShardRing(liveMembers(now), properties.getVirtualNodes())
+                    .bucketsOf(instanceId, properties.getBuckets());
+            Set<Integer> leased = acquireLeases(assigned, now);
+            lastRenewal = now;
+            if (!leased.equals(consumedBuckets)) {
+                consume(leased);
+            }
+            releaseLeasesExcept(assigned);
+        } catch (DataAccessException e) {
+            if (!consumedBuckets.isEmpty()
+                    && !clock.instant().isBefore(lastRenewal.plus(properties.getLeaseDuration()))) {
+                log.error("Could not renew the shard leases since {}, stopping the consumers of buckets {}",
+                        lastRenewal, consumedBuckets, e);
+                consume(Set.of());
+            } else {
+                log.warn("Could not rebalance shards, keeping buckets {} until their leases expire",
+                        consumedBuckets, e);
+            }
+        }
+    }
+
+    /**
+     * Stops consuming once every update already received has been processed, then leaves the ring,
+     * handing this instance's buckets to the remaining instances without waiting for the leases to expire.
+     *
+     * @param callback invoked when the shard consumer has drained and the leases are released
+     */
+    @Override
+    public synchronized void stop(Runnable callback) {
+        running = false;
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdown();
+        }
+        consume(Set.of());
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("owner").is(instanceId)), TrainerShardLeaseEntity.class);
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(instanceId)), TrainerShardMemberEntity.class);
+            log.info("Instance {} left the shard ring", instanceId);
+        } catch (DataAccessException e) {
+            log.warn("Could not release shard leases, they expire after {}", properties.getLeaseDuration(), e);
+        }
+        callback.run();
+    }
+
+    @Override
+    public void stop() {
+        stop(() -> { });
+    }
+
+    /**
+     * Stops every shard container without giving up the leases, so the buckets' updates wait on the broker.
+     * Containers started by a rebalance stay stopped until {@link #resumeConsumers()} is called.
+     */
+    public synchronized void pauseConsumers() {
+        paused = true;
+        shardContainers.values().forEach(DefaultMessageListenerContainer::stop);
+        log.warn("Paused the consumers of {} shard buckets", shardContainers.size());
+    }
+
+    /**
+     * Restarts the shard containers stopped by {@link #pauseConsumers()}.
+     */
+    public synchronized void resumeConsumers() {
+        paused = false;
+        if (running) {
+            shardContainers.values().forEach(DefaultMessageListenerContainer::start);
+            log.info("Resumed the consumers of {} shard buckets", shardContainers.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    Set<Integer> consumedBuckets() {
+        return consumedBuckets;
+    }
+
+    private void heartbeat(Instant now) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(instanceId)),
+                new Update().set("expiresAt", now.plus(properties.getLeaseDuration())),
+                TrainerShardMemberEntity.class);
+    }
+
+    private List<String> liveMembers(Instant now) {
+        return mongoTemplate.find(Query.query(Criteria.where("expiresAt").gt(now)), TrainerShardMemberEntity.class)
+                .stream()
+                .map(TrainerShardMemberEntity::getId)
+                .toList();
+    }
+
+    private Set<Integer> acquireLeases(Set<Integer> buckets, Instant now) {
+        Set<Integer> leased = new TreeSet<>();
+        Update lease = new Update()
+                .set("owner", instanceId)
+                .set("expiresAt", now.plus(properties.getLeaseDuration()));
+        for (Integer bucket : buckets) {
+            Query claimable = Query.query(Criteria.where("_id").is(bucket).orOperator(
+                    Criteria.where("owner").is(instanceId), Criteria.where("expiresAt").lt(now)));
+            try {
+                mongoTemplate.upsert(claimable, lease, TrainerShardLeaseEntity.class);
+                leased.add(bucket);
+            } catch (DuplicateKeyException e) {
+                log.debug("Bucket {} is still leased by another instance", bucket);
+            }
+        }
+        return leased;
+    }
+
+    private void releaseLeasesExcept(Set<Integer> assigned) {
+        mongoTemplate.remove(Query.query(Criteria.where("owner").is(instanceId).and("_id").nin(assigned)),
+                TrainerShardLeaseEntity.class);
+    }
+
+    private void consume(Set<Integer> buckets) {
+        shardContainers.entrySet().removeIf(entry -> {
+            if (buckets.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().shutdown();
+            return true;
+        });
+        for (Integer bucket : buckets) {
+            shardContainers.computeIfAbsent(bucket, this::shardContainer);
+        }
+        consumedBuckets = Set.copyOf(buckets);
+        log.info("Instance {} consumes {} buckets: {}", instanceId, buckets.size(), buckets);
+    }
+
+    private DefaultMessageListenerContainer shardContainer(int bucket) {
+        DefaultMessageListenerContainer container = new DefaultMessageListenerContainer();
+        container.setBeanName(SHARD_CONSUMER + "-" + bucket);
+        container.setConnectionFactory(connectionFactory);
+        container.setDestinationName(shardQueue(bucket));
+        container.setSessionTransacted(true);
+        container.setConcurrentConsumers(properties.getConsumersPerBucket());
+        container.setMessageListener((MessageListener) consumerService::receiveTrainingUpdate);
+        container.afterPropertiesSet();
+        if (!paused) {
+            container.start();
+        }
+        return container;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.trainer.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Consistent-hash ring deciding which instance consumes which trainers. Trainer usernames are hashed into a
+ * fixed number of buckets, and every live instance is placed on the ring at a number of virtual nodes; a bucket
+ * belongs to the first instance at or after the bucket's position. When an instance joins or leaves, only the
+ * buckets next to its virtual nodes change owner, and every instance computes the same assignment from the
+ * same member list.
+ */
+final class TrainerShardRing {
+
+    private final NavigableMap<Integer, String> ring = new TreeMap<>();
+
+    TrainerShardRing(Collection<String> members, int virtualNodes) {
+        for (String member : new TreeSet<>(members)) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.putIfAbsent(hash(member + "#" + node), member);
+            }
+        }
+    }
+
+    static int bucketOf(String trainerUsername, int buckets) {
+        return Math.floorMod(hash(trainerUsername), buckets);
+    }
+
+    String ownerOf(int bucket) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Integer, String> owner = ring.ceilingEntry(hash("bucket#" + bucket));
+        return (owner != null ? owner : ring.firstEntry()).getValue();
+    }
+
+    Set<Integer> bucketsOf(String member, int buckets) {
+        Set<Integer> owned = new TreeSet<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (member.equals(ownerOf(bucket))) {
+                owned.add(bucket);
+            }
+        }
+        return owned;
+    }
+
+    static int hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getInt();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.trainer.service;
+
+import java.io.IOException;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.config.ShardingProperties;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Forwards every training update from {@code trainer.training.update} to the shard queue of its trainer, so
+ * producers keep sending to a single queue while each instance consumes only the shard queues it holds a lease
+ * for. The forward is sent within the listener's transacted session, so an update is either moved to its shard
+ * queue or left on the inbound queue. The forward is a fresh copy of the update's body and properties, so the
+ * redelivery counter of the inbound message does not travel to the shard queue. Messages that cannot be decoded
+ * are forwarded to the shard of an empty username, where the consuming instance dead-letters them as usual.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trainer.sharding", name = "enabled", havingValue = "true")
+@Slf4j
+public class TrainerShardRouter {
+
+    public static final String TRAINING_UPDATE_ROUTER = "trainingUpdateRouter";
+
+    private final WorkloadMessageCodec messageCodec;
+    private final JmsTemplate jmsTemplate;
+    private final ShardingProperties properties;
+
+    /**
+     * Constructs a TrainerShardRouter with the necessary dependencies.
+     *
+     * @param messageCodec the codec for reading the trainer username of JSON or binary messages
+     * @param jmsTemplate  the JMS template for forwarding the messages to the shard queues
+     * @param properties   the sharding settings, providing the number of buckets
+     */
+    public TrainerShardRouter(WorkloadMessageCodec messageCodec, JmsTemplate jmsTemplate,
+                              ShardingProperties properties) {
+        this.messageCodec = messageCodec;
+        this.jmsTemplate = jmsTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Forwards a training update to the shard queue of its trainer.
+     *
+     * @param message the JMS message received from the "trainer.training.update" queue
+     */
+    @JmsListener(id = TRAINING_UPDATE_ROUTER, destination = "trainer.training.update",
+            containerFactory = "trainingUpdateRouterContainerFactory")
+    public void route(Message message) {
+        String shardQueue = TrainerShardCoordinator.shardQueue(
+                TrainerShardRing.bucketOf(trainerUsername(message), properties.getBuckets()));
+        jmsTemplate.send(shardQueue, session -> WorkloadMessageCodec.copyOf(session, message));
+        log.debug("Routed training update to {}", shardQueue);
+    }
+
+    private String trainerUsername(Message message) {
+        try {
+            TrainerWorkloadRequestDto request = messageCodec.decode(message, TrainerWorkloadRequestDto.class);
+            return request == null || request.getTrainerUsername() == null ? "" : request.getTrainerUsername();
+        } catch (JMSException | IOException e) {
+            log.warn("Could not read trainer of training update, routing it to the default shard", e);
+            return "";
+        }
+    }
+}
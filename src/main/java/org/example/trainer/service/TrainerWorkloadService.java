@@ -1,46 +1,140 @@
 package org.example.trainer.service;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerHoursRangeDto;
 import org.example.trainer.dto.response.TrainerWorkloadResponseDto;
 import org.example.trainer.entity.TrainerWorkloadEntity;
 import org.example.trainer.exeption.WorkloadException;
 import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.ObjectOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for managing training hours of trainers.
  * This includes updating training hours based on specified actions and retrieving
- * accumulated training hours for a specific month.
+ * accumulated training hours for a specific month or a range of months.
  */
 @Service
 @Slf4j
 public class TrainerWorkloadService {
 
+    static final int MAX_RANGE_MONTHS = 120;
+    static final int MAX_RANGE_TRAINERS = 100;
+
     private final TrainerWorkloadRepository workloadRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TrainerSearchIndex searchIndex;
+    private final RetryTemplate optimisticLockRetryTemplate;
+    private final WorkloadContentionTracker contentionTracker;
+    private final WorkloadHistoryService historyService;
+    private final TrainerLookupCoalescer lookupCoalescer;
+    private final MongoOverloadGuard overloadGuard;
+    private final TrainingHoursReplyCache replyCache;
+    private final WorkloadMessageCodec messageCodec;
+    private final WorkloadTieringService tieringService;
 
     /**
-     * Constructs a TrainerWorkloadService with the necessary dependency.
+     * Constructs a TrainerWorkloadService with the necessary dependencies.
      *
-     * @param workloadRepository Repository for accessing trainer workload data
+     * @param workloadRepository          Repository for accessing trainer workload data
+     * @param mongoTemplate               Template used for targeted, version-checked updates
+     * @param searchIndex                 In-memory trainer search index kept in sync with every update
+     * @param optimisticLockRetryTemplate Retry policy applied when a concurrent update wins the version race
+     * @param contentionTracker           Records version conflicts per trainer
+     * @param historyService              Appends every applied update to the workload event log
+     * @param lookupCoalescer             Shares one lookup between concurrent reads of the same trainer
+     * @param overloadGuard               Sheds writes and bounds reads while Mongo is overloaded
+     * @param replyCache                  Encoded training hours replies, invalidated by every update
+     * @param messageCodec                Codec encoding the training hours replies
+     * @param tieringService              Merges archived years into reads and restores them before updates
      */
-    public TrainerWorkloadService(TrainerWorkloadRepository workloadRepository) {
+    public TrainerWorkloadService(TrainerWorkloadRepository workloadRepository, MongoTemplate mongoTemplate,
+                                  TrainerSearchIndex searchIndex,
+                                  @Qualifier("optimisticLockRetryTemplate") RetryTemplate optimisticLockRetryTemplate,
+                                  WorkloadContentionTracker contentionTracker,
+                                  WorkloadHistoryService historyService, TrainerLookupCoalescer lookupCoalescer,
+                                  MongoOverloadGuard overloadGuard, TrainingHoursReplyCache replyCache,
+                                  WorkloadMessageCodec messageCodec, WorkloadTieringService tieringService) {
         this.workloadRepository = workloadRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndex = searchIndex;
+        this.optimisticLockRetryTemplate = optimisticLockRetryTemplate;
+        this.contentionTracker = contentionTracker;
+        this.historyService = historyService;
+        this.lookupCoalescer = lookupCoalescer;
+        this.overloadGuard = overloadGuard;
+        this.replyCache = replyCache;
+        this.messageCodec = messageCodec;
+        this.tieringService = tieringService;
     }
 
     /**
      * Updates the training hours for a trainer based on the provided request data.
      * This can entail adding or deleting training hours for the specified trainer.
+     * Only the affected month is written, guarded by the document version; when another consumer
+     * updated the same trainer in between, the update is re-read and retried with a jittered backoff.
+     * Changed profile fields are synchronized separately so they never contend with hour updates.
+     * A year moved into the archive by the {@link WorkloadTieringService} is restored before it is updated.
+     * Each applied change is also appended to the workload event log kept by {@link WorkloadHistoryService}
+     * and invalidates the trainer's cached training hours replies. Every attempt runs through the
+     * {@link MongoOverloadGuard}, which rejects it while Mongo is overloaded.
      *
      * @param request Contains the details of the trainer and the update parameters like duration and action type
-     * @throws IllegalArgumentException if the action type in the request is neither "ADD" nor "DELETE"
+     * @throws OptimisticLockingFailureException if the trainer document kept changing through every retry
+     * @throws CallNotPermittedException if Mongo writes are being shed
      */
     public void updateTrainingHours(TrainerWorkloadRequestDto request) {
         log.info("Updating training hours for trainer: {}", request.getTrainerUsername());
 
+        try {
+            optimisticLockRetryTemplate.execute(context -> {
+                overloadGuard.write(() -> applyTrainingHours(request));
+                return null;
+            });
+        } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+            contentionTracker.recordExhausted(request.getTrainerUsername());
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the trainer's first name, last name and active flag without touching the training summary
+     * or the document version, so profile changes never conflict with concurrent hour updates.
+     *
+     * @param request Contains the trainer username and the profile fields to store
+     */
+    public void syncTrainerProfile(TrainerWorkloadRequestDto request) {
+        mongoTemplate.updateFirst(byTrainer(request.getTrainerUsername()), profileUpdate(request),
+                TrainerWorkloadEntity.class);
+        log.info("Profile synchronized for trainer: {}", request.getTrainerUsername());
+    }
+
+    private void applyTrainingHours(TrainerWorkloadRequestDto request) {
         Optional<TrainerWorkloadEntity> optionalWorkload = workloadRepository
                 .findByTrainerUsername(request.getTrainerUsername());
 
@@ -49,40 +143,118 @@ public class TrainerWorkloadService {
             return;
         }
 
-        TrainerWorkloadEntity workload = optionalWorkload.orElseGet(() -> {
-            log.info("Creating new workload record for trainer: {}", request.getTrainerUsername());
-            TrainerWorkloadEntity newWorkload = new TrainerWorkloadEntity();
-            newWorkload.setTrainerUsername(request.getTrainerUsername());
-            newWorkload.setFirstName(request.getFirstName());
-            newWorkload.setLastName(request.getLastName());
-            newWorkload.setActive(request.isActive());
-            newWorkload.setTrainingSummary(new HashMap<>());
-            return newWorkload;
-        });
-
         Integer year = request.getTrainingDate().getYear();
         Integer month = request.getTrainingDate().getMonthValue();
 
-        Map<Integer, Map<Integer, Integer>> trainingSummary = workload.getTrainingSummary();
+        if (!optionalWorkload.isPresent()) {
+            log.info("Creating new workload record for trainer: {}", request.getTrainerUsername());
+            TrainerWorkloadEntity newWorkload = newWorkload(request);
 
-        trainingSummary.computeIfAbsent(year, y -> new HashMap<>());
+            searchIndex.index(workloadRepository.save(newWorkload));
+            historyService.recordEvent(null, request, newWorkload.getTrainingSummary().get(year).get(month));
+            log.info("Workload updated successfully for trainer: {}", request.getTrainerUsername());
+            return;
+        }
 
-        Map<Integer, Integer> monthlySummary = trainingSummary.get(year);
+        TrainerWorkloadEntity workload = optionalWorkload.get();
+        if (WorkloadTieringService.hasArchived(workload, year::equals)) {
+            tieringService.restoreYear(workload, year);
+        }
+        Map<Integer, Integer> monthlySummary = workload.getTrainingSummary()
+                .computeIfAbsent(year, y -> new HashMap<>());
         int existingDuration = monthlySummary.getOrDefault(month, 0);
+        int newDuration = updatedDuration(existingDuration, request);
+
+        if (mongoTemplate.updateFirst(sameVersion(workload), monthUpdate(year, month, newDuration),
+                TrainerWorkloadEntity.class).getMatchedCount() == 0) {
+            contentionTracker.recordConflict(request.getTrainerUsername());
+            throw concurrentModification(workload);
+        }
+
+        historyService.recordEvent(workload, request, newDuration - existingDuration);
+        monthlySummary.put(month, newDuration);
+        workload.setVersion(workload.getVersion() == null ? 1L : workload.getVersion() + 1);
+
+        if (profileChanged(workload, request)) {
+            syncTrainerProfile(request);
+            applyProfile(workload, request);
+        }
+
+        searchIndex.index(workload);
+        replyCache.invalidate(request.getTrainerUsername(), versionOf(workload));
+        log.info("Workload updated successfully for trainer: {}", request.getTrainerUsername());
+    }
+
+    static TrainerWorkloadEntity newWorkload(TrainerWorkloadRequestDto request) {
+        TrainerWorkloadEntity workload = new TrainerWorkloadEntity();
+        workload.setTrainerUsername(request.getTrainerUsername());
+        applyProfile(workload, request);
+        workload.setTrainingSummary(new HashMap<>());
+        workload.getTrainingSummary().computeIfAbsent(request.getTrainingDate().getYear(), y -> new HashMap<>())
+                .put(request.getTrainingDate().getMonthValue(), updatedDuration(0, request));
+        return workload;
+    }
+
+    static int updatedDuration(int existingDuration, TrainerWorkloadRequestDto request) {
         int newDuration = request.getTrainingDuration();
 
         if ("ADD".equalsIgnoreCase(request.getActionType())) {
-            monthlySummary.put(month, existingDuration + newDuration);
+            return existingDuration + newDuration;
         } else if ("DELETE".equalsIgnoreCase(request.getActionType())) {
-            monthlySummary.put(month, Math.max(existingDuration - newDuration, 0));
+            return Math.max(existingDuration - newDuration, 0);
         }
+        return existingDuration;
+    }
 
-        workloadRepository.save(workload);
-        log.info("Workload updated successfully for trainer: {}", request.getTrainerUsername());
+    static boolean profileChanged(TrainerWorkloadEntity workload, TrainerWorkloadRequestDto request) {
+        if (request.getFirstName() == null && request.getLastName() == null) {
+            return false;
+        }
+        return !Objects.equals(workload.getFirstName(), request.getFirstName())
+                || !Objects.equals(workload.getLastName(), request.getLastName())
+                || workload.isActive() != request.isActive();
+    }
+
+    static void applyProfile(TrainerWorkloadEntity workload, TrainerWorkloadRequestDto request) {
+        workload.setFirstName(request.getFirstName());
+        workload.setLastName(request.getLastName());
+        workload.setActive(request.isActive());
+    }
+
+    static Query byTrainer(String trainerUsername) {
+        return Query.query(Criteria.where("trainerUsername").is(trainerUsername));
+    }
+
+    static Query sameVersion(TrainerWorkloadEntity workload) {
+        return Query.query(Criteria.where("_id").is(workload.getId()).and("version").is(workload.getVersion()));
+    }
+
+    static Update monthUpdate(Integer year, Integer month, int newDuration) {
+        return new Update()
+                .set("trainingSummary." + year + "." + month, newDuration)
+                .inc("version", 1);
+    }
+
+    static Update profileUpdate(TrainerWorkloadRequestDto request) {
+        return new Update()
+                .set("firstName", request.getFirstName())
+                .set("lastName", request.getLastName())
+                .set("isActive", request.isActive());
+    }
+
+    static long versionOf(TrainerWorkloadEntity workload) {
+        return workload.getVersion() == null ? 0L : workload.getVersion();
+    }
+
+    static OptimisticLockingFailureException concurrentModification(TrainerWorkloadEntity workload) {
+        return new OptimisticLockingFailureException("Workload of trainer " + workload.getTrainerUsername()
+                + " was modified concurrently at version " + workload.getVersion());
     }
 
     /**
      * Retrieves the total training hours for a trainer for a specified month.
+     * Concurrent requests for the same trainer share a single repository lookup. The month of every year
+     * is reported, including the years moved into the archive by the {@link WorkloadTieringService}.
      *
      * @param trainerUsername The username of the trainer
      * @param month The specific month for querying total hours
@@ -92,20 +264,55 @@ public class TrainerWorkloadService {
     public TrainerWorkloadResponseDto getTrainingHoursForMonth(String trainerUsername, Integer month) {
         log.info("Retrieving training hours for trainer: {} for month: {}", trainerUsername, month);
 
-        TrainerWorkloadEntity workload = workloadRepository.findByTrainerUsername(trainerUsername)
+        TrainerWorkloadEntity workload = findWorkload(trainerUsername, year -> true);
+
+        return monthResponse(workload, month);
+    }
+
+    /**
+     * Retrieves the training hours of a trainer for a month as an encoded reply in the given format.
+     * A cached reply is served without reading Mongo or serializing the response again; on a miss the trainer
+     * is read through the {@link TrainerLookupCoalescer}, so concurrent identical requests share one read.
+     *
+     * @param trainerUsername The username of the trainer
+     * @param month           The specific month for querying total hours
+     * @param format          The wire format of the reply
+     * @return the encoded {@link TrainerWorkloadResponseDto} for the month
+     * @throws WorkloadException if no workload data is found for the trainer or the specific month
+     * @throws IOException       if the response cannot be serialized
+     */
+    public byte[] getEncodedTrainingHoursForMonth(String trainerUsername, Integer month, MessageFormat format)
+            throws IOException {
+        byte[] cached = replyCache.get(trainerUsername, month, format);
+        if (cached != null) {
+            return cached;
+        }
+        log.info("Retrieving training hours for trainer: {} for month: {}", trainerUsername, month);
+
+        TrainerWorkloadEntity workload = findWorkload(trainerUsername, year -> true);
+        byte[] reply = messageCodec.toBytes(monthResponse(workload, month), format);
+        replyCache.put(trainerUsername, month, format, versionOf(workload), reply);
+        return reply;
+    }
+
+    private TrainerWorkloadEntity findWorkload(String trainerUsername, Predicate<Integer> years) {
+        return overloadGuard.read(() -> lookupCoalescer.findByTrainerUsername(trainerUsername)
+                        .map(workload -> WorkloadTieringService.hasArchived(workload, years)
+                                ? tieringService.withArchive(workload, years) : workload))
                 .orElseThrow(() -> new WorkloadException("No workload data found for trainer: " + trainerUsername));
+    }
 
+    static TrainerWorkloadResponseDto monthResponse(TrainerWorkloadEntity workload, Integer month) {
         Map<Integer, Map<Integer, Integer>> yearData = new HashMap<>();
 
         workload.getTrainingSummary().forEach((year, months) -> {
-            months.getOrDefault(month, 0);
             if (months.containsKey(month)) {
                 yearData.computeIfAbsent(year, y -> new HashMap<>()).put(month, months.get(month));
             }
         });
 
         if (yearData.isEmpty()) {
-            throw new WorkloadException("No workload data found for trainer: " + trainerUsername
+            throw new WorkloadException("No workload data found for trainer: " + workload.getTrainerUsername()
                     + " for month: " + month);
         }
 
@@ -117,4 +324,120 @@ public class TrainerWorkloadService {
                 yearData
         );
     }
+
+    /**
+     * Sums a trainer's training hours over an inclusive range of months and breaks them down per month.
+     * Concurrent requests for the same trainer share a single repository lookup.
+     *
+     * @param trainerUsername The username of the trainer
+     * @param from            The first month of the range
+     * @param to              The last month of the range
+     * @return the total, the monthly average and the hours of every month in the range
+     * @throws WorkloadException if the range is invalid or no workload data is found for the trainer
+     */
+    public TrainerHoursRangeDto getTrainingHoursForRange(String trainerUsername, YearMonth from, YearMonth to) {
+        validateRange(from, to);
+        log.info("Retrieving training hours for trainer: {} from {} to {}", trainerUsername, from, to);
+
+        TrainerWorkloadEntity workload = findWorkload(trainerUsername,
+                year -> year >= from.getYear() && year <= to.getYear());
+
+        Map<YearMonth, Integer> hours = new HashMap<>();
+        workload.getTrainingSummary().forEach((year, months) -> months.forEach((month, monthHours) -> {
+            YearMonth yearMonth = YearMonth.of(year, month);
+            if (!yearMonth.isBefore(from) && !yearMonth.isAfter(to)) {
+                hours.put(yearMonth, monthHours);
+            }
+        }));
+        return rangeResponse(trainerUsername, from, to, hours);
+    }
+
+    /**
+     * Sums the training hours of a set of trainers over an inclusive range of months.
+     * The months in range are selected and summed by a Mongo aggregation pipeline, so only one small result
+     * document per trainer is transferred instead of every trainer's full training summary.
+     * Requested trainers without any hours in the range, including unknown ones, are reported with zero hours.
+     * Hours of archived years are looked up in the archive collection only for trainers that have any in range.
+     *
+     * @param trainerUsernames The usernames of the trainers, at most {@value #MAX_RANGE_TRAINERS}
+     * @param from             The first month of the range
+     * @param to               The last month of the range
+     * @return one result per distinct trainer, in request order
+     * @throws WorkloadException if the range or the set of trainers is invalid
+     */
+    public List<TrainerHoursRangeDto> getTrainingHoursForRange(Collection<String> trainerUsernames, YearMonth from,
+                                                               YearMonth to) {
+        validateRange(from, to);
+        if (trainerUsernames == null || trainerUsernames.isEmpty() || trainerUsernames.size() > MAX_RANGE_TRAINERS) {
+            throw new WorkloadException("Between 1 and " + MAX_RANGE_TRAINERS + " trainers must be requested");
+        }
+        log.info("Retrieving training hours for {} trainers from {} to {}", trainerUsernames.size(), from, to);
+
+        Map<String, Map<YearMonth, Integer>> hoursByTrainer = new HashMap<>();
+        overloadGuard.read(() -> mongoTemplate.aggregate(rangeAggregation(trainerUsernames, from, to),
+                mongoTemplate.getCollectionName(TrainerWorkloadEntity.class), Document.class)).forEach(row -> {
+                    Map<YearMonth, Integer> hours = hoursByTrainer.computeIfAbsent(row.getString("_id"),
+                            username -> new HashMap<>());
+                    for (Document month : row.getList("months", Document.class)) {
+                        hours.put(YearMonth.of(month.getInteger("year"), month.getInteger("month")),
+                                month.getInteger("hours"));
+                    }
+                });
+        overloadGuard.read(() -> tieringService.archivedHours(trainerUsernames, from, to))
+                .forEach((username, hours) -> hoursByTrainer.computeIfAbsent(username, u -> new HashMap<>())
+                        .putAll(hours));
+
+        return trainerUsernames.stream()
+                .distinct()
+                .map(username -> rangeResponse(username, from, to, hoursByTrainer.getOrDefault(username, Map.of())))
+                .toList();
+    }
+
+    static Aggregation rangeAggregation(Collection<String> trainerUsernames, YearMonth from, YearMonth to) {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("trainerUsername").in(trainerUsernames)),
+                Aggregation.project("trainerUsername")
+                        .and(ObjectOperators.valueOf("trainingSummary").toArray()).as("years"),
+                Aggregation.unwind("years"),
+                Aggregation.project("trainerUsername")
+                        .and(ConvertOperators.valueOf("years.k").convertToInt()).as("year")
+                        .and(ObjectOperators.valueOf("years.v").toArray()).as("months"),
+                Aggregation.match(Criteria.where("year").gte(from.getYear()).lte(to.getYear())),
+                Aggregation.unwind("months"),
+                Aggregation.project("trainerUsername", "year")
+                        .and(ConvertOperators.valueOf("months.k").convertToInt()).as("month")
+                        .and("months.v").as("hours"),
+                Aggregation.match(monthRange(from, to)),
+                Aggregation.group("trainerUsername").push(Aggregation.ROOT).as("months"));
+    }
+
+    static Criteria monthRange(YearMonth from, YearMonth to) {
+        return new Criteria().andOperator(
+                new Criteria().orOperator(Criteria.where("year").gt(from.getYear()),
+                        Criteria.where("year").is(from.getYear()).and("month").gte(from.getMonthValue())),
+                new Criteria().orOperator(Criteria.where("year").lt(to.getYear()),
+                        Criteria.where("year").is(to.getYear()).and("month").lte(to.getMonthValue())));
+    }
+
+    static TrainerHoursRangeDto rangeResponse(String trainerUsername, YearMonth from, YearMonth to,
+                                              Map<YearMonth, Integer> hours) {
+        Map<YearMonth, Integer> monthlyHours = new LinkedHashMap<>();
+        int total = 0;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            int monthHours = hours.getOrDefault(month, 0);
+            monthlyHours.put(month, monthHours);
+            total += monthHours;
+        }
+        return new TrainerHoursRangeDto(trainerUsername, from, to, total, (double) total / monthlyHours.size(),
+                monthlyHours);
+    }
+
+    private static void validateRange(YearMonth from, YearMonth to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new WorkloadException("Invalid month range: " + from + " to " + to);
+        }
+        if (ChronoUnit.MONTHS.between(from, to) >= MAX_RANGE_MONTHS) {
+            throw new WorkloadException("Month range must not exceed " + MAX_RANGE_MONTHS + " months");
+        }
+    }
 }
@@ -0,0 +1,169 @@
+package org.example.trainer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Month;
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cache of encoded training hours replies, keyed by trainer, month and wire format, so a repeated request is
+ * answered without reading Mongo or serializing the response again. Every entry remembers the version of the
+ * trainer document it was built from. An update raises the trainer's minimum version and drops the trainer's
+ * entries, and a reply built from an older document version is never stored afterwards, even when its read
+ * started before the update. Every instance publishes its updates' new versions on the
+ * {@code trainer.workload.revisions} topic and applies those of the other instances the same way, so a reply is
+ * only stale for the broadcast delay after an update applied elsewhere. The cache is bounded by
+ * {@code trainer.reply-cache.max-size} bytes of payload; entries also expire after {@code trainer.reply-cache.ttl},
+ * which bounds how long a reply can miss an update whose broadcast was lost.
+ * Hit and miss statistics are published as the {@code cache.*} metrics of the {@code trainingHoursReplies} cache.
+ */
+@Component
+@Slf4j
+public class TrainingHoursReplyCache {
+
+    static final String CACHE_NAME = "trainingHoursReplies";
+    static final String REVISIONS_TOPIC = "trainer.workload.revisions";
+    static final String REVISION_LISTENER = "trainingHoursReplyRevisions";
+    static final String TRAINER_PROPERTY = "trainerUsername";
+    static final String VERSION_PROPERTY = "version";
+
+    private final JmsTemplate jmsTemplate;
+    private final Duration ttl;
+    private final Cache<Key, Reply> replies;
+    private final Cache<String, Long> minimumVersions;
+
+    /**
+     * Constructs a TrainingHoursReplyCache and registers its metrics.
+     *
+     * @param jmsTemplate   Template used to broadcast the trainers' new versions to the other instances
+     * @param maxSize       Maximum total size of the cached payloads
+     * @param ttl           How long a cached reply is served before it is rebuilt
+     * @param meterRegistry Registry for the cache metrics
+     */
+    public TrainingHoursReplyCache(JmsTemplate jmsTemplate,
+                                   @Value("${trainer.reply-cache.max-size:16MB}") DataSize maxSize,
+                                   @Value("${trainer.reply-cache.ttl:10s}") Duration ttl,
+                                   MeterRegistry meterRegistry) {
+        this.jmsTemplate = jmsTemplate;
+        this.ttl = ttl;
+        this.replies = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Reply reply) -> reply.payload().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.minimumVersions = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, replies, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached reply for a trainer and month in the given format.
+     *
+     * @param trainerUsername the trainer
+     * @param month           the month of the requested hours
+     * @param format          the wire format of the reply
+     * @return the encoded reply, or {@code null} if none is cached
+     */
+    public byte[] get(String trainerUsername, int month, MessageFormat format) {
+        Reply reply = replies.getIfPresent(new Key(trainerUsername, month, format));
+        return reply == null ? null : reply.payload();
+    }
+
+    /**
+     * Caches an encoded reply unless the trainer document has been updated past the version it was built from.
+     *
+     * @param trainerUsername the trainer
+     * @param month           the month of the hours in the reply
+     * @param format          the wire format of the reply
+     * @param version         the version of the trainer document the reply was built from
+     * @param payload         the encoded reply
+     */
+    public void put(String trainerUsername, int month, MessageFormat format, long version, byte[] payload) {
+        if (isOutdated(trainerUsername, version)) {
+            return;
+        }
+        Key key = new Key(trainerUsername, month, format);
+        Reply reply = new Reply(version, payload);
+        replies.put(key, reply);
+        if (isOutdated(trainerUsername, version)) {
+            replies.asMap().remove(key, reply);
+        }
+    }
+
+    /**
+     * Drops every cached reply of a trainer, rejects replies built from versions before the given one and
+     * broadcasts the version, so the other instances do the same. A failed broadcast is logged rather than
+     * thrown, since the update itself was applied; the other instances then catch up once their replies expire.
+     *
+     * @param trainerUsername the updated trainer
+     * @param version         the version of the trainer document after the update
+     */
+    public void invalidate(String trainerUsername, long version) {
+        evict(trainerUsername, version);
+        try {
+            jmsTemplate.execute(session -> {
+                Message revision = session.createMessage();
+                revision.setStringProperty(TRAINER_PROPERTY, trainerUsername);
+                revision.setLongProperty(VERSION_PROPERTY, version);
+                MessageProducer producer = session.createProducer(session.createTopic(REVISIONS_TOPIC));
+                try {
+                    producer.send(revision, DeliveryMode.NON_PERSISTENT, Message.DEFAULT_PRIORITY, ttl.toMillis());
+                } finally {
+                    producer.close();
+                }
+                return null;
+            });
+        } catch (JmsException e) {
+            log.warn("Could not broadcast version {} of trainer {}, other instances may serve cached replies "
+                    + "for up to {}", version, trainerUsername, ttl, e);
+        }
+    }
+
+    /**
+     * Applies a version broadcast by an instance that updated a trainer.
+     *
+     * @param revision the broadcast message carrying the trainer and its new version
+     * @throws JMSException if the message properties cannot be read
+     */
+    @JmsListener(id = REVISION_LISTENER, destination = REVISIONS_TOPIC,
+            containerFactory = "revisionTopicContainerFactory")
+    public void onRevision(Message revision) throws JMSException {
+        evict(revision.getStringProperty(TRAINER_PROPERTY), revision.getLongProperty(VERSION_PROPERTY));
+    }
+
+    private void evict(String trainerUsername, long version) {
+        minimumVersions.asMap().merge(trainerUsername, version, Math::max);
+        for (Month month : Month.values()) {
+            for (MessageFormat format : MessageFormat.values()) {
+                replies.invalidate(new Key(trainerUsername, month.getValue(), format));
+            }
+        }
+    }
+
+    private boolean isOutdated(String trainerUsername, long version) {
+        Long minimumVersion = minimumVersions.getIfPresent(trainerUsername);
+        return minimumVersion != null && version < minimumVersion;
+    }
+
+    private record Key(String trainerUsername, int month, MessageFormat format) {
+    }
+
+    private record Reply(long version, byte[] payload) {
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.trainer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks optimistic concurrency conflicts on trainer workload documents.
+ * Totals are published as Micrometer counters; the per-trainer breakdown is kept in memory, since a
+ * trainer tag would explode metric cardinality, and is exposed through the {@code workloadcontention}
+ * actuator endpoint as a list of the hottest trainer documents.
+ */
+@Component
+@Endpoint(id = "workloadcontention")
+@Slf4j
+public class WorkloadContentionTracker {
+
+    static final int MAX_TRACKED_TRAINERS = 10_000;
+    static final int HOTTEST_TRAINERS = 20;
+
+    private final Counter conflicts;
+    private final Counter exhausted;
+    private final Map<String, LongAdder> conflictsByTrainer = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a WorkloadContentionTracker publishing its counters to the given registry.
+     *
+     * @param meterRegistry the registry for the conflict counters
+     */
+    public WorkloadContentionTracker(MeterRegistry meterRegistry) {
+        this.conflicts = Counter.builder("trainer.workload.update.conflicts")
+                .description("Optimistic concurrency conflicts on trainer workload documents")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("trainer.workload.update.retries.exhausted")
+                .description("Workload updates that still conflicted after the last retry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a version conflict for the trainer; the update will be retried.
+     *
+     * @param trainerUsername the trainer whose document was modified concurrently
+     */
+    public void recordConflict(String trainerUsername) {
+        conflicts.increment();
+        if (conflictsByTrainer.size() >= MAX_TRACKED_TRAINERS && !conflictsByTrainer.containsKey(trainerUsername)) {
+            evictColdTrainers();
+        }
+        conflictsByTrainer.computeIfAbsent(trainerUsername, t -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records an update that was given up after exhausting its retries.
+     *
+     * @param trainerUsername the trainer whose update failed
+     */
+    public void recordExhausted(String trainerUsername) {
+        exhausted.increment();
+        log.warn("Giving up workload update for trainer {} after repeated version conflicts", trainerUsername);
+    }
+
+    /**
+     * Returns the number of conflicts recorded for the trainer since startup.
+     *
+     * @param trainerUsername the trainer username
+     * @return the conflict count
+     */
+    public long conflictsFor(String trainerUsername) {
+        LongAdder count = conflictsByTrainer.get(trainerUsername);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Lists the trainers with the most conflicts, hottest first.
+     *
+     * @return conflict counts of the hottest trainer documents
+     */
+    @ReadOperation
+    public Map<String, Long> hottestTrainers() {
+        Map<String, Long> hottest = new LinkedHashMap<>();
+        conflictsByTrainer.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(HOTTEST_TRAINERS)
+                .forEach(entry -> hottest.put(entry.getKey(), entry.getValue()));
+        return hottest;
+    }
+
+    private void evictColdTrainers() {
+        conflictsByTrainer.values().removeIf(count -> count.sum() <= 1);
+        if (conflictsByTrainer.size() >= MAX_TRACKED_TRAINERS) {
+            conflictsByTrainer.clear();
+        }
+    }
+}
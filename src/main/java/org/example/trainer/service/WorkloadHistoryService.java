@@ -0,0 +1,427 @@
+package org.example.trainer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerHoursAsOfDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.entity.TrainerWorkloadEventEntity;
+import org.example.trainer.entity.TrainerWorkloadSnapshotEntity;
+import org.example.trainer.exeption.WorkloadException;
+import org.example.trainer.repository.TrainerWorkloadEventRepository;
+import org.example.trainer.repository.TrainerWorkloadSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service maintaining the audit trail of trainer workload changes.
+ * Every applied ADD/DELETE is appended to {@code trainer_workload_events}; a periodic compaction folds
+ * the events into {@code trainer_workload_snapshots}, so a point-in-time query only replays the events
+ * recorded since the latest snapshot before the requested date. Events older than the retention window
+ * are moved to {@code trainer_workload_events_archive} once a snapshot covers them.
+ * Besides the applied totals, snapshots keep the net hours requested per month, the sum of all ADDs minus all
+ * DELETEs regardless of arrival order, which the {@link WorkloadReconciliationService} checks the totals against.
+ * Events are stamped with the server's insertion time, and a snapshot records the latest insertion it covers,
+ * so compaction picks events up in the order they were stored: an event whose {@code occurredAt} is older than a
+ * snapshot because its instance's clock lags or its insert was slow is folded into the next snapshot instead of
+ * being skipped. Events stored before insertion times were recorded are still covered by their {@code occurredAt}.
+ * Compaction runs under the {@code history-compaction} job lease, so only one instance compacts at a time, and
+ * renews the lease after every chunk of trainers, so a long run is not taken over while it is still going.
+ */
+@Service
+@Slf4j
+public class WorkloadHistoryService {
+
+    static final String CORRECTION = "RECONCILE";
+    static final String COMPACTION_JOB = "history-compaction";
+    static final int BASELINE_CACHE_SIZE = 10_000;
+    static final int COMPACTION_CHUNK_SIZE = 100;
+
+    private final TrainerWorkloadEventRepository eventRepository;
+    private final TrainerWorkloadSnapshotRepository snapshotRepository;
+    private final MongoTemplate mongoTemplate;
+    private final JobLeases jobLeases;
+    private final WorkloadTieringService tieringService;
+    private final Clock clock;
+    private final Duration compactionLag;
+    private final Duration retention;
+    private final Duration compactionLease;
+    private final Cache<String, Boolean> trainersWithBaseline = Caffeine.newBuilder()
+            .maximumSize(BASELINE_CACHE_SIZE)
+            .build();
+
+    /**
+     * Constructs a WorkloadHistoryService with the necessary dependencies.
+     *
+     * @param eventRepository    Repository for the append-only workload events
+     * @param snapshotRepository Repository for the compacted workload snapshots
+     * @param mongoTemplate      Template used for baseline upserts and archiving
+     * @param jobLeases          Leases letting one instance at a time run the compaction
+     * @param tieringService     Merges archived years into the baseline of a tiered trainer
+     * @param compactionLag      Only events older than this are compacted, to tolerate late writes
+     * @param retention          Events older than this are moved to the archive collection
+     * @param compactionLease    How long a compaction run may hold its lease before another instance takes over
+     */
+    @Autowired
+    public WorkloadHistoryService(TrainerWorkloadEventRepository eventRepository,
+                                  TrainerWorkloadSnapshotRepository snapshotRepository,
+                                  MongoTemplate mongoTemplate, JobLeases jobLeases,
+                                  WorkloadTieringService tieringService,
+                                  @Value("${trainer.history.compaction-lag:1m}") Duration compactionLag,
+                                  @Value("${trainer.history.retention:90d}") Duration retention,
+                                  @Value("${trainer.history.compaction-lease:30m}") Duration compactionLease) {
+        this(eventRepository, snapshotRepository, mongoTemplate, jobLeases, tieringService, Clock.systemUTC(),
+                compactionLag, retention, compactionLease);
+    }
+
+    WorkloadHistoryService(TrainerWorkloadEventRepository eventRepository,
+                           TrainerWorkloadSnapshotRepository snapshotRepository, MongoTemplate mongoTemplate,
+                           JobLeases jobLeases, WorkloadTieringService tieringService, Clock clock,
+                           Duration compactionLag, Duration retention, Duration compactionLease) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.jobLeases = jobLeases;
+        this.tieringService = tieringService;
+        this.clock = clock;
+        this.compactionLag = compactionLag;
+        this.retention = retention;
+        this.compactionLease = compactionLease;
+    }
+
+    /**
+     * Appends the event for an update that was just applied to the trainer's running totals.
+     * The first event of a trainer also stores a baseline snapshot of the totals before the update, including
+     * archived years, so history recorded before the event log existed is not lost. The baseline is only written
+     * while Mongo holds neither a snapshot nor an event of the trainer, so no instance adds one under existing
+     * history. A failed append is logged rather than thrown because the running totals were already updated;
+     * the reconciliation job reports the gap.
+     *
+     * @param before       The trainer workload as read before the update, or {@code null} for a new trainer
+     * @param request      The applied update request
+     * @param appliedDelta The change actually applied to the month, after clamping at zero
+     */
+    public void recordEvent(TrainerWorkloadEntity before, TrainerWorkloadRequestDto request, int appliedDelta) {
+        Instant occurredAt = clock.instant().truncatedTo(ChronoUnit.MILLIS);
+        String trainerUsername = request.getTrainerUsername();
+
+        try {
+            ensureBaseline(trainerUsername, before, occurredAt);
+            appendEvent(new ObjectId(), trainerUsername, request.getTrainingDate().getYear(),
+                    request.getTrainingDate().getMonthValue(), request.getActionType().toUpperCase(Locale.ROOT),
+                    request.getTrainingDuration(), appliedDelta, occurredAt);
+        } catch (DataAccessException e) {
+            log.error("Failed to append workload event for trainer: {}, history has a gap", trainerUsername, e);
+        }
+    }
+
+    /**
+     * Appends a correction written by the reconciliation job, so replaying the event log keeps yielding the
+     * trainer's running totals. The signed change to the requested hours is stored as the event's training
+     * duration; corrections written before it was tracked have a duration of zero. The correction's id is
+     * derived from the month and the document version it was decided on, so recording it again is a no-op.
+     *
+     * @param trainerUsername The username of the corrected trainer
+     * @param year            The year of the corrected month
+     * @param month           The corrected month
+     * @param version         The version of the trainer's document the correction was decided on
+     * @param appliedDelta    The change the correction makes to the applied totals of the month
+     * @param requestedDelta  The change the correction makes to the requested hours of the month
+     */
+    public void recordCorrection(String trainerUsername, Integer year, Integer month, long version,
+                                 int appliedDelta, int requestedDelta) {
+        try {
+            appendEvent(correctionId(trainerUsername, year, month, version), trainerUsername, year, month,
+                    CORRECTION, requestedDelta, appliedDelta, clock.instant().truncatedTo(ChronoUnit.MILLIS));
+        } catch (DuplicateKeyException e) {
+            log.debug("Correction of trainer {} for {}-{} at version {} is already recorded", trainerUsername,
+                    year, month, version);
+        }
+    }
+
+    /**
+     * Stores an event stamped with the server's insertion time. The filter matches no stored event, so an id that
+     * is already taken fails with a duplicate key instead of moving the existing event's insertion time.
+     */
+    private void appendEvent(Object id, String trainerUsername, Integer year, Integer month, String actionType,
+                             Integer trainingDuration, int appliedDelta, Instant occurredAt) {
+        Update event = new Update()
+                .setOnInsert("trainerUsername", trainerUsername)
+                .setOnInsert("year", year)
+                .setOnInsert("month", month)
+                .setOnInsert("actionType", actionType)
+                .setOnInsert("trainingDuration", trainingDuration)
+                .setOnInsert("appliedDelta", appliedDelta)
+                .setOnInsert("occurredAt", occurredAt)
+                .currentDate("insertedAt");
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(id).and("trainerUsername").exists(false)), event,
+                TrainerWorkloadEventEntity.class);
+    }
+
+    /**
+     * Replays the whole event log of a trainer, starting from its latest snapshot. Snapshots written before
+     * the requested hours were tracked count their applied totals as requested.
+     *
+     * @param trainerUsername The username of the trainer
+     * @return the replayed totals, or empty if no history is recorded for the trainer
+     */
+    Optional<Ledger> replay(String trainerUsername) {
+        Optional<TrainerWorkloadSnapshotEntity> snapshot = snapshotRepository
+                .findFirstByTrainerUsernameOrderByAsOfDescInsertedUpToDesc(trainerUsername);
+        List<TrainerWorkloadEventEntity> events = eventRepository.findEventsAfter(trainerUsername,
+                snapshot.map(TrainerWorkloadSnapshotEntity::getAsOf).orElse(Instant.EPOCH),
+                snapshot.map(WorkloadHistoryService::insertedUpToOf).orElse(Instant.EPOCH));
+        if (snapshot.isEmpty() && events.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<Integer, Map<Integer, Integer>> applied = copyOf(snapshot
+                .map(TrainerWorkloadSnapshotEntity::getTrainingSummary).orElse(null));
+        Map<Integer, Map<Integer, Integer>> requested = copyOf(snapshot.map(WorkloadHistoryService::requestedOf)
+                .orElse(null));
+        fold(applied, requested, events);
+        return Optional.of(new Ledger(applied, requested));
+    }
+
+    /**
+     * Returns the hours a trainer had for a month as they were known at the given instant.
+     *
+     * @param trainerUsername The username of the trainer
+     * @param year            The year of the requested month
+     * @param month           The requested month
+     * @param asOf            The point in time to reconstruct
+     * @return the hours for the month as of the given instant
+     * @throws WorkloadException if no history at all is recorded for the trainer up to that instant
+     */
+    public TrainerHoursAsOfDto getTrainingHoursAsOf(String trainerUsername, Integer year, Integer month,
+                                                    Instant asOf) {
+        log.info("Retrieving training hours for trainer: {} for {}-{} as of {}", trainerUsername, year, month, asOf);
+
+        Optional<TrainerWorkloadSnapshotEntity> snapshot = snapshotRepository
+                .findFirstByTrainerUsernameAndAsOfLessThanEqualOrderByAsOfDescInsertedUpToDesc(trainerUsername, asOf);
+        Instant replayFrom = snapshot.map(TrainerWorkloadSnapshotEntity::getAsOf).orElse(Instant.EPOCH);
+
+        Map<String, TrainerWorkloadEventEntity> events = new LinkedHashMap<>();
+        eventRepository.findMonthEventsBetween(trainerUsername, year, month, replayFrom, asOf)
+                .forEach(event -> events.put(event.getId(), event));
+        if (replayFrom.isBefore(retentionCutoff())) {
+            Query archived = Query.query(Criteria.where("trainerUsername").is(trainerUsername)
+                    .and("year").is(year).and("month").is(month)
+                    .and("occurredAt").gt(replayFrom).lte(asOf));
+            mongoTemplate.find(archived, TrainerWorkloadEventEntity.class,
+                            TrainerWorkloadEventEntity.ARCHIVE_COLLECTION)
+                    .forEach(event -> events.putIfAbsent(event.getId(), event));
+        }
+
+        if (snapshot.isEmpty() && events.isEmpty()) {
+            throw new WorkloadException("No workload history found for trainer: " + trainerUsername
+                    + " as of " + asOf);
+        }
+
+        int hours = snapshot.map(s -> hoursFor(s.getTrainingSummary(), year, month)).orElse(0)
+                + events.values().stream().mapToInt(TrainerWorkloadEventEntity::getAppliedDelta).sum();
+        return new TrainerHoursAsOfDto(trainerUsername, year, month, asOf, hours);
+    }
+
+    /**
+     * Folds the events of every trainer into a new snapshot and archives events past the retention window.
+     * Events stored less than the compaction lag ago are left for the next run. The run is skipped while another
+     * instance holds the compaction lease, and stops at the next chunk of trainers once it lost the lease.
+     */
+    @Scheduled(fixedDelayString = "${trainer.history.compaction-interval:1h}",
+            initialDelayString = "${trainer.history.compaction-interval:1h}")
+    public void compact() {
+        if (!jobLeases.tryAcquire(COMPACTION_JOB, compactionLease)) {
+            log.debug("Skipping workload history compaction, another instance holds the lease");
+            return;
+        }
+        try {
+            compactAll();
+        } finally {
+            jobLeases.release(COMPACTION_JOB);
+        }
+    }
+
+    private void compactAll() {
+        Instant cutoff = clock.instant().minus(compactionLag);
+        List<String> trainers = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("occurredAt").lte(cutoff)), "trainerUsername",
+                TrainerWorkloadEventEntity.class, String.class);
+
+        int compacted = 0;
+        for (int i = 0; i < trainers.size(); i++) {
+            if (i > 0 && i % COMPACTION_CHUNK_SIZE == 0 && !jobLeases.tryAcquire(COMPACTION_JOB, compactionLease)) {
+                log.warn("Lost the workload history compaction lease after {} trainers, stopping", i);
+                break;
+            }
+            String trainerUsername = trainers.get(i);
+            try {
+                if (compactTrainer(trainerUsername, cutoff)) {
+                    compacted++;
+                }
+            } catch (DataAccessException e) {
+                log.error("Failed to compact workload history for trainer: {}", trainerUsername, e);
+            }
+        }
+        log.info("Compacted workload history of {} out of {} trainers up to {}", compacted, trainers.size(), cutoff);
+    }
+
+    boolean compactTrainer(String trainerUsername, Instant cutoff) {
+        Optional<TrainerWorkloadSnapshotEntity> latest = snapshotRepository
+                .findFirstByTrainerUsernameOrderByAsOfDescInsertedUpToDesc(trainerUsername);
+        Instant coveredUpTo = latest.map(TrainerWorkloadSnapshotEntity::getAsOf).orElse(Instant.EPOCH);
+        Instant insertedUpTo = latest.map(WorkloadHistoryService::insertedUpToOf).orElse(Instant.EPOCH);
+
+        List<TrainerWorkloadEventEntity> events = eventRepository.findEventsBetween(trainerUsername, coveredUpTo,
+                insertedUpTo, cutoff);
+        boolean compacted = !events.isEmpty();
+        if (compacted) {
+            Map<Integer, Map<Integer, Integer>> summary = copyOf(latest
+                    .map(TrainerWorkloadSnapshotEntity::getTrainingSummary).orElse(null));
+            Map<Integer, Map<Integer, Integer>> requested = copyOf(latest
+                    .map(WorkloadHistoryService::requestedOf).orElse(null));
+            fold(summary, requested, events);
+            coveredUpTo = latest(coveredUpTo, events.stream().map(TrainerWorkloadEventEntity::getOccurredAt));
+            insertedUpTo = latest(insertedUpTo, events.stream().map(TrainerWorkloadEventEntity::getInsertedAt));
+            snapshotRepository.save(new TrainerWorkloadSnapshotEntity(null, trainerUsername, coveredUpTo, false,
+                    summary, requested, insertedUpTo));
+        }
+
+        archiveEvents(trainerUsername, coveredUpTo, insertedUpTo);
+        return compacted;
+    }
+
+    /**
+     * Moves the events past the retention window that the latest snapshot covers to the archive collection.
+     */
+    private void archiveEvents(String trainerUsername, Instant coveredUpTo, Instant insertedUpTo) {
+        Criteria covered = new Criteria().orOperator(Criteria.where("insertedAt").lte(insertedUpTo),
+                Criteria.where("insertedAt").exists(false).and("occurredAt").lte(coveredUpTo));
+        Query expired = Query.query(Criteria.where("trainerUsername").is(trainerUsername)
+                .and("occurredAt").lte(retentionCutoff()).andOperator(covered));
+        List<TrainerWorkloadEventEntity> events = mongoTemplate.find(expired, TrainerWorkloadEventEntity.class);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrainerWorkloadEventEntity.class,
+                    TrainerWorkloadEventEntity.ARCHIVE_COLLECTION).insert(events).execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != 11000)) {
+                throw e;
+            }
+            log.debug("Skipped {} events already archived for trainer: {}", e.getErrors().size(), trainerUsername);
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(events.stream()
+                .map(TrainerWorkloadEventEntity::getId).toList())), TrainerWorkloadEventEntity.class);
+        log.info("Archived {} workload events of trainer: {}", events.size(), trainerUsername);
+    }
+
+    private void ensureBaseline(String trainerUsername, TrainerWorkloadEntity before, Instant occurredAt) {
+        if (trainersWithBaseline.getIfPresent(trainerUsername) != null) {
+            return;
+        }
+        if (!snapshotRepository.existsByTrainerUsername(trainerUsername)
+                && !eventRepository.existsByTrainerUsername(trainerUsername)) {
+            Query baseline = Query.query(Criteria.where("trainerUsername").is(trainerUsername)
+                    .and("baseline").is(true));
+            Map<Integer, Map<Integer, Integer>> summary = copyOf(before == null ? null
+                    : tieringService.withArchive(before, year -> true).getTrainingSummary());
+            Update initialState = new Update()
+                    .setOnInsert("asOf", occurredAt.minusMillis(1))
+                    .setOnInsert("trainingSummary", summary)
+                    .setOnInsert("requestedSummary", summary);
+            mongoTemplate.upsert(baseline, initialState, TrainerWorkloadSnapshotEntity.class);
+        }
+        trainersWithBaseline.put(trainerUsername, Boolean.TRUE);
+    }
+
+    private Instant retentionCutoff() {
+        return clock.instant().minus(retention);
+    }
+
+    private static Instant latest(Instant current, Stream<Instant> instants) {
+        return instants.filter(Objects::nonNull).reduce(current, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    private static Instant insertedUpToOf(TrainerWorkloadSnapshotEntity snapshot) {
+        return snapshot.getInsertedUpTo() == null ? Instant.EPOCH : snapshot.getInsertedUpTo();
+    }
+
+    static String correctionId(String trainerUsername, Integer year, Integer month, long version) {
+        return CORRECTION + ":" + trainerUsername + ":" + year + "-" + month + ":" + version;
+    }
+
+    static int requestedDelta(TrainerWorkloadEventEntity event) {
+        if ("ADD".equals(event.getActionType())) {
+            return event.getTrainingDuration();
+        } else if ("DELETE".equals(event.getActionType())) {
+            return -event.getTrainingDuration();
+        } else if (CORRECTION.equals(event.getActionType())) {
+            return event.getTrainingDuration() == null ? 0 : event.getTrainingDuration();
+        }
+        return 0;
+    }
+
+    static int hoursFor(Map<Integer, Map<Integer, Integer>> summary, Integer year, Integer month) {
+        if (summary == null) {
+            return 0;
+        }
+        return summary.getOrDefault(year, Map.of()).getOrDefault(month, 0);
+    }
+
+    private static void fold(Map<Integer, Map<Integer, Integer>> applied,
+                             Map<Integer, Map<Integer, Integer>> requested, List<TrainerWorkloadEventEntity> events) {
+        for (TrainerWorkloadEventEntity event : events) {
+            applied.computeIfAbsent(event.getYear(), y -> new HashMap<>())
+                    .merge(event.getMonth(), event.getAppliedDelta(), Integer::sum);
+            requested.computeIfAbsent(event.getYear(), y -> new HashMap<>())
+                    .merge(event.getMonth(), requestedDelta(event), Integer::sum);
+        }
+    }
+
+    private static Map<Integer, Map<Integer, Integer>> requestedOf(TrainerWorkloadSnapshotEntity snapshot) {
+        return snapshot.getRequestedSummary() == null ? snapshot.getTrainingSummary()
+                : snapshot.getRequestedSummary();
+    }
+
+    private static Map<Integer, Map<Integer, Integer>> copyOf(Map<Integer, Map<Integer, Integer>> summary) {
+        Map<Integer, Map<Integer, Integer>> copy = new HashMap<>();
+        if (summary != null) {
+            summary.forEach((year, months) -> copy.put(year, new HashMap<>(months)));
+        }
+        return copy;
+    }
+
+    /**
+     * Totals of a trainer replayed from its event log: the hours applied per month, which the running totals
+     * should equal, and the net hours requested per month, whose value clamped at zero is the true total.
+     */
+    record Ledger(Map<Integer, Map<Integer, Integer>> applied, Map<Integer, Map<Integer, Integer>> requested) {
+    }
+}
@@ -0,0 +1,278 @@
+package org.example.trainer.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Enumeration;
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodes and decodes workload messages in either JSON or the compact CBOR binary format.
+ * The format of a message is carried in its {@code contentType} property and the schema version in
+ * {@code formatVersion}; binary messages travel as {@link BytesMessage}. A request may ask for a binary reply
+ * through its {@code accept} property. Messages without these properties are JSON, so existing producers and
+ * consumers keep working unchanged.
+ */
+@Component
+public class WorkloadMessageCodec {
+
+    public static final String CONTENT_TYPE_PROPERTY = "contentType";
+    public static final String FORMAT_VERSION_PROPERTY = "formatVersion";
+    public static final String ACCEPT_PROPERTY = "accept";
+    public static final String ERROR_CLASS_PROPERTY = "errorClass";
+    public static final String ERROR_MESSAGE_PROPERTY = "errorMessage";
+    public static final int FORMAT_VERSION = 1;
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    /**
+     * Constructs a WorkloadMessageCodec using the application's JSON mapper for the JSON format.
+     *
+     * @param jsonMapper the mapper for JSON messages
+     */
+    public WorkloadMessageCodec(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = CBORMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    /**
+     * Decodes a text or bytes message into the given type, using the format named by its content type.
+     *
+     * @param message the received message
+     * @param type    the payload type
+     * @param <T>     the payload type
+     * @return the decoded payload, or {@code null} if the message body is empty
+     * @throws JMSException               if the message body or properties cannot be read
+     * @throws IOException                if the body is not valid in the declared format
+     * @throws MessageConversionException if the message type, format or format version is not supported
+     */
+    public <T> T decode(Message message, Class<T> type) throws JMSException, IOException {
+        int version = message.propertyExists(FORMAT_VERSION_PROPERTY)
+                ? message.getIntProperty(FORMAT_VERSION_PROPERTY) : FORMAT_VERSION;
+        if (version > FORMAT_VERSION) {
+            throw new MessageConversionException("Unsupported message format version " + version
+                    + ", this service reads up to " + FORMAT_VERSION);
+        }
+
+        if (message instanceof TextMessage textMessage) {
+            String text = textMessage.getText();
+            return StringUtils.isBlank(text) ? null : jsonMapper.readValue(text, type);
+        }
+        if (message instanceof BytesMessage bytesMessage) {
+            byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(body);
+            return body.length == 0 ? null : mapper(formatOf(message)).readValue(body, type);
+        }
+        throw new MessageConversionException("Unsupported message type: " + message.getClass().getName());
+    }
+
+    /**
+     * Encodes a payload as a message in the given format, tagged with its content type and format version.
+     *
+     * @param session the session creating the message
+     * @param payload the payload to encode
+     * @param format  the wire format
+     * @return a {@link TextMessage} for JSON or a {@link BytesMessage} for CBOR
+     * @throws JMSException if the message cannot be created
+     * @throws IOException  if the payload cannot be serialized
+     */
+    public Message encode(Session session, Object payload, MessageFormat format) throws JMSException, IOException {
+        Message message;
+        if (format == MessageFormat.CBOR) {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes(cborMapper.writeValueAsBytes(payload));
+            message = bytesMessage;
+        } else {
+            message = session.createTextMessage(jsonMapper.writeValueAsString(payload));
+        }
+        message.setStringProperty(CONTENT_TYPE_PROPERTY, format.getContentType());
+        message.setIntProperty(FORMAT_VERSION_PROPERTY, FORMAT_VERSION);
+        return message;
+    }
+
+    /**
+     * Wraps a payload already serialized by {@link #toBytes(Object, MessageFormat)} in a message, tagged with its
+     * content type and format version.
+     *
+     * @param session the session creating the message
+     * @param body    the encoded payload
+     * @param format  the wire format the payload was encoded in
+     * @return a {@link TextMessage} for JSON or a {@link BytesMessage} for CBOR
+     * @throws JMSException if the message cannot be created
+     */
+    public Message wrap(Session session, byte[] body, MessageFormat format) throws JMSException {
+        Message message;
+        if (format == MessageFormat.CBOR) {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes(body);
+            message = bytesMessage;
+        } else {
+            message = session.createTextMessage(new String(body, StandardCharsets.UTF_8));
+        }
+        message.setStringProperty(CONTENT_TYPE_PROPERTY, format.getContentType());
+        message.setIntProperty(FORMAT_VERSION_PROPERTY, FORMAT_VERSION);
+        return message;
+    }
+
+    /**
+     * Serializes a payload in the given format without wrapping it in a message.
+     *
+     * @param payload the payload to encode
+     * @param format  the wire format
+     * @return the encoded bytes
+     * @throws IOException if the payload cannot be serialized
+     */
+    public byte[] toBytes(Object payload, MessageFormat format) throws IOException {
+        return mapper(format).writeValueAsBytes(payload);
+    }
+
+    /**
+     * Deserializes a payload encoded by {@link #toBytes(Object, MessageFormat)}.
+     *
+     * @param body   the encoded bytes
+     * @param type   the payload type
+     * @param format the wire format
+     * @param <T>    the payload type
+     * @return the decoded payload
+     * @throws IOException if the bytes are not valid in the given format
+     */
+    public <T> T fromBytes(byte[] body, Class<T> type, MessageFormat format) throws IOException {
+        return mapper(format).readValue(body, type);
+    }
+
+    /**
+     * Chooses the reply format for a request: the format named by its {@code accept} property when supported,
+     * otherwise JSON.
+     *
+     * @param request the received request
+     * @return the format to reply in
+     * @throws JMSException if the request properties cannot be read
+     */
+    public MessageFormat replyFormat(Message request) throws JMSException {
+        return MessageFormat.fromContentType(request.getStringProperty(ACCEPT_PROPERTY));
+    }
+
+    /**
+     * Copies a message that could not be processed for the dead letter queue. The body and the application
+     * properties are kept as received, so the message can be replayed unchanged, and the failure is attached
+     * through {@link #withError(Message, Throwable)}.
+     *
+     * @param session  the session creating the copy
+     * @param original the message that failed
+     * @param error    the failure
+     * @return a new message with the original body and properties and the error properties
+     * @throws JMSException if the original cannot be read or the copy cannot be created
+     */
+    public static Message deadLetter(Session session, Message original, Throwable error) throws JMSException {
+        return withError(copyOf(session, original), error);
+    }
+
+    /**
+     * Creates a fresh message with the body, application properties and correlation ID of a received one.
+     * Broker and {@code JMSX} state such as the redelivery counter is not carried over.
+     *
+     * @param session  the session creating the copy
+     * @param original the received message
+     * @return a new message of the same body type
+     * @throws JMSException if the original cannot be read or the copy cannot be created
+     */
+    public static Message copyOf(Session session, Message original) throws JMSException {
+        Message copy;
+        if (original instanceof TextMessage textMessage) {
+            copy = session.createTextMessage(textMessage.getText());
+        } else if (original instanceof BytesMessage bytesMessage) {
+            bytesMessage.reset();
+            byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(body);
+            BytesMessage bytesCopy = session.createBytesMessage();
+            bytesCopy.writeBytes(body);
+            copy = bytesCopy;
+        } else if (original instanceof MapMessage mapMessage) {
+            MapMessage mapCopy = session.createMapMessage();
+            Enumeration<?> names = mapMessage.getMapNames();
+            while (names.hasMoreElements()) {
+                String name = (String) names.nextElement();
+                mapCopy.setObject(name, mapMessage.getObject(name));
+            }
+            copy = mapCopy;
+        } else {
+            copy = session.createMessage();
+        }
+
+        Enumeration<?> properties = original.getPropertyNames();
+        while (properties.hasMoreElements()) {
+            String name = (String) properties.nextElement();
+            if (!name.startsWith("JMSX")) {
+                copy.setObjectProperty(name, original.getObjectProperty(name));
+            }
+        }
+        copy.setJMSCorrelationID(original.getJMSCorrelationID());
+        return copy;
+    }
+
+    /**
+     * Attaches a processing failure to a dead letter message as the {@code errorClass} and {@code errorMessage}
+     * properties.
+     *
+     * @param message the dead letter message
+     * @param error   the failure
+     * @return the same message
+     * @throws JMSException if the properties cannot be set
+     */
+    public static Message withError(Message message, Throwable error) throws JMSException {
+        message.setStringProperty(ERROR_CLASS_PROPERTY, error.getClass().getName());
+        message.setStringProperty(ERROR_MESSAGE_PROPERTY, String.valueOf(error.getMessage()));
+        return message;
+    }
+
+    private MessageFormat formatOf(Message message) throws JMSException {
+        return MessageFormat.fromContentType(message.getStringProperty(CONTENT_TYPE_PROPERTY));
+    }
+
+    private ObjectMapper mapper(MessageFormat format) {
+        return format == MessageFormat.CBOR ? cborMapper : jsonMapper;
+    }
+
+    /**
+     * Wire formats understood by the codec.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum MessageFormat {
+        JSON("application/json"),
+        CBOR("application/cbor");
+
+        private final String contentType;
+
+        /**
+         * Resolves a content type to a format, falling back to JSON for missing or unknown values.
+         *
+         * @param contentType the content type, may be {@code null}
+         * @return the matching format
+         */
+        public static MessageFormat fromContentType(String contentType) {
+            return Arrays.stream(values())
+                    .filter(format -> format.contentType.equalsIgnoreCase(StringUtils.trimToEmpty(contentType)))
+                    .findFirst()
+                    .orElse(JSON);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package org.example.trainer.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.example.trainer.config.ReconciliationProperties;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.service.WorkloadHistoryService.Ledger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Periodically checks the running totals in {@code trainer_workloads} against the event log kept by the
+ * {@link WorkloadHistoryService}. A month is inconsistent when its total differs from the hours applied by its
+ * logged events, because an update was lost or never logged, or from the net hours requested for it clamped at
+ * zero, because a DELETE was clamped before the ADD it cancels arrived. Every inconsistent trainer is checked a
+ * second time after the rest of its chunk, and only reported if its document did not change in between, so a
+ * live update whose event is still being appended is never mistaken for drift.
+ * A run scans the collection with one cursor and checks chunks of trainers in parallel. Its reads are throttled
+ * by the {@code reconciliation} rate limiter, and no new chunk is started while the {@code mongoWrites} circuit
+ * breaker is not closed, so live consumers keep priority. With {@code trainer.reconciliation.repair} set, an
+ * unlogged month is fixed in the log only: its running total is kept and a correction event of the difference
+ * brings the applied and requested hours of the log in line with it. Only a clamped month, whose total matches
+ * its log but misses the requested hours, is overwritten with the expected total, through a version-guarded
+ * update that is logged as a correction event. Corrections are keyed by the trainer, the month and the document
+ * version they were decided on, so a correction recorded twice is only appended once.
+ * A scheduled run holds the {@code workload-reconciliation} job lease, so one instance reconciles at a time, and
+ * scans on its own thread, so the shared scheduler thread is not blocked by the rate-limited checks.
+ */
+@Service
+@ConditionalOnProperty(prefix = "trainer.reconciliation", name = "enabled", havingValue = "true")
+@Slf4j
+public class WorkloadReconciliationService {
+
+    static final String RATE_LIMITER = "reconciliation";
+    static final String RECONCILIATION_JOB = "workload-reconciliation";
+    static final String RUNNER_THREAD = "workload-reconciliation";
+    static final String UNLOGGED = "unlogged";
+    static final String CLAMPED = "clamped";
+
+    private final MongoTemplate mongoTemplate;
+    private final WorkloadHistoryService historyService;
+    private final MongoOverloadGuard overloadGuard;
+    private final TrainerSearchIndex searchIndex;
+    private final TrainingHoursReplyCache replyCache;
+    private final WorkloadTieringService tieringService;
+    private final JobLeases jobLeases;
+    private final ReconciliationProperties properties;
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger lastRunDiscrepancies = new AtomicInteger();
+    private final AtomicBoolean runInProgress = new AtomicBoolean();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, RUNNER_THREAD);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a WorkloadReconciliationService and registers a gauge with the discrepancies of the last run.
+     *
+     * @param mongoTemplate       Template used for the scan, the re-checks and the repairs
+     * @param historyService      Service replaying the event log of a trainer
+     * @param overloadGuard       Guard whose write circuit breaker tells whether Mongo is overloaded
+     * @param searchIndex         In-memory trainer search index refreshed after a repair
+     * @param replyCache          Encoded training hours replies invalidated after a repair
+     * @param tieringService      Merges archived years into the checked totals and restores repaired ones
+     * @param jobLeases           Leases letting one instance at a time run the reconciliation
+     * @param properties          Reconciliation settings
+     * @param rateLimiterRegistry Registry holding the {@code reconciliation} rate limiter
+     * @param meterRegistry       Registry for the reconciliation metrics
+     */
+    public WorkloadReconciliationService(MongoTemplate mongoTemplate, WorkloadHistoryService historyService,
+                                         MongoOverloadGuard overloadGuard, TrainerSearchIndex searchIndex,
+                                         TrainingHoursReplyCache replyCache, WorkloadTieringService tieringService,
+                                         JobLeases jobLeases, ReconciliationProperties properties,
+                                         RateLimiterRegistry rateLimiterRegistry, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.historyService = historyService;
+        this.overloadGuard = overloadGuard;
+        this.searchIndex = searchIndex;
+        this.replyCache = replyCache;
+        this.tieringService = tieringService;
+        this.jobLeases = jobLeases;
+        this.properties = properties;
+        this.rateLimiter = rateLimiterRegistry.rateLimiter(RATE_LIMITER);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("trainer.reconciliation.last.discrepancies", lastRunDiscrepancies, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a reconciliation run on the reconciliation thread, unless the previous run is still going.
+     */
+    @Scheduled(fixedDelayString = "${trainer.reconciliation.interval:6h}",
+            initialDelayString = "${trainer.reconciliation.interval:6h}")
+    public void scheduleReconciliation() {
+        if (!runInProgress.compareAndSet(false, true)) {
+            log.warn("Previous workload reconciliation is still running, skipping this one");
+            return;
+        }
+        runner.execute(() -> {
+            try {
+                reconcile();
+            } finally {
+                runInProgress.set(false);
+            }
+        });
+    }
+
+    /**
+     * Checks every trainer's totals against its event log, reporting and optionally repairing discrepancies.
+     * A run that finds Mongo overloaded, or loses its job lease, stops starting new chunks and leaves the rest
+     * for the next run. The run is skipped while another instance holds the lease.
+     */
+    void reconcile() {
+        if (overloaded()) {
+            log.warn("Mongo is overloaded, skipping workload reconciliation");
+            return;
+        }
+        if (!jobLeases.tryAcquire(RECONCILIATION_JOB, properties.getLease())) {
+            log.debug("Skipping workload reconciliation, another instance holds the lease");
+            return;
+        }
+        try {
+            reconcileAll();
+        } finally {
+            jobLeases.release(RECONCILIATION_JOB);
+        }
+    }
+
+    private void reconcileAll() {
+        long start = System.nanoTime();
+        int chunkSize = properties.getChunkSize();
+        AtomicInteger checked = new AtomicInteger();
+        AtomicInteger discrepancies = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getParallelism());
+        Semaphore chunksInFlight = new Semaphore(properties.getParallelism());
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+
+        Query scan = new Query().with(Sort.by("_id")).cursorBatchSize(chunkSize);
+        try (Stream<TrainerWorkloadEntity> cursor = mongoTemplate.stream(scan, TrainerWorkloadEntity.class)) {
+            Iterator<TrainerWorkloadEntity> workloads = cursor.iterator();
+            while (workloads.hasNext() && !overloaded()) {
+                if (!jobLeases.tryAcquire(RECONCILIATION_JOB, properties.getLease())) {
+                    log.warn("Lost the workload reconciliation lease after {} trainers, stopping", checked.get());
+                    break;
+                }
+                List<TrainerWorkloadEntity> chunk = new ArrayList<>(chunkSize);
+                while (workloads.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(workloads.next());
+                }
+                chunksInFlight.acquire();
+                chunks.add(CompletableFuture.runAsync(() -> {
+                    checked.addAndGet(chunk.size());
+                    discrepancies.addAndGet(reconcileChunk(chunk));
+                }, workers).whenComplete((result, failure) -> chunksInFlight.release()));
+            }
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Workload reconciliation interrupted after {} trainers", checked.get());
+        } catch (DataAccessException | CompletionException e) {
+            log.error("Workload reconciliation failed after {} trainers", checked.get(), e);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        lastRunDiscrepancies.set(discrepancies.get());
+        log.info("Reconciled workload totals of {} trainers in {} ms, {} inconsistent months found",
+                checked.get(), (System.nanoTime() - start) / 1_000_000, discrepancies.get());
+    }
+
+    int reconcileChunk(List<TrainerWorkloadEntity> chunk) {
+        Map<TrainerWorkloadEntity, List<Discrepancy>> suspects = new LinkedHashMap<>();
+        for (TrainerWorkloadEntity workload : chunk) {
+            try {
+                List<Discrepancy> found = check(workload);
+                if (found == null) {
+                    countTrainer("unverifiable");
+                } else if (found.isEmpty()) {
+                    countTrainer("consistent");
+                } else {
+                    suspects.put(workload, found);
+                }
+            } catch (DataAccessException | RequestNotPermitted e) {
+                log.warn("Could not reconcile workload of trainer: {}", workload.getTrainerUsername(), e);
+                countTrainer("failed");
+            }
+        }
+
+        int confirmed = 0;
+        for (TrainerWorkloadEntity suspect : suspects.keySet()) {
+            try {
+                confirmed += confirm(suspect);
+            } catch (DataAccessException | RequestNotPermitted e) {
+                log.warn("Could not reconcile workload of trainer: {}", suspect.getTrainerUsername(), e);
+                countTrainer("failed");
+            }
+        }
+        return confirmed;
+    }
+
+    static List<Discrepancy> discrepancies(Map<Integer, Map<Integer, Integer>> stored, Ledger ledger) {
+        Set<YearMonth> months = new TreeSet<>();
+        for (Map<Integer, Map<Integer, Integer>> summary : List.of(stored, ledger.applied(), ledger.requested())) {
+            summary.forEach((year, monthly) -> monthly.keySet().forEach(month -> months.add(YearMonth.of(year,
+                    month))));
+        }
+
+        List<Discrepancy> found = new ArrayList<>();
+        for (YearMonth month : months) {
+            int storedHours = WorkloadHistoryService.hoursFor(stored, month.getYear(), month.getMonthValue());
+            int appliedHours = WorkloadHistoryService.hoursFor(ledger.applied(), month.getYear(),
+                    month.getMonthValue());
+            int expectedHours = Math.max(WorkloadHistoryService.hoursFor(ledger.requested(), month.getYear(),
+                    month.getMonthValue()), 0);
+            if (storedHours != expectedHours || storedHours != appliedHours) {
+                found.add(new Discrepancy(month.getYear(), month.getMonthValue(), storedHours, appliedHours,
+                        expectedHours));
+            }
+        }
+        return found;
+    }
+
+    private List<Discrepancy> check(TrainerWorkloadEntity workload) {
+        RateLimiter.waitForPermission(rateLimiter);
+        Map<Integer, Map<Integer, Integer>> stored = WorkloadTieringService.hasArchived(workload, year -> true)
+                ? tieringService.withArchive(workload, year -> true).getTrainingSummary()
+                : workload.getTrainingSummary();
+        return historyService.replay(workload.getTrainerUsername())
+                .map(ledger -> discrepancies(stored == null ? Map.of() : stored, ledger))
+                .orElse(null);
+    }
+
+    private int confirm(TrainerWorkloadEntity suspect) {
+        RateLimiter.waitForPermission(rateLimiter);
+        TrainerWorkloadEntity workload = mongoTemplate.findById(suspect.getId(), TrainerWorkloadEntity.class);
+        if (workload == null || TrainerWorkloadService.versionOf(workload)
+                != TrainerWorkloadService.versionOf(suspect)) {
+            countTrainer("changed");
+            return 0;
+        }
+        List<Discrepancy> found = check(workload);
+        if (found == null || found.isEmpty()) {
+            countTrainer("consistent");
+            return 0;
+        }
+
+        countTrainer("inconsistent");
+        for (Discrepancy discrepancy : found) {
+            log.warn("Workload of trainer {} for {}-{} is {} hours, its event log applied {} and expects {}",
+                    workload.getTrainerUsername(), discrepancy.year(), discrepancy.month(), discrepancy.stored(),
+                    discrepancy.applied(), discrepancy.expected());
+            meterRegistry.counter("trainer.reconciliation.discrepancies", "cause", discrepancy.cause()).increment();
+            meterRegistry.summary("trainer.reconciliation.drift.hours", "cause", discrepancy.cause())
+                    .record(discrepancy.drift());
+        }
+        if (properties.isRepair()) {
+            repair(workload, found);
+        }
+        return found.size();
+    }
+
+    private void repair(TrainerWorkloadEntity workload, List<Discrepancy> found) {
+        long version = TrainerWorkloadService.versionOf(workload);
+        List<Discrepancy> clamped = found.stream().filter(discrepancy -> CLAMPED.equals(discrepancy.cause()))
+                .toList();
+        if (!clamped.isEmpty() && !overwrite(workload, clamped)) {
+            log.info("Workload of trainer {} changed before it could be repaired, retrying next run",
+                    workload.getTrainerUsername());
+            meterRegistry.counter("trainer.reconciliation.repairs", "result", "conflict").increment();
+            return;
+        }
+
+        for (Discrepancy discrepancy : found) {
+            if (UNLOGGED.equals(discrepancy.cause())) {
+                int missing = discrepancy.stored() - discrepancy.applied();
+                historyService.recordCorrection(workload.getTrainerUsername(), discrepancy.year(),
+                        discrepancy.month(), version, missing, missing);
+            } else if (discrepancy.expected() != discrepancy.applied()) {
+                historyService.recordCorrection(workload.getTrainerUsername(), discrepancy.year(),
+                        discrepancy.month(), version, discrepancy.expected() - discrepancy.applied(), 0);
+            }
+        }
+        meterRegistry.counter("trainer.reconciliation.repairs", "result", "repaired").increment();
+        log.info("Repaired {} months of the workload of trainer {}, {} of them in the document",
+                found.size(), workload.getTrainerUsername(), clamped.size());
+    }
+
+    private boolean overwrite(TrainerWorkloadEntity workload, List<Discrepancy> clamped) {
+        Set<Integer> archivedYears = new TreeSet<>();
+        clamped.stream().map(Discrepancy::year)
+                .filter(year -> WorkloadTieringService.hasArchived(workload, year::equals))
+                .forEach(archivedYears::add);
+        for (Integer year : archivedYears) {
+            tieringService.restoreYear(workload, year);
+        }
+        Update update = new Update().inc("version", 1);
+        clamped.forEach(discrepancy -> update.set("trainingSummary." + discrepancy.year() + "."
+                + discrepancy.month(), discrepancy.expected()));
+        RateLimiter.waitForPermission(rateLimiter);
+        if (mongoTemplate.updateFirst(TrainerWorkloadService.sameVersion(workload), update,
+                TrainerWorkloadEntity.class).getMatchedCount() == 0) {
+            return false;
+        }
+
+        clamped.forEach(discrepancy -> workload.getTrainingSummary()
+                .computeIfAbsent(discrepancy.year(), y -> new HashMap<>())
+                .put(discrepancy.month(), discrepancy.expected()));
+        workload.setVersion(TrainerWorkloadService.versionOf(workload) + 1);
+        searchIndex.index(workload);
+        replyCache.invalidate(workload.getTrainerUsername(), TrainerWorkloadService.versionOf(workload));
+        return true;
+    }
+
+    private boolean overloaded() {
+        return overloadGuard.getWriteCircuitBreaker().getState() != CircuitBreaker.State.CLOSED;
+    }
+
+    private void countTrainer(String outcome) {
+        meterRegistry.counter("trainer.reconciliation.trainers", "outcome", outcome).increment();
+    }
+
+    /**
+     * An inconsistent month of a trainer.
+     *
+     * @param year     the year of the month
+     * @param month    the month
+     * @param stored   the running total in {@code trainer_workloads}
+     * @param applied  the hours applied by the logged events
+     * @param expected the net hours requested by the logged events, clamped at zero
+     */
+    record Discrepancy(int year, int month, int stored, int applied, int expected) {
+
+        String cause() {
+            return stored != applied ? UNLOGGED : CLAMPED;
+        }
+
+        int drift() {
+            return Math.abs(stored - (stored != applied ? applied : expected));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package org.example.trainer.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.CreateCollectionOptions;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import java.time.Clock;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.trainer.entity.TrainerWorkloadArchiveEntity;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the working set of {@code trainer_workloads} small by tiering the training summaries. Active trainers
+ * keep their last {@code trainer.tiering.hot-years} years in the primary collection; older years, and every
+ * year but the current one of inactive trainers, are moved on a schedule into {@code trainer_workloads_archive},
+ * a collection created with block compression. Profiles always stay in the primary collection.
+ * The {@code archivedYears} of a primary document alone decide which tier owns a year: a year is copied into the
+ * archive first and only then unset and listed by a version-guarded update, so an interrupted or conflicting move
+ * never loses hours and leaves at most an archive copy that is ignored and overwritten by the next run.
+ * Each archived year records the version of the primary document it was copied from, and a copy only replaces
+ * one made from an older version, so a run working on a stale read can never overwrite a newer copy.
+ * Reads merge archived years back in only when they cover them, and an update to an archived year first moves
+ * that year back into the primary collection. Moving years changes no hours, so cached replies stay valid.
+ */
+@Service
+@Slf4j
+public class WorkloadTieringService {
+
+    private static final int SCAN_BATCH_SIZE = 100;
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoOverloadGuard overloadGuard;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int hotYears;
+    private final String compressor;
+
+    private volatile boolean archiveCreated;
+
+    /**
+     * Constructs a WorkloadTieringService with the necessary dependencies.
+     *
+     * @param mongoTemplate Template used for both tiers
+     * @param overloadGuard Guard whose write circuit breaker pauses the tiering while Mongo is overloaded
+     * @param enabled       Whether the scheduled tiering moves years into the archive
+     * @param hotYears      Number of most recent years of active trainers kept in the primary collection
+     * @param compressor    WiredTiger block compressor of the archive collection
+     */
+    @Autowired
+    public WorkloadTieringService(MongoTemplate mongoTemplate, MongoOverloadGuard overloadGuard,
+                                  @Value("${trainer.tiering.enabled:false}") boolean enabled,
+                                  @Value("${trainer.tiering.hot-years:2}") int hotYears,
+                                  @Value("${trainer.tiering.compressor:zstd}") String compressor) {
+        this(mongoTemplate, overloadGuard, Clock.systemUTC(), enabled, hotYears, compressor);
+    }
+
+    WorkloadTieringService(MongoTemplate mongoTemplate, MongoOverloadGuard overloadGuard, Clock clock,
+                           boolean enabled, int hotYears, String compressor) {
+        this.mongoTemplate = mongoTemplate;
+        this.overloadGuard = overloadGuard;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.hotYears = hotYears;
+        this.compressor = compressor;
+    }
+
+    /**
+     * Moves the cold years of every trainer into the archive collection. Trainers updated while their years
+     * are moved are left for the next run, and a run that finds Mongo overloaded stops early.
+     */
+    @Scheduled(fixedDelayString = "${trainer.tiering.interval:1d}",
+            initialDelayString = "${trainer.tiering.interval:1d}")
+    public void tier() {
+        if (!enabled || overloaded()) {
+            return;
+        }
+        ensureArchiveCollection();
+        int currentYear = Year.now(clock).getValue();
+
+        int archived = 0;
+        Query scan = new Query().cursorBatchSize(SCAN_BATCH_SIZE);
+        try (Stream<TrainerWorkloadEntity> cursor = mongoTemplate.stream(scan, TrainerWorkloadEntity.class)) {
+            Iterator<TrainerWorkloadEntity> workloads = cursor.iterator();
+            while (workloads.hasNext() && !overloaded()) {
+                TrainerWorkloadEntity workload = workloads.next();
+                Set<Integer> coldYears = coldYears(workload, currentYear);
+                try {
+                    if (!coldYears.isEmpty() && archive(workload, coldYears)) {
+                        archived++;
+                    }
+                } catch (DataAccessException e) {
+                    log.error("Failed to archive workload years {} of trainer: {}", coldYears,
+                            workload.getTrainerUsername(), e);
+                }
+            }
+        }
+        log.info("Archived cold workload years of {} trainers", archived);
+    }
+
+    Set<Integer> coldYears(TrainerWorkloadEntity workload, int currentYear) {
+        if (workload.getTrainingSummary() == null) {
+            return Set.of();
+        }
+        return workload.getTrainingSummary().keySet().stream()
+                .filter(year -> year != currentYear && (!workload.isActive() || year <= currentYear - hotYears))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    boolean archive(TrainerWorkloadEntity workload, Set<Integer> years) {
+        long version = TrainerWorkloadService.versionOf(workload);
+        Update copy = new Update();
+        years.forEach(year -> copy.set("trainingSummary." + year, workload.getTrainingSummary().get(year))
+                .set("versions." + year, version));
+        try {
+            mongoTemplate.upsert(olderCopies(workload.getTrainerUsername(), years, version), copy,
+                    TrainerWorkloadArchiveEntity.class);
+        } catch (DuplicateKeyException e) {
+            log.debug("Archive of trainer {} holds a copy newer than version {}, retrying next run",
+                    workload.getTrainerUsername(), version);
+            return false;
+        }
+
+        Update move = new Update().addToSet("archivedYears").each(years.toArray()).inc("version", 1);
+        years.forEach(year -> move.unset("trainingSummary." + year));
+        if (mongoTemplate.updateFirst(TrainerWorkloadService.sameVersion(workload), move,
+                TrainerWorkloadEntity.class).getMatchedCount() == 0) {
+            log.debug("Workload of trainer {} changed while archiving, retrying next run",
+                    workload.getTrainerUsername());
+            return false;
+        }
+        log.info("Archived workload years {} of trainer {}", years, workload.getTrainerUsername());
+        return true;
+    }
+
+    /**
+     * Tells whether any of the given years of a trainer are held by the archive collection.
+     *
+     * @param workload the primary document of the trainer
+     * @param years    the years a read covers
+     * @return {@code true} if {@link #withArchive} has to be called for the read
+     */
+    public static boolean hasArchived(TrainerWorkloadEntity workload, Predicate<Integer> years) {
+        return workload.getArchivedYears() != null && workload.getArchivedYears().stream().anyMatch(years);
+    }
+
+    /**
+     * Returns a copy of the trainer's workload whose training summary also holds the archived years among the
+     * given ones. The passed document is left untouched, since it may be shared between concurrent readers.
+     *
+     * @param workload the primary document of the trainer
+     * @param years    the years a read covers
+     * @return the merged workload, or the passed one if none of the years are archived
+     */
+    public TrainerWorkloadEntity withArchive(TrainerWorkloadEntity workload, Predicate<Integer> years) {
+        if (!hasArchived(workload, years)) {
+            return workload;
+        }
+        TrainerWorkloadArchiveEntity archive = mongoTemplate.findById(workload.getTrainerUsername(),
+                TrainerWorkloadArchiveEntity.class);
+
+        Map<Integer, Map<Integer, Integer>> merged = new HashMap<>();
+        workload.getTrainingSummary().forEach((year, months) -> merged.put(year, new HashMap<>(months)));
+        if (archive != null && archive.getTrainingSummary() != null) {
+            workload.getArchivedYears().stream()
+                    .filter(years)
+                    .filter(archive.getTrainingSummary()::containsKey)
+                    .forEach(year -> merged.put(year, new HashMap<>(archive.getTrainingSummary().get(year))));
+        }
+        return new TrainerWorkloadEntity(workload.getId(), workload.getTrainerUsername(), workload.getFirstName(),
+                workload.getLastName(), workload.isActive(), merged, workload.getVersion(),
+                new HashSet<>(workload.getArchivedYears()));
+    }
+
+    /**
+     * Collects the archived hours of a set of trainers within an inclusive range of months.
+     *
+     * @param trainerUsernames The usernames of the trainers
+     * @param from             The first month of the range
+     * @param to               The last month of the range
+     * @return the archived hours per trainer and month, without trainers that have no archived years in range
+     */
+    public Map<String, Map<YearMonth, Integer>> archivedHours(Collection<String> trainerUsernames, YearMonth from,
+                                                              YearMonth to) {
+        Predicate<Integer> inRange = year -> year >= from.getYear() && year <= to.getYear();
+        Query withArchive = Query.query(Criteria.where("trainerUsername").in(trainerUsernames)
+                .and("archivedYears.0").exists(true));
+        withArchive.fields().include("trainerUsername", "archivedYears");
+        Map<String, Set<Integer>> archivedYears = mongoTemplate.find(withArchive, TrainerWorkloadEntity.class)
+                .stream()
+                .filter(workload -> hasArchived(workload, inRange))
+                .collect(Collectors.toMap(TrainerWorkloadEntity::getTrainerUsername,
+                        TrainerWorkloadEntity::getArchivedYears));
+        if (archivedYears.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Map<YearMonth, Integer>> hours = new HashMap<>();
+        List<TrainerWorkloadArchiveEntity> archives = mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(archivedYears.keySet())), TrainerWorkloadArchiveEntity.class);
+        for (TrainerWorkloadArchiveEntity archive : archives) {
+            Map<YearMonth, Integer> trainerHours = hours.computeIfAbsent(archive.getId(), id -> new HashMap<>());
+            archive.getTrainingSummary().forEach((year, months) -> {
+                if (archivedYears.get(archive.getId()).contains(year)) {
+                    months.forEach((month, monthHours) -> {
+                        YearMonth yearMonth = YearMonth.of(year, month);
+                        if (!yearMonth.isBefore(from) && !yearMonth.isAfter(to)) {
+                            trainerHours.put(yearMonth, monthHours);
+                        }
+                    });
+                }
+            });
+        }
+        return hours;
+    }
+
+    /**
+     * Moves an archived year of a trainer back into the primary collection before it is updated. The passed
+     * document is updated to the restored state, including its new version.
+     *
+     * @param workload the primary document of the trainer, as read before the update
+     * @param year     the archived year to restore
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the trainer changed since it was read
+     * @throws DataIntegrityViolationException if the archive holds no copy of the year, rather than restoring
+     *                                         it as empty
+     */
+    public void restoreYear(TrainerWorkloadEntity workload, Integer year) {
+        TrainerWorkloadArchiveEntity archive = mongoTemplate.findById(workload.getTrainerUsername(),
+                TrainerWorkloadArchiveEntity.class);
+        if (archive == null || archive.getTrainingSummary() == null
+                || !archive.getTrainingSummary().containsKey(year)) {
+            log.error("Archived workload year {} of trainer {} is missing from {}", year,
+                    workload.getTrainerUsername(), TrainerWorkloadArchiveEntity.COLLECTION);
+            throw new DataIntegrityViolationException("Archived workload year " + year + " of trainer "
+                    + workload.getTrainerUsername() + " is missing from " + TrainerWorkloadArchiveEntity.COLLECTION);
+        }
+        Map<Integer, Integer> months = new HashMap<>(archive.getTrainingSummary().get(year));
+
+        Update restore = new Update()
+                .set("trainingSummary." + year, months)
+                .pull("archivedYears", year)
+                .inc("version", 1);
+        if (mongoTemplate.updateFirst(TrainerWorkloadService.sameVersion(workload), restore,
+                TrainerWorkloadEntity.class).getMatchedCount() == 0) {
+            throw TrainerWorkloadService.concurrentModification(workload);
+        }
+        workload.getTrainingSummary().put(year, months);
+        workload.getArchivedYears().remove(year);
+        workload.setVersion(TrainerWorkloadService.versionOf(workload) + 1);
+        log.info("Restored archived workload year {} of trainer {}", year, workload.getTrainerUsername());
+
+        try {
+            mongoTemplate.updateFirst(olderCopies(workload.getTrainerUsername(), Set.of(year),
+                            TrainerWorkloadService.versionOf(workload)),
+                    new Update().unset("trainingSummary." + year), TrainerWorkloadArchiveEntity.class);
+        } catch (DataAccessException e) {
+            log.debug("Left the restored year {} of trainer {} in the archive", year, workload.getTrainerUsername(),
+                    e);
+        }
+    }
+
+    void ensureArchiveCollection() {
+        if (archiveCreated) {
+            return;
+        }
+        if (!mongoTemplate.collectionExists(TrainerWorkloadArchiveEntity.COLLECTION)) {
+            try {
+                mongoTemplate.getDb().createCollection(TrainerWorkloadArchiveEntity.COLLECTION,
+                        new CreateCollectionOptions().storageEngineOptions(new Document("wiredTiger",
+                                new Document("configString", "block_compressor=" + compressor))));
+                log.info("Created the {} collection with {} compression", TrainerWorkloadArchiveEntity.COLLECTION,
+                        compressor);
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                    throw e;
+                }
+            }
+        }
+        archiveCreated = true;
+    }
+
+    private boolean overloaded() {
+        return overloadGuard.getWriteCircuitBreaker().getState() != CircuitBreaker.State.CLOSED;
+    }
+
+    private static Query olderCopies(String trainerUsername, Set<Integer> years, long version) {
+        Criteria[] older = years.stream()
+                .map(year -> new Criteria().orOperator(Criteria.where("versions." + year).exists(false),
+                        Criteria.where("versions." + year).lt(version)))
+                .toArray(Criteria[]::new);
+        return Query.query(Criteria.where("_id").is(trainerUsername).andOperator(older));
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.trainer.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class GracefulShutdownDrainTest {
+
+    @Mock private JmsListenerEndpointRegistry listenerRegistry;
+    @Mock private ObjectProvider<ReactiveJmsBridge> reactiveBridgeProvider;
+    @Mock private ObjectProvider<ApplicationInfoManager> eurekaInstanceProvider;
+    @Mock private ReactiveJmsBridge reactiveBridge;
+    @Mock private ApplicationInfoManager eurekaInstance;
+    @Mock private Runnable callback;
+
+    private GracefulShutdownDrain drain;
+
+    @BeforeEach
+    void setUp() {
+        drain = new GracefulShutdownDrain(listenerRegistry, reactiveBridgeProvider, eurekaInstanceProvider,
+                Duration.ZERO);
+    }
+
+    @Test
+    void stop_marksInstanceDownBeforeStoppingListeners() {
+        // Arrange
+        when(eurekaInstanceProvider.getIfAvailable()).thenReturn(eurekaInstance);
+        drain.start();
+
+        // Act
+        drain.stop(callback);
+
+        // Assert
+        InOrder order = inOrder(eurekaInstance, listenerRegistry);
+        order.verify(eurekaInstance).setInstanceStatus(InstanceStatus.DOWN);
+        order.verify(listenerRegistry).stop(any(Runnable.class));
+    }
+
+    @Test
+    void stop_completesOnlyWhenListenersAndBridgeHaveDrained() {
+        // Arrange
+        when(reactiveBridgeProvider.getIfAvailable()).thenReturn(reactiveBridge);
+        ArgumentCaptor<Runnable> listenersDrained = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Runnable> bridgeDrained = ArgumentCaptor.forClass(Runnable.class);
+
+        // Act
+        drain.stop(callback);
+        verify(listenerRegistry).stop(listenersDrained.capture());
+        verify(reactiveBridge).stop(bridgeDrained.capture());
+        listenersDrained.getValue().run();
+
+        // Assert
+        verify(callback, never()).run();
+        bridgeDrained.getValue().run();
+        verify(callback).run();
+    }
+
+    @Test
+    void stop_withoutEurekaOrBridge_waitsForListenersOnly() {
+        // Arrange
+        ArgumentCaptor<Runnable> listenersDrained = ArgumentCaptor.forClass(Runnable.class);
+
+        // Act
+        drain.stop(callback);
+        verify(listenerRegistry).stop(listenersDrained.capture());
+        listenersDrained.getValue().run();
+
+        // Assert
+        verify(callback).run();
+    }
+}
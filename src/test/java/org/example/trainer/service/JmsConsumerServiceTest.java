@@ -1,54 +1,109 @@
 package org.example.trainer.service;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.MapMessage;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import org.example.trainer.dto.request.TrainerHoursDto;
 import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
+import org.springframework.jms.support.converter.MessageConversionException;
 
 @ExtendWith(MockitoExtension.class)
 public class JmsConsumerServiceTest {
 
     @Mock private TrainerWorkloadService trainerWorkloadService;
-    @Mock private ObjectMapper objectMapper;
     @Mock private JmsTemplate jmsTemplate;
     @Mock private MapMessage mapMessage;
+    @Mock private BytesMessage bytesMessage;
+    @Mock private TextMessage textMessage;
+    @Mock private TextMessage outgoingMessage;
+    @Mock private MapMessage mapDeadLetter;
+    @Mock private Session session;
+    @Mock private WorkloadMessageCodec messageCodec;
+    @Mock private StartupWarmUp startupWarmUp;
 
     @InjectMocks private JmsConsumerService jmsConsumerService;
 
     @Test
-    void receiveTrainingUpdate_withValidMessage_processesUpdate() throws Exception {
+    void receiveTrainingUpdate_withTextMessage_decodesWithCodec() throws Exception {
         // Arrange
-        final String validMessage = "{\"trainerUsername\":\"john.doe\",\"actionType\":\"ADD\"}";
         TrainerWorkloadRequestDto workloadRequest = new TrainerWorkloadRequestDto("john.doe",
                 "john", "doe", true, LocalDate.now(), 50, "ADD");
-        when(objectMapper.readValue(validMessage, TrainerWorkloadRequestDto.class)).thenReturn(workloadRequest);
+        when(textMessage.getText()).thenReturn("{\"trainerUsername\":\"john.doe\",\"actionType\":\"ADD\"}");
+        when(messageCodec.decode(textMessage, TrainerWorkloadRequestDto.class)).thenReturn(workloadRequest);
 
         // Act
-        jmsConsumerService.receiveTrainingUpdate(validMessage);
+        jmsConsumerService.receiveTrainingUpdate(textMessage);
 
         // Assert
         verify(trainerWorkloadService).updateTrainingHours(workloadRequest);
     }
 
     @Test
-    void receiveTrainingUpdate_withEmptyMessage_ignoresProcessing() {
+    void receiveTrainingUpdate_withBinaryMessage_decodesWithCodec() throws Exception {
+        // Arrange
+        TrainerWorkloadRequestDto workloadRequest = new TrainerWorkloadRequestDto("john.doe",
+                "john", "doe", true, LocalDate.now(), 50, "ADD");
+        when(messageCodec.decode(bytesMessage, TrainerWorkloadRequestDto.class)).thenReturn(workloadRequest);
+
+        // Act
+        jmsConsumerService.receiveTrainingUpdate(bytesMessage);
+
+        // Assert
+        verify(trainerWorkloadService).updateTrainingHours(workloadRequest);
+    }
+
+    @Test
+    void handleTrainingHoursRequest_withBinaryRequestAcceptingCbor_repliesInBinary() throws Exception {
+        // Arrange
+        when(messageCodec.decode(bytesMessage, TrainerHoursDto.class))
+                .thenReturn(new TrainerHoursDto("john.doe", 3, "corr-1"));
+        when(messageCodec.replyFormat(bytesMessage)).thenReturn(MessageFormat.CBOR);
+        when(trainerWorkloadService.getEncodedTrainingHoursForMonth("john.doe", 3, MessageFormat.CBOR))
+                .thenReturn(new byte[] {1, 2, 3});
+
         // Act
-        jmsConsumerService.receiveTrainingUpdate("");
+        jmsConsumerService.handleTrainingHoursRequest(bytesMessage);
+
+        // Assert
+        verify(jmsTemplate).send(eq("response.traininghours.queue"), any(MessageCreator.class));
+    }
+
+    @Test
+    void receiveTrainingUpdate_withEmptyMessage_ignoresProcessing() throws Exception {
+        // Arrange
+        when(messageCodec.decode(textMessage, TrainerWorkloadRequestDto.class)).thenReturn(null);
+
+        // Act
+        jmsConsumerService.receiveTrainingUpdate(textMessage);
 
         // Assert
         verifyNoInteractions(trainerWorkloadService);
@@ -58,27 +113,118 @@ public class JmsConsumerServiceTest {
     void receiveTrainingUpdate_withInvalidJson_logsError() throws Exception {
         // Arrange
         final String invalidJsonMessage = "{\"invalidJson++}";
-        when(objectMapper.readValue(invalidJsonMessage, TrainerWorkloadRequestDto.class))
-                .thenThrow(new RuntimeException("Invalid JSON"));
+        when(textMessage.getText()).thenReturn(invalidJsonMessage);
+        when(textMessage.getPropertyNames()).thenReturn(Collections.emptyEnumeration());
+        when(messageCodec.decode(textMessage, TrainerWorkloadRequestDto.class))
+                .thenThrow(new MessageConversionException("Invalid JSON"));
+        when(session.createTextMessage(invalidJsonMessage)).thenReturn(outgoingMessage);
+
+        // Act
+        jmsConsumerService.receiveTrainingUpdate(textMessage);
+
+        // Assert
+        deadLetterCreator().createMessage(session);
+        verify(outgoingMessage).setStringProperty(WorkloadMessageCodec.ERROR_MESSAGE_PROPERTY, "Invalid JSON");
+    }
+
+    @Test
+    void receiveTrainingUpdate_withTextMessageOfNewerFormatVersion_forwardsOriginalToDlq() throws Exception {
+        // Arrange
+        String body = "{\"trainerUsername\":\"john.doe\",\"actionType\":\"ADD\"}";
+        when(textMessage.getText()).thenReturn(body);
+        when(textMessage.getPropertyNames()).thenReturn(Collections.enumeration(
+                List.of(WorkloadMessageCodec.FORMAT_VERSION_PROPERTY)));
+        when(textMessage.getObjectProperty(WorkloadMessageCodec.FORMAT_VERSION_PROPERTY)).thenReturn(2);
+        when(messageCodec.decode(textMessage, TrainerWorkloadRequestDto.class))
+                .thenThrow(new MessageConversionException("Unsupported message format version 2"));
+        when(session.createTextMessage(body)).thenReturn(outgoingMessage);
 
         // Act
-        jmsConsumerService.receiveTrainingUpdate(invalidJsonMessage);
+        jmsConsumerService.receiveTrainingUpdate(textMessage);
 
         // Assert
-        verify(jmsTemplate).convertAndSend(eq("trainer.training.update.dlq"), contains("Invalid JSON"));
+        verifyNoInteractions(trainerWorkloadService);
+        deadLetterCreator().createMessage(session);
+        verify(outgoingMessage).setObjectProperty(WorkloadMessageCodec.FORMAT_VERSION_PROPERTY, 2);
+        verify(outgoingMessage).setStringProperty(WorkloadMessageCodec.ERROR_MESSAGE_PROPERTY,
+                "Unsupported message format version 2");
+    }
+
+    @Test
+    void receiveTrainingUpdate_whileMongoOverloaded_rethrowsInsteadOfDeadLettering() throws Exception {
+        // Arrange
+        TrainerWorkloadRequestDto workloadRequest = new TrainerWorkloadRequestDto("john.doe",
+                "john", "doe", true, LocalDate.now(), 50, "ADD");
+        when(messageCodec.decode(bytesMessage, TrainerWorkloadRequestDto.class)).thenReturn(workloadRequest);
+        doThrow(CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("mongoWrites")))
+                .when(trainerWorkloadService).updateTrainingHours(workloadRequest);
+
+        // Act & Assert
+        assertThatThrownBy(() -> jmsConsumerService.receiveTrainingUpdate(bytesMessage))
+                .isInstanceOf(CallNotPermittedException.class);
+        verify(jmsTemplate, never()).send(eq(JmsConsumerService.DEAD_LETTER_QUEUE), any(MessageCreator.class));
     }
 
+    @Test
+    void receiveTrainingUpdate_withResourceFailureAfterAdmission_deadLettersInsteadOfRedelivering() throws Exception {
+        // Arrange
+        TrainerWorkloadRequestDto workloadRequest = new TrainerWorkloadRequestDto("john.doe",
+                "john", "doe", true, LocalDate.now(), 50, "ADD");
+        when(messageCodec.decode(bytesMessage, TrainerWorkloadRequestDto.class)).thenReturn(workloadRequest);
+        doThrow(new DataAccessResourceFailureException("Mongo connection pool exhausted"))
+                .when(trainerWorkloadService).updateTrainingHours(workloadRequest);
 
+        // Act
+        jmsConsumerService.receiveTrainingUpdate(bytesMessage);
+
+        // Assert
+        verify(jmsTemplate).send(eq(JmsConsumerService.DEAD_LETTER_QUEUE), any(MessageCreator.class));
+    }
+
+    @Test
+    void handleTrainingHoursRequest_whileReadsAreShed_repliesOverloaded() throws Exception {
+        // Arrange
+        when(messageCodec.decode(bytesMessage, TrainerHoursDto.class))
+                .thenReturn(new TrainerHoursDto("john.doe", 3, "corr-1"));
+        when(messageCodec.replyFormat(bytesMessage)).thenReturn(MessageFormat.JSON);
+        when(trainerWorkloadService.getEncodedTrainingHoursForMonth("john.doe", 3, MessageFormat.JSON))
+                .thenThrow(BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("mongoReads")));
+        when(session.createMessage()).thenReturn(outgoingMessage);
+
+        // Act
+        jmsConsumerService.handleTrainingHoursRequest(bytesMessage);
+
+        // Assert
+        ArgumentCaptor<MessageCreator> creator = ArgumentCaptor.forClass(MessageCreator.class);
+        verify(jmsTemplate).send(eq(JmsConsumerService.TRAINING_HOURS_RESPONSE_QUEUE), creator.capture());
+        creator.getValue().createMessage(session);
+        verify(outgoingMessage).setStringProperty(JmsConsumerService.REPLY_STATUS_PROPERTY,
+                JmsConsumerService.REPLY_STATUS_OVERLOADED);
+        verify(outgoingMessage).setJMSCorrelationID("corr-1");
+        verify(jmsTemplate, never()).send(eq(JmsConsumerService.DEAD_LETTER_QUEUE), any(MessageCreator.class));
+    }
 
     @Test
     void handleTrainingHoursRequest_withJmsException_logsError() throws Exception {
         // Arrange
         doThrow(new JMSException("JMS failure", " errorCode")).when(mapMessage).getString(anyString());
+        when(mapMessage.getMapNames()).thenReturn(Collections.enumeration(List.of("month")));
+        when(mapMessage.getObject("month")).thenReturn(3);
+        when(mapMessage.getPropertyNames()).thenReturn(Collections.emptyEnumeration());
+        when(session.createMapMessage()).thenReturn(mapDeadLetter);
 
         // Act
         jmsConsumerService.handleTrainingHoursRequest(mapMessage);
 
         // Assert
-        verify(jmsTemplate).convertAndSend(eq("trainer.training.update.dlq"), contains("JMS failure"));
+        deadLetterCreator().createMessage(session);
+        verify(mapDeadLetter).setObject("month", 3);
+        verify(mapDeadLetter).setStringProperty(WorkloadMessageCodec.ERROR_MESSAGE_PROPERTY, "JMS failure");
+    }
+
+    private MessageCreator deadLetterCreator() {
+        ArgumentCaptor<MessageCreator> creator = ArgumentCaptor.forClass(MessageCreator.class);
+        verify(jmsTemplate).send(eq(JmsConsumerService.DEAD_LETTER_QUEUE), creator.capture());
+        return creator.getValue();
     }
 }
@@ -0,0 +1,164 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import javax.jms.MapMessage;
+import org.example.trainer.config.ListenerConcurrencyProperties;
+import org.example.trainer.config.ListenerConcurrencyProperties.Limits;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+public class ListenerConcurrencyTunerTest {
+
+    private final ListenerConcurrencyProperties properties = new ListenerConcurrencyProperties();
+    private final Limits limits = new Limits(2, 6);
+
+    @Test
+    void nextMaxConsumers_withBacklogAndFastProcessing_grows() {
+        // Act
+        int next = ListenerConcurrencyTuner.nextMaxConsumers(4, limits, 500, Duration.ofMillis(50), 0.1,
+                properties);
+
+        // Assert
+        assertThat(next).isEqualTo(5);
+    }
+
+    @Test
+    void nextMaxConsumers_withSaturatedMongoPool_shrinksDespiteBacklog() {
+        // Act
+        int next = ListenerConcurrencyTuner.nextMaxConsumers(4, limits, 500, Duration.ofMillis(50), 0.95,
+                properties);
+
+        // Assert
+        assertThat(next).isEqualTo(3);
+    }
+
+    @Test
+    void nextMaxConsumers_withSlowProcessing_shrinks() {
+        // Act
+        int next = ListenerConcurrencyTuner.nextMaxConsumers(4, limits, 500, Duration.ofSeconds(1), 0.1,
+                properties);
+
+        // Assert
+        assertThat(next).isEqualTo(3);
+    }
+
+    @Test
+    void nextMaxConsumers_withEmptyQueue_neverDropsBelowReservedMinimum() {
+        // Act
+        int next = ListenerConcurrencyTuner.nextMaxConsumers(2, limits, 0, Duration.ZERO, 1.0, properties);
+
+        // Assert
+        assertThat(next).isEqualTo(2);
+    }
+
+    @Test
+    void nextMaxConsumers_atConfiguredMaximum_doesNotGrow() {
+        // Act
+        int next = ListenerConcurrencyTuner.nextMaxConsumers(6, limits, 10_000, Duration.ofMillis(10), 0,
+                properties);
+
+        // Assert
+        assertThat(next).isEqualTo(6);
+    }
+
+    @Test
+    void nextMaxConsumers_withModerateBacklog_keepsCurrentSize() {
+        // Act
+        int next = ListenerConcurrencyTuner.nextMaxConsumers(4, limits, 30, Duration.ofMillis(100), 0.2,
+                properties);
+
+        // Assert
+        assertThat(next).isEqualTo(4);
+    }
+
+    @Test
+    void effectivePoolMaxSize_withMaxPoolSizeInConnectionString_usesConnectionString() {
+        // Arrange
+        ConnectionString uri = new ConnectionString("mongodb://mongo:27017/trainerDB?maxPoolSize=20");
+
+        // Act
+        int size = ListenerConcurrencyTuner.effectivePoolMaxSize(MongoClientSettings.builder().build(),
+                List.of(builder -> builder.applyConnectionString(uri)));
+
+        // Assert
+        assertThat(size).isEqualTo(20);
+    }
+
+    @Test
+    void effectivePoolMaxSize_withoutCustomizers_usesSettings() {
+        // Arrange
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyToConnectionPoolSettings(pool -> pool.maxSize(7))
+                .build();
+
+        // Act
+        int size = ListenerConcurrencyTuner.effectivePoolMaxSize(settings, List.of());
+
+        // Assert
+        assertThat(size).isEqualTo(7);
+    }
+
+    @Test
+    void depthOf_withStatisticsReply_readsQueueSize() throws Exception {
+        // Arrange
+        MapMessage reply = mock(MapMessage.class);
+        when(reply.itemExists("size")).thenReturn(true);
+        when(reply.getLong("size")).thenReturn(1500L);
+
+        // Act
+        long depth = ListenerConcurrencyTuner.depthOf(reply);
+
+        // Assert
+        assertThat(depth).isEqualTo(1500);
+    }
+
+    @Test
+    void depthOf_withoutReply_isUnknown() throws Exception {
+        // Act
+        long depth = ListenerConcurrencyTuner.depthOf(null);
+
+        // Assert
+        assertThat(depth).isEqualTo(-1);
+    }
+
+    @Test
+    void adjust_withoutStatisticsReply_stopsQueryingBroker() {
+        // Arrange
+        JmsListenerEndpointRegistry listenerRegistry = mock(JmsListenerEndpointRegistry.class);
+        JmsTemplate jmsTemplate = mock(JmsTemplate.class);
+        DefaultMessageListenerContainer container = mock(DefaultMessageListenerContainer.class);
+        when(listenerRegistry.getListenerContainer(JmsConsumerService.TRAINING_UPDATE_LISTENER)).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        ListenerConcurrencyTuner tuner = new ListenerConcurrencyTuner(listenerRegistry, jmsTemplate,
+                new SimpleMeterRegistry(), properties, beanFactory.getBeanProvider(MongoClientSettings.class),
+                beanFactory.getBeanProvider(MongoClientSettingsBuilderCustomizer.class));
+
+        // Act
+        tuner.adjust();
+        tuner.adjust();
+
+        // Assert
+        verify(jmsTemplate, times(1)).execute(ArgumentMatchers.<SessionCallback<Long>>any(), eq(true));
+        verify(container, never()).setMaxConcurrentConsumers(anyInt());
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import reactor.core.publisher.Mono;
+
+public class MongoOverloadGuardTest {
+
+    private MongoOverloadGuard overloadGuard;
+
+    @BeforeEach
+    void setUp() {
+        overloadGuard = new MongoOverloadGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.of(
+                BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build()));
+    }
+
+    @Test
+    void write_whileCircuitBreakerOpen_rejectsWithoutRunning() {
+        // Arrange
+        overloadGuard.getWriteCircuitBreaker().transitionToOpenState();
+        AtomicBoolean written = new AtomicBoolean();
+
+        // Act & Assert
+        assertThatThrownBy(() -> overloadGuard.write(() -> written.set(true)))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThatThrownBy(() -> overloadGuard.write(Mono.fromRunnable(() -> written.set(true))).block())
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(written).isFalse();
+    }
+
+    @Test
+    void read_whileWriteBulkheadFull_isStillServed() throws Exception {
+        // Arrange
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        writer.submit(() -> overloadGuard.write(() -> {
+            writeStarted.countDown();
+            await(releaseWrite);
+        }));
+        writeStarted.await(5, TimeUnit.SECONDS);
+
+        // Act & Assert
+        assertThatThrownBy(() -> overloadGuard.write(() -> { }))
+                .isInstanceOf(BulkheadFullException.class);
+        assertThat(overloadGuard.read(() -> "hours")).isEqualTo("hours");
+        releaseWrite.countDown();
+        writer.shutdown();
+    }
+
+    @Test
+    void isOverload_distinguishesOverloadFromVersionConflicts() {
+        // Assert
+        assertThat(MongoOverloadGuard.isOverload(new DataAccessResourceFailureException("pool exhausted")))
+                .isTrue();
+        assertThat(MongoOverloadGuard.isOverload(new QueryTimeoutException("timed out"))).isTrue();
+        assertThat(MongoOverloadGuard.isOverload(
+                CallNotPermittedException.createCallNotPermittedException(overloadGuard.getWriteCircuitBreaker())))
+                .isTrue();
+        assertThat(MongoOverloadGuard.isOverload(new OptimisticLockingFailureException("conflict"))).isFalse();
+        assertThat(MongoOverloadGuard.isOverload(new IllegalArgumentException("bad message"))).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
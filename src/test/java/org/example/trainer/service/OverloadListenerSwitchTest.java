@@ -0,0 +1,114 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.MessageListenerContainer;
+
+@ExtendWith(MockitoExtension.class)
+public class OverloadListenerSwitchTest {
+
+    @Mock private JmsListenerEndpointRegistry listenerRegistry;
+    @Mock private MessageListenerContainer updateContainer;
+    @Mock private ObjectProvider<TrainerShardCoordinator> shardCoordinatorProvider;
+    @Mock private TrainerShardCoordinator shardCoordinator;
+
+    private CircuitBreaker writeCircuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+    private OverloadListenerSwitch listenerSwitch;
+
+    @BeforeEach
+    void setUp() {
+        MongoOverloadGuard overloadGuard = new MongoOverloadGuard(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults());
+        writeCircuitBreaker = overloadGuard.getWriteCircuitBreaker();
+        meterRegistry = new SimpleMeterRegistry();
+        listenerSwitch = new OverloadListenerSwitch(overloadGuard, listenerRegistry, shardCoordinatorProvider,
+                meterRegistry);
+        when(listenerRegistry.getListenerContainer(JmsConsumerService.TRAINING_UPDATE_LISTENER))
+                .thenReturn(updateContainer);
+    }
+
+    @Test
+    void circuitBreakerOpens_pausesUpdateListenerUntilHalfOpen() {
+        // Arrange
+        when(updateContainer.isRunning()).thenReturn(true);
+
+        // Act
+        writeCircuitBreaker.transitionToOpenState();
+
+        // Assert
+        verify(updateContainer).stop();
+        assertThat(meterRegistry.get("trainer.jms.listener.paused")
+                .tag("listener", JmsConsumerService.TRAINING_UPDATE_LISTENER).gauge().value()).isEqualTo(1.0);
+
+        // Act
+        writeCircuitBreaker.transitionToHalfOpenState();
+
+        // Assert
+        verify(updateContainer).start();
+        assertThat(listenerSwitch.isPaused(JmsConsumerService.TRAINING_UPDATE_LISTENER)).isFalse();
+    }
+
+    @Test
+    void circuitBreakerCloses_doesNotStartListenerItDidNotPause() {
+        // Arrange
+        when(updateContainer.isRunning()).thenReturn(false);
+
+        // Act
+        writeCircuitBreaker.transitionToOpenState();
+        writeCircuitBreaker.transitionToClosedState();
+
+        // Assert
+        verify(updateContainer, never()).stop();
+        verify(updateContainer, never()).start();
+    }
+
+    @Test
+    void contextClosing_keepsPausedListenerStopped() {
+        // Arrange
+        when(updateContainer.isRunning()).thenReturn(true);
+        writeCircuitBreaker.transitionToOpenState();
+
+        // Act
+        listenerSwitch.onContextClosed();
+        writeCircuitBreaker.transitionToHalfOpenState();
+
+        // Assert
+        verify(updateContainer, never()).start();
+    }
+
+    @Test
+    void circuitBreakerOpens_inShardedMode_pausesShardConsumersUntilHalfOpen() {
+        // Arrange
+        when(shardCoordinatorProvider.getIfAvailable()).thenReturn(shardCoordinator);
+        when(shardCoordinator.isRunning()).thenReturn(true);
+
+        // Act
+        writeCircuitBreaker.transitionToOpenState();
+
+        // Assert
+        verify(shardCoordinator).pauseConsumers();
+        assertThat(listenerSwitch.isPaused(TrainerShardCoordinator.SHARD_CONSUMER)).isTrue();
+
+        // Act
+        writeCircuitBreaker.transitionToHalfOpenState();
+
+        // Assert
+        verify(shardCoordinator).resumeConsumers();
+        assertThat(listenerSwitch.isPaused(TrainerShardCoordinator.SHARD_CONSUMER)).isFalse();
+    }
+}
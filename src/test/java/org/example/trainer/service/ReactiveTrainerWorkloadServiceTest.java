@@ -0,0 +1,143 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerWorkloadResponseDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.exeption.WorkloadException;
+import org.example.trainer.repository.ReactiveTrainerWorkloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveTrainerWorkloadServiceTest {
+
+    @Mock private ReactiveTrainerWorkloadRepository workloadRepository;
+    @Mock private ReactiveMongoTemplate mongoTemplate;
+    @Mock private TrainerSearchIndex searchIndex;
+    @Mock private WorkloadContentionTracker contentionTracker;
+    @Mock private WorkloadHistoryService historyService;
+    @Mock private TrainingHoursReplyCache replyCache;
+    @Mock private WorkloadTieringService tieringService;
+
+    private ReactiveTrainerWorkloadService workloadService;
+
+    @BeforeEach
+    void setUp() {
+        workloadService = new ReactiveTrainerWorkloadService(workloadRepository, mongoTemplate, searchIndex,
+                contentionTracker, historyService,
+                new MongoOverloadGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults()),
+                replyCache, tieringService);
+    }
+
+    @Test
+    void updateTrainingHours_newTrainer_savesWorkload() {
+        // Arrange
+        TrainerWorkloadRequestDto request = request("ADD", 10);
+        when(workloadRepository.findByTrainerUsername("trainer1")).thenReturn(Mono.empty());
+        when(workloadRepository.save(any(TrainerWorkloadEntity.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act
+        workloadService.updateTrainingHours(request).block();
+
+        // Assert
+        verify(searchIndex).index(any(TrainerWorkloadEntity.class));
+        verify(historyService).recordEvent(null, request, 10);
+    }
+
+    @Test
+    void updateTrainingHours_deleteForUnknownTrainer_doesNothing() {
+        // Arrange
+        when(workloadRepository.findByTrainerUsername("trainer1")).thenReturn(Mono.empty());
+
+        // Act
+        workloadService.updateTrainingHours(request("DELETE", 5)).block();
+
+        // Assert
+        verify(workloadRepository, never()).save(any(TrainerWorkloadEntity.class));
+    }
+
+    @Test
+    void updateTrainingHours_versionConflict_retriesWithFreshDocument() {
+        // Arrange
+        TrainerWorkloadEntity stale = trainer(10, 3L);
+        TrainerWorkloadEntity fresh = trainer(12, 4L);
+        TrainerWorkloadRequestDto request = request("ADD", 5);
+        when(workloadRepository.findByTrainerUsername("trainer1"))
+                .thenReturn(Mono.just(stale))
+                .thenReturn(Mono.just(fresh));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        // Act
+        workloadService.updateTrainingHours(request).block();
+
+        // Assert
+        verify(contentionTracker).recordConflict("trainer1");
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadEntity.class));
+        verify(historyService).recordEvent(fresh, request, 5);
+        assertThat(fresh.getTrainingSummary().get(2025).get(3)).isEqualTo(17);
+        assertThat(fresh.getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void getTrainingHoursForMonth_unknownTrainer_failsWithWorkloadException() {
+        // Arrange
+        when(workloadRepository.findByTrainerUsername("trainer1")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> workloadService.getTrainingHoursForMonth("trainer1", 3).block())
+                .isInstanceOf(WorkloadException.class);
+    }
+
+    @Test
+    void streamTrainingHoursForMonth_skipsTrainersWithoutHoursInMonth() {
+        // Arrange
+        TrainerWorkloadEntity other = trainer(0, 0L);
+        other.setTrainerUsername("trainer2");
+        other.setTrainingSummary(new HashMap<>(Map.of(2025, new HashMap<>(Map.of(4, 8)))));
+        when(workloadRepository.findAll()).thenReturn(Flux.just(trainer(10, 0L), other));
+
+        // Act
+        var results = workloadService.streamTrainingHoursForMonth(3).collectList().block();
+
+        // Assert
+        assertThat(results).extracting(TrainerWorkloadResponseDto::getTrainerUsername).containsExactly("trainer1");
+    }
+
+    private static TrainerWorkloadRequestDto request(String actionType, int duration) {
+        return new TrainerWorkloadRequestDto("trainer1", "John", "Doe", true, LocalDate.of(2025, 3, 1), duration,
+                actionType);
+    }
+
+    private static TrainerWorkloadEntity trainer(int marchHours, Long version) {
+        return new TrainerWorkloadEntity("1", "trainer1", "John", "Doe", true,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, marchHours)))), version, new HashSet<>());
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class StartupWarmUpTest {
+
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private TrainerSearchIndex searchIndex;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WorkloadMessageCodec messageCodec =
+            new WorkloadMessageCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void start_withWarmUpEnabled_opensMongoConnectionsAndRebuildsIndex() {
+        // Arrange
+        StartupWarmUp warmUp = new StartupWarmUp(messageCodec, mongoTemplate, searchIndex, meterRegistry, true, 3);
+
+        // Act
+        warmUp.start();
+
+        // Assert
+        verify(mongoTemplate, times(3)).executeCommand(any(Document.class));
+        verify(searchIndex).rebuild();
+        assertThat(warmUp.isRunning()).isTrue();
+    }
+
+    @Test
+    void start_withWarmUpDisabled_stillRebuildsIndex() {
+        // Arrange
+        StartupWarmUp warmUp = new StartupWarmUp(messageCodec, mongoTemplate, searchIndex, meterRegistry, false, 3);
+
+        // Act
+        warmUp.start();
+
+        // Assert
+        verify(mongoTemplate, never()).executeCommand(any(Document.class));
+        verify(searchIndex).rebuild();
+    }
+
+    @Test
+    void start_whenMongoWarmUpFails_continuesStartup() {
+        // Arrange
+        when(mongoTemplate.executeCommand(any(Document.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        StartupWarmUp warmUp = new StartupWarmUp(messageCodec, mongoTemplate, searchIndex, meterRegistry, true, 2);
+
+        // Act
+        warmUp.start();
+
+        // Assert
+        verify(searchIndex).rebuild();
+        assertThat(warmUp.isRunning()).isTrue();
+    }
+
+    @Test
+    void recordMessageReceived_onlyMeasuresFirstMessage() throws Exception {
+        // Arrange
+        StartupWarmUp warmUp = new StartupWarmUp(messageCodec, mongoTemplate, searchIndex, meterRegistry, false, 1);
+        warmUp.start();
+
+        // Act
+        warmUp.recordMessageReceived();
+        long first = warmUp.firstMessageMillis();
+        Thread.sleep(5);
+        warmUp.recordMessageReceived();
+
+        // Assert
+        assertThat(first).isPositive();
+        assertThat(warmUp.firstMessageMillis()).isEqualTo(first);
+        assertThat(meterRegistry.get("trainer.startup.first.message").timeGauge().value(TimeUnit.MILLISECONDS))
+                .isEqualTo((double) first);
+    }
+}
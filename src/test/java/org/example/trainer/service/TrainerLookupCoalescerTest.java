@@ -0,0 +1,104 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+public class TrainerLookupCoalescerTest {
+
+    @Mock private TrainerWorkloadRepository workloadRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TrainerLookupCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new TrainerLookupCoalescer(workloadRepository, meterRegistry);
+    }
+
+    @Test
+    void findByTrainerUsername_concurrentCallers_shareOneLookup() throws Exception {
+        // Arrange
+        TrainerWorkloadEntity workload = new TrainerWorkloadEntity("1", "john.doe", "John", "Doe", true,
+                new HashMap<>(), 0L, new HashSet<>());
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch releaseLookup = new CountDownLatch(1);
+        when(workloadRepository.findByTrainerUsername("john.doe")).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            releaseLookup.await(5, TimeUnit.SECONDS);
+            return Optional.of(workload);
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(5);
+
+        // Act
+        List<Future<Optional<TrainerWorkloadEntity>>> results = new ArrayList<>();
+        results.add(callers.submit(() -> coalescer.findByTrainerUsername("john.doe")));
+        lookupStarted.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(() -> coalescer.findByTrainerUsername("john.doe")));
+        }
+        while (meterRegistry.get("trainer.workload.lookup.requests").tag("result", "coalesced").counter().count() < 4) {
+            Thread.sleep(1);
+        }
+        releaseLookup.countDown();
+
+        // Assert
+        for (Future<Optional<TrainerWorkloadEntity>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).containsSame(workload);
+        }
+        callers.shutdown();
+        verify(workloadRepository, times(1)).findByTrainerUsername("john.doe");
+        assertThat(coalescer.collapseRatio()).isEqualTo(0.8);
+    }
+
+    @Test
+    void findByTrainerUsername_afterLookupCompleted_queriesAgain() {
+        // Arrange
+        when(workloadRepository.findByTrainerUsername("john.doe")).thenReturn(Optional.empty());
+
+        // Act
+        coalescer.findByTrainerUsername("john.doe");
+        coalescer.findByTrainerUsername("john.doe");
+
+        // Assert
+        verify(workloadRepository, times(2)).findByTrainerUsername("john.doe");
+        assertThat(coalescer.collapseRatio()).isZero();
+    }
+
+    @Test
+    void findByTrainerUsername_failedLookup_rethrowsAndIsNotRemembered() {
+        // Arrange
+        when(workloadRepository.findByTrainerUsername("john.doe"))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> coalescer.findByTrainerUsername("john.doe"))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(coalescer.findByTrainerUsername("john.doe")).isEmpty();
+    }
+}
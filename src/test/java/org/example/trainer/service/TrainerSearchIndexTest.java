@@ -0,0 +1,205 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import org.example.trainer.dto.response.TrainerSearchResultDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TrainerSearchIndexTest {
+
+    @Mock private TrainerWorkloadRepository workloadRepository;
+
+    private TrainerSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        Clock march2025 = Clock.fixed(Instant.parse("2025-03-10T10:00:00Z"), ZoneOffset.UTC);
+        searchIndex = new TrainerSearchIndex(workloadRepository, march2025);
+    }
+
+    @Test
+    void rebuild_withStoredTrainers_findsThemByAnyNamePrefix() {
+        // Arrange
+        when(workloadRepository.streamAllBy()).thenReturn(Stream.of(
+                trainer("john.doe", "John", "Doe", 2025, 3, 12),
+                trainer("jane.smith", "Jane", "Smith", 2024, 3, 7)));
+
+        // Act
+        searchIndex.rebuild();
+
+        // Assert
+        assertThat(searchIndex.size()).isEqualTo(2);
+        assertThat(usernames(searchIndex.search("J", 10))).containsExactly("jane.smith", "john.doe");
+        assertThat(usernames(searchIndex.search("smi", 10))).containsExactly("jane.smith");
+        assertThat(usernames(searchIndex.search("john d", 10))).containsExactly("john.doe");
+    }
+
+    @Test
+    void search_returnsCurrentMonthHours() {
+        // Arrange
+        searchIndex.index(trainer("john.doe", "John", "Doe", 2025, 3, 12));
+        searchIndex.index(trainer("jane.smith", "Jane", "Smith", 2024, 3, 7));
+
+        // Act
+        List<TrainerSearchResultDto> results = searchIndex.search("j", 10);
+
+        // Assert
+        assertThat(results).extracting(TrainerSearchResultDto::getCurrentMonthHours).containsExactly(0, 12);
+    }
+
+    @Test
+    void search_respectsLimit() {
+        // Arrange
+        searchIndex.index(trainer("anna", "Anna", "A", 2025, 3, 1));
+        searchIndex.index(trainer("andrew", "Andrew", "B", 2025, 3, 1));
+        searchIndex.index(trainer("anton", "Anton", "C", 2025, 3, 1));
+
+        // Act
+        List<TrainerSearchResultDto> results = searchIndex.search("an", 2);
+
+        // Assert
+        assertThat(results).hasSize(2);
+    }
+
+    @Test
+    void index_withRenamedTrainer_dropsStaleTokens() {
+        // Arrange
+        searchIndex.index(trainer("john.doe", "John", "Doe", 2025, 3, 12));
+
+        // Act
+        searchIndex.index(trainer("john.doe", "Johnny", "Walker", 2025, 3, 15));
+
+        // Assert
+        assertThat(searchIndex.search("doe", 10)).isEmpty();
+        assertThat(searchIndex.search("walk", 10))
+                .extracting(TrainerSearchResultDto::getCurrentMonthHours)
+                .containsExactly(15);
+    }
+
+    @Test
+    void search_withBlankPrefix_returnsNothing() {
+        // Arrange
+        searchIndex.index(trainer("john.doe", "John", "Doe", 2025, 3, 12));
+
+        // Act & Assert
+        assertThat(searchIndex.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void search_ranksCloserMatchesFirstBeforeTruncating() {
+        // Arrange
+        searchIndex.index(trainer("annabelle", "Annabelle", "Z", 2025, 3, 1));
+        searchIndex.index(trainer("anton", "Anton", "Y", 2025, 3, 1));
+        searchIndex.index(trainer("ann", "Ann", "X", 2025, 3, 1));
+
+        // Act
+        List<TrainerSearchResultDto> results = searchIndex.search("ann", 2);
+
+        // Assert
+        assertThat(usernames(results)).containsExactly("ann", "annabelle");
+    }
+
+    @Test
+    void search_manyMatches_keepsBestRankedWithinLimit() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            searchIndex.index(trainer("trainer" + i, "Bob" + i, "Brown", 2025, 3, i));
+        }
+        searchIndex.index(trainer("zed", "Bo", "Z", 2025, 3, 1));
+        searchIndex.index(trainer("bob", "Robert", "Y", 2025, 3, 1));
+
+        // Act
+        List<TrainerSearchResultDto> results = searchIndex.search("b", 3);
+
+        // Assert
+        assertThat(usernames(results)).containsExactly("zed", "bob", "trainer0");
+    }
+
+    @Test
+    void search_trainerIndexedInEarlierMonth_showsNoHoursForCurrentMonth() {
+        // Arrange
+        TrainerSearchIndex februaryIndex = new TrainerSearchIndex(workloadRepository,
+                Clock.fixed(Instant.parse("2025-02-10T10:00:00Z"), ZoneOffset.UTC));
+        TrainerWorkloadEntity workload = trainer("john.doe", "John", "Doe", 2025, 2, 5);
+        workload.getTrainingSummary().get(2025).put(3, 9);
+        februaryIndex.index(workload);
+        searchIndex.index(workload);
+
+        // Act
+        List<TrainerSearchResultDto> february = februaryIndex.search("john", 10);
+        List<TrainerSearchResultDto> march = searchIndex.search("john", 10);
+
+        // Assert
+        assertThat(february).extracting(TrainerSearchResultDto::getCurrentMonthHours).containsExactly(5);
+        assertThat(march).extracting(TrainerSearchResultDto::getCurrentMonthHours).containsExactly(9);
+    }
+
+    @Test
+    void scheduleRebuild_rebuildsIndexOffSchedulerThread() {
+        // Arrange
+        AtomicReference<String> rebuildThread = new AtomicReference<>();
+        when(workloadRepository.streamAllBy()).thenAnswer(invocation -> {
+            rebuildThread.set(Thread.currentThread().getName());
+            return Stream.empty();
+        });
+
+        // Act
+        searchIndex.scheduleRebuild();
+
+        // Assert
+        verify(workloadRepository, timeout(1000)).streamAllBy();
+        assertThat(rebuildThread.get()).isEqualTo(TrainerSearchIndex.REBUILD_THREAD);
+    }
+
+    @Test
+    void rebuild_searchesAndUpdatesDuringRebuild_seeCompleteIndexAndAreKept() {
+        // Arrange
+        searchIndex.index(trainer("john.doe", "John", "Doe", 2025, 3, 12));
+        TrainerWorkloadEntity renamed = trainer("john.doe", "Johnny", "Walker", 2025, 3, 15);
+        renamed.setVersion(2L);
+        when(workloadRepository.streamAllBy()).thenReturn(Stream.of(
+                trainer("jane.smith", "Jane", "Smith", 2025, 3, 7),
+                trainer("john.doe", "John", "Doe", 2025, 3, 12)).peek(workload -> {
+                    assertThat(usernames(searchIndex.search("j", 10))).containsExactly("john.doe");
+                    searchIndex.index(renamed);
+                }));
+
+        // Act
+        searchIndex.rebuild();
+
+        // Assert
+        assertThat(searchIndex.size()).isEqualTo(2);
+        assertThat(searchIndex.search("doe", 10)).isEmpty();
+        assertThat(usernames(searchIndex.search("walk", 10))).containsExactly("john.doe");
+    }
+
+    private static TrainerWorkloadEntity trainer(String username, String firstName, String lastName,
+                                                 int year, int month, int hours) {
+        Map<Integer, Map<Integer, Integer>> summary = new HashMap<>();
+        summary.computeIfAbsent(year, y -> new HashMap<>()).put(month, hours);
+        return new TrainerWorkloadEntity(null, username, firstName, lastName, true, summary, 0L, new HashSet<>());
+    }
+
+    private static List<String> usernames(List<TrainerSearchResultDto> results) {
+        return results.stream().map(TrainerSearchResultDto::getTrainerUsername).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import javax.jms.ConnectionFactory;
+import org.example.trainer.config.ShardingProperties;
+import org.example.trainer.entity.TrainerShardMemberEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(MockitoExtension.class)
+public class TrainerShardCoordinatorTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T00:00:00Z");
+
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private ConnectionFactory connectionFactory;
+    @Mock private JmsConsumerService consumerService;
+    @Mock private Clock clock;
+
+    private TrainerShardCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setBuckets(1);
+        properties.setLeaseDuration(Duration.ofSeconds(15));
+        coordinator = new TrainerShardCoordinator(mongoTemplate, connectionFactory, consumerService, properties,
+                new SimpleMeterRegistry(), clock, "node-a");
+        coordinator.pauseConsumers();
+    }
+
+    @AfterEach
+    void tearDown() {
+        coordinator.stop();
+    }
+
+    @Test
+    void rebalance_leasesNotRenewedForLeaseDuration_stopsConsumingBuckets() {
+        // Arrange
+        when(clock.instant())
+                .thenReturn(NOW)
+                .thenReturn(NOW.plusSeconds(5))
+                .thenReturn(NOW.plusSeconds(10))
+                .thenReturn(NOW.plusSeconds(15))
+                .thenReturn(NOW.plusSeconds(16));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(TrainerShardMemberEntity.class)))
+                .thenReturn(null)
+                .thenThrow(new DataAccessResourceFailureException("primary unreachable"));
+        when(mongoTemplate.find(any(Query.class), eq(TrainerShardMemberEntity.class)))
+                .thenReturn(List.of(new TrainerShardMemberEntity("node-a", NOW.plusSeconds(15))));
+        coordinator.start();
+
+        // Act
+        coordinator.rebalance();
+        Set<Integer> keptWithinLease = coordinator.consumedBuckets();
+        coordinator.rebalance();
+
+        // Assert
+        assertThat(keptWithinLease).containsExactly(0);
+        assertThat(coordinator.consumedBuckets()).isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class TrainerShardRingTest {
+
+    private static final int BUCKETS = 64;
+    private static final int VIRTUAL_NODES = 100;
+
+    @Test
+    void bucketsOf_everyBucketHasExactlyOneOwner() {
+        // Arrange
+        TrainerShardRing ring = new TrainerShardRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+
+        // Act
+        Set<Integer> ofA = ring.bucketsOf("a", BUCKETS);
+        Set<Integer> ofB = ring.bucketsOf("b", BUCKETS);
+        Set<Integer> ofC = ring.bucketsOf("c", BUCKETS);
+
+        // Assert
+        assertThat(ofA.size() + ofB.size() + ofC.size()).isEqualTo(BUCKETS);
+        Set<Integer> all = new HashSet<>(ofA);
+        all.addAll(ofB);
+        all.addAll(ofC);
+        assertThat(all).hasSize(BUCKETS);
+        assertThat(List.of(ofA.size(), ofB.size(), ofC.size())).allSatisfy(size -> assertThat(size).isBetween(12, 32));
+    }
+
+    @Test
+    void bucketsOf_memberJoining_onlyTakesBucketsFromOthers() {
+        // Arrange
+        TrainerShardRing before = new TrainerShardRing(List.of("b", "a"), VIRTUAL_NODES);
+        TrainerShardRing after = new TrainerShardRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+
+        // Act
+        Set<Integer> joined = after.bucketsOf("c", BUCKETS);
+
+        // Assert
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (!joined.contains(bucket)) {
+                assertThat(after.ownerOf(bucket)).isEqualTo(before.ownerOf(bucket));
+            }
+        }
+        assertThat(joined).isNotEmpty();
+    }
+
+    @Test
+    void bucketOf_isStableAndInRange() {
+        // Act
+        int bucket = TrainerShardRing.bucketOf("john.doe", BUCKETS);
+
+        // Assert
+        assertThat(bucket).isBetween(0, BUCKETS - 1).isEqualTo(TrainerShardRing.bucketOf("john.doe", BUCKETS));
+        assertThat(new TrainerShardRing(List.of(), VIRTUAL_NODES).ownerOf(bucket)).isNull();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import org.example.trainer.config.ShardingProperties;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
+
+@ExtendWith(MockitoExtension.class)
+public class TrainerShardRouterTest {
+
+    @Mock private WorkloadMessageCodec messageCodec;
+    @Mock private JmsTemplate jmsTemplate;
+    @Mock private TextMessage message;
+    @Mock private TextMessage forwarded;
+    @Mock private Session session;
+
+    private ShardingProperties properties;
+    private TrainerShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ShardingProperties();
+        router = new TrainerShardRouter(messageCodec, jmsTemplate, properties);
+    }
+
+    @Test
+    void route_forwardsToShardQueueOfTrainer() throws Exception {
+        // Arrange
+        when(messageCodec.decode(message, TrainerWorkloadRequestDto.class)).thenReturn(
+                new TrainerWorkloadRequestDto("john.doe", "john", "doe", true, LocalDate.now(), 50, "ADD"));
+
+        // Act
+        router.route(message);
+
+        // Assert
+        verify(jmsTemplate).send(eq(TrainerShardCoordinator.shardQueue(
+                TrainerShardRing.bucketOf("john.doe", properties.getBuckets()))), any(MessageCreator.class));
+    }
+
+    @Test
+    void route_undecodableMessage_forwardsToDefaultShard() throws Exception {
+        // Arrange
+        when(messageCodec.decode(message, TrainerWorkloadRequestDto.class))
+                .thenThrow(new JMSException("unreadable"));
+
+        // Act
+        router.route(message);
+
+        // Assert
+        verify(jmsTemplate).send(eq(TrainerShardCoordinator.shardQueue(
+                TrainerShardRing.bucketOf("", properties.getBuckets()))), any(MessageCreator.class));
+    }
+
+    @Test
+    void route_forwardsFreshCopyWithoutDeliveryState() throws Exception {
+        // Arrange
+        String body = "{\"trainerUsername\":\"john.doe\"}";
+        when(messageCodec.decode(message, TrainerWorkloadRequestDto.class)).thenReturn(
+                new TrainerWorkloadRequestDto("john.doe", "john", "doe", true, LocalDate.now(), 50, "ADD"));
+        when(message.getText()).thenReturn(body);
+        when(message.getPropertyNames()).thenReturn(Collections.enumeration(
+                List.of("JMSXDeliveryCount", WorkloadMessageCodec.CONTENT_TYPE_PROPERTY)));
+        when(message.getObjectProperty(WorkloadMessageCodec.CONTENT_TYPE_PROPERTY)).thenReturn("application/json");
+        when(session.createTextMessage(body)).thenReturn(forwarded);
+
+        // Act
+        router.route(message);
+
+        // Assert
+        ArgumentCaptor<MessageCreator> creator = ArgumentCaptor.forClass(MessageCreator.class);
+        verify(jmsTemplate).send(anyString(), creator.capture());
+        assertThat(creator.getValue().createMessage(session)).isSameAs(forwarded);
+        verify(forwarded).setObjectProperty(WorkloadMessageCodec.CONTENT_TYPE_PROPERTY, "application/json");
+        verify(forwarded, never()).setObjectProperty(eq("JMSXDeliveryCount"), any());
+    }
+}
@@ -1,28 +1,85 @@
 package org.example.trainer.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.mongodb.client.result.UpdateResult;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import org.bson.Document;
+import org.example.trainer.config.RetryConfig;
 import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerHoursRangeDto;
+import org.example.trainer.dto.response.TrainerWorkloadResponseDto;
 import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.exeption.WorkloadException;
 import org.example.trainer.repository.TrainerWorkloadRepository;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.retry.support.RetryTemplate;
 
 public class TrainerWorkloadServiceTests {
     @Mock
     private TrainerWorkloadRepository workloadRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TrainerSearchIndex searchIndex;
+
+    @Mock
+    private WorkloadContentionTracker contentionTracker;
+
+    @Mock
+    private WorkloadHistoryService historyService;
+
+    @Mock
+    private TrainerLookupCoalescer lookupCoalescer;
+
+    @Mock
+    private TrainingHoursReplyCache replyCache;
+
+    @Mock
+    private WorkloadMessageCodec messageCodec;
+
+    @Mock
+    private WorkloadTieringService tieringService;
+
+    @Spy
+    private RetryTemplate optimisticLockRetryTemplate = new RetryConfig().optimisticLockRetryTemplate();
+
+    @Spy
+    private MongoOverloadGuard overloadGuard = new MongoOverloadGuard(CircuitBreakerRegistry.ofDefaults(),
+            BulkheadRegistry.ofDefaults());
+
     @InjectMocks
     private TrainerWorkloadService trainerWorkloadService;
 
@@ -72,19 +129,24 @@ public class TrainerWorkloadServiceTests {
         yearlyData.put(2025, monthlyData);
 
         TrainerWorkloadEntity existingEntity = new TrainerWorkloadEntity("1", "trainer1",
-                "John", "Doe", true, yearlyData);
+                "John", "Doe", true, yearlyData, 3L, new HashSet<>());
 
         TrainerWorkloadRequestDto requestDto = new TrainerWorkloadRequestDto("trainer1",
                 "John", "Doe", true,
                 LocalDate.of(2025, 3, 1), 5, "ADD");
         when(workloadRepository.findByTrainerUsername("trainer1")).thenReturn(Optional.of(existingEntity));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Act
         trainerWorkloadService.updateTrainingHours(requestDto);
 
         // Assert
-        verify(workloadRepository).save(any(TrainerWorkloadEntity.class));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class));
+        verify(workloadRepository, never()).save(any(TrainerWorkloadEntity.class));
         assertThat(existingEntity.getTrainingSummary().get(2025).get(3)).isEqualTo(15);
+        assertThat(existingEntity.getVersion()).isEqualTo(4L);
+        verify(replyCache).invalidate("trainer1", 4L);
     }
 
     @Test
@@ -97,18 +159,201 @@ public class TrainerWorkloadServiceTests {
         yearlyData.put(2025, monthlyData);
 
         TrainerWorkloadEntity existingEntity = new TrainerWorkloadEntity("1", "trainer1",
-                "John", "Doe", true, yearlyData);
+                "John", "Doe", true, yearlyData, 3L, new HashSet<>());
 
         TrainerWorkloadRequestDto requestDto = new TrainerWorkloadRequestDto("trainer1",
                 "John", "Doe", true,
                 LocalDate.of(2025, 2, 1), 5, "DELETE");
         when(workloadRepository.findByTrainerUsername("trainer1")).thenReturn(Optional.of(existingEntity));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Act
         trainerWorkloadService.updateTrainingHours(requestDto);
 
         // Assert
-        verify(workloadRepository).save(any(TrainerWorkloadEntity.class));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class));
         assertThat(existingEntity.getTrainingSummary().get(2025).get(2)).isEqualTo(5);
+        verify(historyService).recordEvent(existingEntity, requestDto, -5);
+    }
+
+    @Test
+    void testUpdateTrainingHours_VersionConflict_RetriesWithFreshDocument() {
+        // Arrange
+        TrainerWorkloadEntity staleEntity = new TrainerWorkloadEntity("1", "trainer1",
+                "John", "Doe", true, new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)))), 3L, new HashSet<>());
+        TrainerWorkloadEntity freshEntity = new TrainerWorkloadEntity("1", "trainer1",
+                "John", "Doe", true, new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 12)))), 4L, new HashSet<>());
+
+        TrainerWorkloadRequestDto requestDto = new TrainerWorkloadRequestDto("trainer1",
+                "John", "Doe", true,
+                LocalDate.of(2025, 3, 1), 5, "ADD");
+        when(workloadRepository.findByTrainerUsername("trainer1"))
+                .thenReturn(Optional.of(staleEntity))
+                .thenReturn(Optional.of(freshEntity));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        trainerWorkloadService.updateTrainingHours(requestDto);
+
+        // Assert
+        verify(contentionTracker).recordConflict("trainer1");
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadEntity.class));
+        assertThat(freshEntity.getTrainingSummary().get(2025).get(3)).isEqualTo(17);
+        verify(historyService).recordEvent(freshEntity, requestDto, 5);
+        verify(historyService, never()).recordEvent(eq(staleEntity), any(), anyInt());
+    }
+
+    @Test
+    void testUpdateTrainingHours_ProfileChanged_SyncsProfileSeparately() {
+        // Arrange
+        TrainerWorkloadEntity existingEntity = new TrainerWorkloadEntity("1", "trainer1",
+                "John", "Doe", true, new HashMap<>(), 0L, new HashSet<>());
+
+        TrainerWorkloadRequestDto requestDto = new TrainerWorkloadRequestDto("trainer1",
+                "Johnny", "Doe", false,
+                LocalDate.of(2025, 3, 1), 5, "ADD");
+        when(workloadRepository.findByTrainerUsername("trainer1")).thenReturn(Optional.of(existingEntity));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        trainerWorkloadService.updateTrainingHours(requestDto);
+
+        // Assert
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(),
+                eq(TrainerWorkloadEntity.class));
+        assertThat(updates.getAllValues().get(0).getUpdateObject().toJson()).doesNotContain("firstName");
+        assertThat(updates.getAllValues().get(1).getUpdateObject().toJson())
+                .contains("Johnny")
+                .doesNotContain("trainingSummary")
+                .doesNotContain("version");
+        assertThat(existingEntity.getFirstName()).isEqualTo("Johnny");
+    }
+
+    @Test
+    void testUpdateTrainingHours_ArchivedYear_RestoresYearBeforeUpdating() {
+        // Arrange
+        TrainerWorkloadEntity existingEntity = new TrainerWorkloadEntity("1", "trainer1", "John", "Doe", false,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)))), 3L, new HashSet<>(Set.of(2022)));
+        TrainerWorkloadRequestDto requestDto = new TrainerWorkloadRequestDto("trainer1", null, null, false,
+                LocalDate.of(2022, 5, 1), 2, "ADD");
+        when(workloadRepository.findByTrainerUsername("trainer1")).thenReturn(Optional.of(existingEntity));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        trainerWorkloadService.updateTrainingHours(requestDto);
+
+        // Assert
+        verify(tieringService).restoreYear(existingEntity, 2022);
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class));
+    }
+
+    @Test
+    void getTrainingHoursForMonth_archivedYears_mergesArchiveTier() {
+        // Arrange
+        TrainerWorkloadEntity workload = new TrainerWorkloadEntity("1", "trainer1", "John", "Doe", false,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)))), 7L, new HashSet<>(Set.of(2022)));
+        TrainerWorkloadEntity merged = new TrainerWorkloadEntity("1", "trainer1", "John", "Doe", false,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)), 2022, new HashMap<>(Map.of(3, 4)))), 7L,
+                new HashSet<>(Set.of(2022)));
+        when(lookupCoalescer.findByTrainerUsername("trainer1")).thenReturn(Optional.of(workload));
+        when(tieringService.withArchive(eq(workload), any())).thenReturn(merged);
+
+        // Act
+        TrainerWorkloadResponseDto response = trainerWorkloadService.getTrainingHoursForMonth("trainer1", 3);
+
+        // Assert
+        assertThat(response.getWorkload()).containsOnlyKeys(2022, 2025);
+        assertThat(response.getWorkload().get(2022)).containsEntry(3, 4);
+    }
+
+    @Test
+    void getEncodedTrainingHoursForMonth_cachedReply_skipsMongoAndSerialization() throws Exception {
+        // Arrange
+        byte[] cached = {1, 2, 3};
+        when(replyCache.get("trainer1", 3, MessageFormat.CBOR)).thenReturn(cached);
+
+        // Act
+        byte[] reply = trainerWorkloadService.getEncodedTrainingHoursForMonth("trainer1", 3, MessageFormat.CBOR);
+
+        // Assert
+        assertThat(reply).isSameAs(cached);
+        verifyNoInteractions(lookupCoalescer, messageCodec, mongoTemplate);
+    }
+
+    @Test
+    void getEncodedTrainingHoursForMonth_miss_encodesAndCachesWithDocumentVersion() throws Exception {
+        // Arrange
+        TrainerWorkloadEntity workload = new TrainerWorkloadEntity("1", "trainer1", "John", "Doe", true,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)))), 7L, new HashSet<>());
+        byte[] encoded = {4, 5};
+        when(lookupCoalescer.findByTrainerUsername("trainer1")).thenReturn(Optional.of(workload));
+        when(messageCodec.toBytes(any(), eq(MessageFormat.JSON))).thenReturn(encoded);
+
+        // Act
+        byte[] reply = trainerWorkloadService.getEncodedTrainingHoursForMonth("trainer1", 3, MessageFormat.JSON);
+
+        // Assert
+        assertThat(reply).isSameAs(encoded);
+        verify(replyCache).put("trainer1", 3, MessageFormat.JSON, 7L, encoded);
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(TrainerWorkloadEntity.class));
+    }
+
+    @Test
+    void getTrainingHoursForRange_singleTrainer_sumsMonthsInRangeOnly() {
+        // Arrange
+        Map<Integer, Map<Integer, Integer>> summary = new HashMap<>();
+        summary.put(2024, new HashMap<>(Map.of(11, 3, 12, 4)));
+        summary.put(2025, new HashMap<>(Map.of(1, 5, 4, 100)));
+        when(lookupCoalescer.findByTrainerUsername("trainer1")).thenReturn(Optional.of(
+                new TrainerWorkloadEntity("1", "trainer1", "John", "Doe", true, summary, 0L, new HashSet<>())));
+
+        // Act
+        TrainerHoursRangeDto range = trainerWorkloadService.getTrainingHoursForRange("trainer1",
+                YearMonth.of(2024, 12), YearMonth.of(2025, 3));
+
+        // Assert
+        assertThat(range.getTotalHours()).isEqualTo(9);
+        assertThat(range.getAverageMonthlyHours()).isEqualTo(2.25);
+        assertThat(range.getMonthlyHours()).containsExactly(
+                Map.entry(YearMonth.of(2024, 12), 4), Map.entry(YearMonth.of(2025, 1), 5),
+                Map.entry(YearMonth.of(2025, 2), 0), Map.entry(YearMonth.of(2025, 3), 0));
+    }
+
+    @Test
+    void getTrainingHoursForRange_reversedRange_throws() {
+        // Act & Assert
+        assertThatThrownBy(() -> trainerWorkloadService.getTrainingHoursForRange("trainer1",
+                YearMonth.of(2025, 3), YearMonth.of(2025, 1)))
+                .isInstanceOf(WorkloadException.class);
+        verify(lookupCoalescer, never()).findByTrainerUsername(any());
+    }
+
+    @Test
+    void getTrainingHoursForRange_trainerSet_usesAggregationAndReportsMissingTrainersAsZero() {
+        // Arrange
+        Document row = new Document("_id", "trainer2").append("months", List.of(
+                new Document("year", 2025).append("month", 2).append("hours", 6)));
+        when(mongoTemplate.getCollectionName(TrainerWorkloadEntity.class)).thenReturn("trainer_workloads");
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("trainer_workloads"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(row), new Document()));
+
+        // Act
+        List<TrainerHoursRangeDto> ranges = trainerWorkloadService.getTrainingHoursForRange(
+                List.of("trainer1", "trainer2"), YearMonth.of(2025, 1), YearMonth.of(2025, 3));
+
+        // Assert
+        assertThat(ranges).extracting(TrainerHoursRangeDto::getTrainerUsername)
+                .containsExactly("trainer1", "trainer2");
+        assertThat(ranges.get(0).getTotalHours()).isZero();
+        assertThat(ranges.get(1).getTotalHours()).isEqualTo(6);
+        assertThat(ranges.get(1).getMonthlyHours()).containsEntry(YearMonth.of(2025, 2), 6);
+        verify(workloadRepository, never()).findByTrainerUsername(any());
     }
 }
@@ -0,0 +1,100 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import javax.jms.Message;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+import org.springframework.util.unit.DataSize;
+
+public class TrainingHoursReplyCacheTest {
+
+    private JmsTemplate jmsTemplate;
+    private TrainingHoursReplyCache replyCache;
+
+    @BeforeEach
+    void setUp() {
+        jmsTemplate = mock(JmsTemplate.class);
+        replyCache = new TrainingHoursReplyCache(jmsTemplate, DataSize.ofMegabytes(1), Duration.ofMinutes(1),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_afterPut_returnsReplyOfSameFormatOnly() {
+        // Arrange
+        byte[] json = {'{', '}'};
+
+        // Act
+        replyCache.put("john.doe", 3, MessageFormat.JSON, 4L, json);
+
+        // Assert
+        assertThat(replyCache.get("john.doe", 3, MessageFormat.JSON)).isSameAs(json);
+        assertThat(replyCache.get("john.doe", 3, MessageFormat.CBOR)).isNull();
+        assertThat(replyCache.get("john.doe", 4, MessageFormat.JSON)).isNull();
+    }
+
+    @Test
+    void invalidate_dropsRepliesOfTrainerOnly() {
+        // Arrange
+        replyCache.put("john.doe", 3, MessageFormat.JSON, 4L, new byte[] {1});
+        replyCache.put("john.doe", 7, MessageFormat.CBOR, 4L, new byte[] {2});
+        replyCache.put("jane.doe", 3, MessageFormat.JSON, 9L, new byte[] {3});
+
+        // Act
+        replyCache.invalidate("john.doe", 5L);
+
+        // Assert
+        assertThat(replyCache.get("john.doe", 3, MessageFormat.JSON)).isNull();
+        assertThat(replyCache.get("john.doe", 7, MessageFormat.CBOR)).isNull();
+        assertThat(replyCache.get("jane.doe", 3, MessageFormat.JSON)).isNotNull();
+    }
+
+    @Test
+    void put_replyBuiltBeforeUpdate_isNotCached() {
+        // Arrange
+        replyCache.invalidate("john.doe", 5L);
+
+        // Act
+        replyCache.put("john.doe", 3, MessageFormat.JSON, 4L, new byte[] {1});
+        replyCache.put("john.doe", 4, MessageFormat.JSON, 5L, new byte[] {2});
+
+        // Assert
+        assertThat(replyCache.get("john.doe", 3, MessageFormat.JSON)).isNull();
+        assertThat(replyCache.get("john.doe", 4, MessageFormat.JSON)).isNotNull();
+    }
+
+    @Test
+    void invalidate_broadcastsVersionToOtherInstances() {
+        // Act
+        replyCache.invalidate("john.doe", 5L);
+
+        // Assert
+        verify(jmsTemplate).execute(ArgumentMatchers.<SessionCallback<Object>>any());
+    }
+
+    @Test
+    void onRevision_versionBroadcastByAnotherInstance_dropsOlderReplies() throws Exception {
+        // Arrange
+        Message revision = mock(Message.class);
+        when(revision.getStringProperty(TrainingHoursReplyCache.TRAINER_PROPERTY)).thenReturn("john.doe");
+        when(revision.getLongProperty(TrainingHoursReplyCache.VERSION_PROPERTY)).thenReturn(5L);
+        replyCache.put("john.doe", 3, MessageFormat.JSON, 4L, new byte[] {1});
+
+        // Act
+        replyCache.onRevision(revision);
+        replyCache.put("john.doe", 4, MessageFormat.JSON, 4L, new byte[] {2});
+
+        // Assert
+        assertThat(replyCache.get("john.doe", 3, MessageFormat.JSON)).isNull();
+        assertThat(replyCache.get("john.doe", 4, MessageFormat.JSON)).isNull();
+    }
+}
@@ -0,0 +1,376 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.bson.Document;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.dto.response.TrainerHoursAsOfDto;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.entity.TrainerWorkloadEventEntity;
+import org.example.trainer.entity.TrainerWorkloadSnapshotEntity;
+import org.example.trainer.exeption.WorkloadException;
+import org.example.trainer.repository.TrainerWorkloadEventRepository;
+import org.example.trainer.repository.TrainerWorkloadSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkloadHistoryServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-10T10:00:00Z");
+
+    @Mock private TrainerWorkloadEventRepository eventRepository;
+    @Mock private TrainerWorkloadSnapshotRepository snapshotRepository;
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private JobLeases jobLeases;
+    @Mock private WorkloadTieringService tieringService;
+
+    private WorkloadHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new WorkloadHistoryService(eventRepository, snapshotRepository, mongoTemplate, jobLeases,
+                tieringService, Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofMinutes(1), Duration.ofDays(90),
+                Duration.ofMinutes(30));
+    }
+
+    @Test
+    void recordEvent_firstEventOfTrainer_storesBaselineOnce() {
+        // Arrange
+        TrainerWorkloadEntity before = new TrainerWorkloadEntity("1", "john.doe", "John", "Doe", true,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)))), 3L, new HashSet<>());
+        TrainerWorkloadRequestDto request = new TrainerWorkloadRequestDto("john.doe", "John", "Doe", true,
+                LocalDate.of(2025, 3, 1), 5, "add");
+        when(snapshotRepository.existsByTrainerUsername("john.doe")).thenReturn(false);
+        when(tieringService.withArchive(eq(before), any())).thenReturn(before);
+
+        // Act
+        historyService.recordEvent(before, request, 5);
+        historyService.recordEvent(before, request, 5);
+
+        // Assert
+        ArgumentCaptor<Update> baseline = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), baseline.capture(), eq(TrainerWorkloadSnapshotEntity.class));
+        Document initialState = baseline.getValue().getUpdateObject().get("$setOnInsert", Document.class);
+        assertThat(initialState.get("asOf")).isEqualTo(NOW.minusMillis(1));
+        assertThat(initialState.get("trainingSummary")).isEqualTo(Map.of(2025, Map.of(3, 10)));
+        ArgumentCaptor<Update> event = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), event.capture(),
+                eq(TrainerWorkloadEventEntity.class));
+        Document stored = event.getValue().getUpdateObject().get("$setOnInsert", Document.class);
+        assertThat(stored.get("actionType")).isEqualTo("ADD");
+        assertThat(stored.get("appliedDelta")).isEqualTo(5);
+        assertThat(stored.get("occurredAt")).isEqualTo(NOW);
+        assertThat(event.getValue().getUpdateObject().get("$currentDate", Document.class)).containsKey("insertedAt");
+    }
+
+    @Test
+    void recordEvent_firstEventOfTieredTrainer_storesArchivedYearsInBaseline() {
+        // Arrange
+        TrainerWorkloadEntity before = new TrainerWorkloadEntity("1", "john.doe", "John", "Doe", true,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)))), 3L, new HashSet<>(Set.of(2022)));
+        TrainerWorkloadEntity merged = new TrainerWorkloadEntity("1", "john.doe", "John", "Doe", true,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)), 2022, new HashMap<>(Map.of(6, 4)))), 3L,
+                new HashSet<>(Set.of(2022)));
+        TrainerWorkloadRequestDto request = new TrainerWorkloadRequestDto("john.doe", "John", "Doe", true,
+                LocalDate.of(2025, 3, 1), 5, "ADD");
+        when(snapshotRepository.existsByTrainerUsername("john.doe")).thenReturn(false);
+        when(tieringService.withArchive(eq(before), any())).thenReturn(merged);
+
+        // Act
+        historyService.recordEvent(before, request, 5);
+
+        // Assert
+        ArgumentCaptor<Update> baseline = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), baseline.capture(), eq(TrainerWorkloadSnapshotEntity.class));
+        assertThat(baseline.getValue().getUpdateObject().get("$setOnInsert", Document.class).get("trainingSummary"))
+                .isEqualTo(Map.of(2025, Map.of(3, 10), 2022, Map.of(6, 4)));
+    }
+
+    @Test
+    void recordEvent_withEventsButNoSnapshotYet_doesNotStoreBaseline() {
+        // Arrange
+        TrainerWorkloadEntity before = new TrainerWorkloadEntity("1", "john.doe", "John", "Doe", true,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)))), 3L, new HashSet<>());
+        TrainerWorkloadRequestDto request = new TrainerWorkloadRequestDto("john.doe", "John", "Doe", true,
+                LocalDate.of(2025, 3, 1), 5, "ADD");
+        when(snapshotRepository.existsByTrainerUsername("john.doe")).thenReturn(false);
+        when(eventRepository.existsByTrainerUsername("john.doe")).thenReturn(true);
+
+        // Act
+        historyService.recordEvent(before, request, 5);
+
+        // Assert
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadSnapshotEntity.class));
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(TrainerWorkloadEventEntity.class));
+    }
+
+    @Test
+    void compact_whenLeaseHeldByAnotherInstance_skipsRun() {
+        // Arrange
+        when(jobLeases.tryAcquire(WorkloadHistoryService.COMPACTION_JOB, Duration.ofMinutes(30))).thenReturn(false);
+
+        // Act
+        historyService.compact();
+
+        // Assert
+        verify(mongoTemplate, never()).findDistinct(any(Query.class), anyString(), eq(TrainerWorkloadEventEntity.class),
+                eq(String.class));
+        verify(jobLeases, never()).release(anyString());
+    }
+
+    @Test
+    void compact_withLease_releasesItAfterRun() {
+        // Arrange
+        when(jobLeases.tryAcquire(WorkloadHistoryService.COMPACTION_JOB, Duration.ofMinutes(30))).thenReturn(true);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("trainerUsername"), eq(TrainerWorkloadEventEntity.class),
+                eq(String.class))).thenReturn(List.of());
+
+        // Act
+        historyService.compact();
+
+        // Assert
+        verify(jobLeases).release(WorkloadHistoryService.COMPACTION_JOB);
+    }
+
+    @Test
+    void recordEvent_whenEventStoreFails_doesNotThrow() {
+        // Arrange
+        TrainerWorkloadRequestDto request = new TrainerWorkloadRequestDto("john.doe", "John", "Doe", true,
+                LocalDate.of(2025, 3, 1), 5, "ADD");
+        when(snapshotRepository.existsByTrainerUsername("john.doe")).thenReturn(true);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(TrainerWorkloadEventEntity.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        historyService.recordEvent(null, request, 5);
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadSnapshotEntity.class));
+    }
+
+    @Test
+    void getTrainingHoursAsOf_replaysEventsAfterSnapshot() {
+        // Arrange
+        Instant snapshotAt = NOW.minus(Duration.ofDays(2));
+        Instant asOf = NOW.minus(Duration.ofDays(1));
+        when(snapshotRepository
+                .findFirstByTrainerUsernameAndAsOfLessThanEqualOrderByAsOfDescInsertedUpToDesc("john.doe", asOf))
+                .thenReturn(Optional.of(snapshot(snapshotAt, 10)));
+        when(eventRepository.findMonthEventsBetween("john.doe", 2025, 3, snapshotAt, asOf))
+                .thenReturn(List.of(event("e1", snapshotAt.plusSeconds(1), 4), event("e2", asOf, -2)));
+
+        // Act
+        TrainerHoursAsOfDto hours = historyService.getTrainingHoursAsOf("john.doe", 2025, 3, asOf);
+
+        // Assert
+        assertThat(hours.getHours()).isEqualTo(12);
+        verify(mongoTemplate, never()).find(any(Query.class), eq(TrainerWorkloadEventEntity.class), anyString());
+    }
+
+    @Test
+    void getTrainingHoursAsOf_beforeRetention_readsArchiveWithoutDoubleCounting() {
+        // Arrange
+        Instant asOf = NOW.minus(Duration.ofDays(200));
+        TrainerWorkloadEventEntity archived = event("e1", asOf.minusSeconds(60), 3);
+        when(snapshotRepository
+                .findFirstByTrainerUsernameAndAsOfLessThanEqualOrderByAsOfDescInsertedUpToDesc("john.doe", asOf))
+                .thenReturn(Optional.empty());
+        when(eventRepository.findMonthEventsBetween("john.doe", 2025, 3, Instant.EPOCH, asOf))
+                .thenReturn(List.of(archived));
+        when(mongoTemplate.find(any(Query.class), eq(TrainerWorkloadEventEntity.class),
+                eq(TrainerWorkloadEventEntity.ARCHIVE_COLLECTION)))
+                .thenReturn(List.of(archived, event("e0", asOf.minusSeconds(120), 2)));
+
+        // Act
+        TrainerHoursAsOfDto hours = historyService.getTrainingHoursAsOf("john.doe", 2025, 3, asOf);
+
+        // Assert
+        assertThat(hours.getHours()).isEqualTo(5);
+    }
+
+    @Test
+    void getTrainingHoursAsOf_withoutHistory_throwsWorkloadException() {
+        // Arrange
+        when(snapshotRepository
+                .findFirstByTrainerUsernameAndAsOfLessThanEqualOrderByAsOfDescInsertedUpToDesc("john.doe", NOW))
+                .thenReturn(Optional.empty());
+        when(eventRepository.findMonthEventsBetween("john.doe", 2025, 3, Instant.EPOCH, NOW))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> historyService.getTrainingHoursAsOf("john.doe", 2025, 3, NOW))
+                .isInstanceOf(WorkloadException.class);
+    }
+
+    @Test
+    void compactTrainer_foldsEventsIntoNewSnapshot() {
+        // Arrange
+        Instant snapshotAt = NOW.minus(Duration.ofHours(2));
+        Instant cutoff = NOW.minus(Duration.ofMinutes(1));
+        Instant lastEvent = snapshotAt.plusSeconds(30);
+        when(snapshotRepository.findFirstByTrainerUsernameOrderByAsOfDescInsertedUpToDesc("john.doe"))
+                .thenReturn(Optional.of(snapshot(snapshotAt, 10)));
+        when(eventRepository.findEventsBetween("john.doe", snapshotAt, Instant.EPOCH, cutoff))
+                .thenReturn(List.of(event("e1", snapshotAt.plusSeconds(10), 4), event("e2", lastEvent, 1)));
+
+        // Act
+        boolean compacted = historyService.compactTrainer("john.doe", cutoff);
+
+        // Assert
+        ArgumentCaptor<TrainerWorkloadSnapshotEntity> saved =
+                ArgumentCaptor.forClass(TrainerWorkloadSnapshotEntity.class);
+        verify(snapshotRepository).save(saved.capture());
+        assertThat(compacted).isTrue();
+        assertThat(saved.getValue().getAsOf()).isEqualTo(lastEvent);
+        assertThat(saved.getValue().getTrainingSummary().get(2025).get(3)).isEqualTo(15);
+        assertThat(saved.getValue().getRequestedSummary().get(2025).get(3)).isEqualTo(15);
+    }
+
+    @Test
+    void compactTrainer_eventInsertedAfterSnapshotWithEarlierOccurredAt_isFolded() {
+        // Arrange
+        Instant snapshotAt = NOW.minus(Duration.ofHours(2));
+        Instant cutoff = NOW.minus(Duration.ofMinutes(1));
+        Instant insertedUpTo = snapshotAt.plusSeconds(5);
+        Instant lateInsert = NOW.minus(Duration.ofMinutes(30));
+        TrainerWorkloadEventEntity late = new TrainerWorkloadEventEntity("e1", "john.doe", 2025, 3, "ADD", 4, 4,
+                snapshotAt.minusSeconds(60), lateInsert);
+        when(snapshotRepository.findFirstByTrainerUsernameOrderByAsOfDescInsertedUpToDesc("john.doe"))
+                .thenReturn(Optional.of(new TrainerWorkloadSnapshotEntity("s1", "john.doe", snapshotAt, false,
+                        new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, 10)))), null, insertedUpTo)));
+        when(eventRepository.findEventsBetween("john.doe", snapshotAt, insertedUpTo, cutoff))
+                .thenReturn(List.of(late));
+
+        // Act
+        boolean compacted = historyService.compactTrainer("john.doe", cutoff);
+
+        // Assert
+        ArgumentCaptor<TrainerWorkloadSnapshotEntity> saved =
+                ArgumentCaptor.forClass(TrainerWorkloadSnapshotEntity.class);
+        verify(snapshotRepository).save(saved.capture());
+        assertThat(compacted).isTrue();
+        assertThat(saved.getValue().getAsOf()).isEqualTo(snapshotAt);
+        assertThat(saved.getValue().getInsertedUpTo()).isEqualTo(lateInsert);
+        assertThat(saved.getValue().getTrainingSummary().get(2025).get(3)).isEqualTo(14);
+    }
+
+    @Test
+    void compact_leaseLostDuringRun_stopsAtNextChunk() {
+        // Arrange
+        List<String> trainers = IntStream.range(0, WorkloadHistoryService.COMPACTION_CHUNK_SIZE * 2)
+                .mapToObj(i -> "trainer" + i)
+                .toList();
+        when(jobLeases.tryAcquire(WorkloadHistoryService.COMPACTION_JOB, Duration.ofMinutes(30)))
+                .thenReturn(true)
+                .thenReturn(false);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("trainerUsername"), eq(TrainerWorkloadEventEntity.class),
+                eq(String.class))).thenReturn(trainers);
+
+        // Act
+        historyService.compact();
+
+        // Assert
+        verify(eventRepository, times(WorkloadHistoryService.COMPACTION_CHUNK_SIZE))
+                .findEventsBetween(anyString(), any(Instant.class), any(Instant.class), any(Instant.class));
+        verify(jobLeases).release(WorkloadHistoryService.COMPACTION_JOB);
+    }
+
+    @Test
+    void replay_deleteClampedBeforeItsAdd_keepsRequestedHoursApart() {
+        // Arrange
+        Instant snapshotAt = NOW.minus(Duration.ofHours(2));
+        when(snapshotRepository.findFirstByTrainerUsernameOrderByAsOfDescInsertedUpToDesc("john.doe"))
+                .thenReturn(Optional.of(snapshot(snapshotAt, 0)));
+        when(eventRepository.findEventsAfter("john.doe", snapshotAt, Instant.EPOCH)).thenReturn(List.of(
+                new TrainerWorkloadEventEntity("e1", "john.doe", 2025, 3, "DELETE", 5, 0, snapshotAt.plusSeconds(1),
+                        snapshotAt.plusSeconds(1)),
+                new TrainerWorkloadEventEntity("e2", "john.doe", 2025, 3, "ADD", 5, 5, snapshotAt.plusSeconds(2),
+                        snapshotAt.plusSeconds(2))));
+
+        // Act
+        Optional<WorkloadHistoryService.Ledger> ledger = historyService.replay("john.doe");
+
+        // Assert
+        assertThat(ledger).isPresent();
+        assertThat(ledger.get().applied().get(2025).get(3)).isEqualTo(5);
+        assertThat(ledger.get().requested().get(2025).get(3)).isZero();
+    }
+
+    @Test
+    void recordCorrection_recordedByTwoInstances_appendsOneEvent() {
+        // Arrange
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(TrainerWorkloadEventEntity.class)))
+                .thenReturn(null)
+                .thenThrow(new DuplicateKeyException("correction already recorded"));
+
+        // Act
+        historyService.recordCorrection("john.doe", 2025, 3, 7L, 5, 5);
+        historyService.recordCorrection("john.doe", 2025, 3, 7L, 5, 5);
+
+        // Assert
+        ArgumentCaptor<Query> correction = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).upsert(correction.capture(), any(Update.class),
+                eq(TrainerWorkloadEventEntity.class));
+        assertThat(correction.getAllValues()).extracting(query -> query.getQueryObject().get("_id"))
+                .containsOnly(WorkloadHistoryService.correctionId("john.doe", 2025, 3, 7L));
+    }
+
+    @Test
+    void replay_correctionOfUnloggedUpdate_adjustsAppliedAndRequestedHours() {
+        // Arrange
+        Instant snapshotAt = NOW.minus(Duration.ofHours(2));
+        when(snapshotRepository.findFirstByTrainerUsernameOrderByAsOfDescInsertedUpToDesc("john.doe"))
+                .thenReturn(Optional.of(snapshot(snapshotAt, 10)));
+        when(eventRepository.findEventsAfter("john.doe", snapshotAt, Instant.EPOCH)).thenReturn(List.of(
+                new TrainerWorkloadEventEntity("e1", "john.doe", 2025, 3, WorkloadHistoryService.CORRECTION, 5, 5,
+                        snapshotAt.plusSeconds(1), snapshotAt.plusSeconds(1))));
+
+        // Act
+        Optional<WorkloadHistoryService.Ledger> ledger = historyService.replay("john.doe");
+
+        // Assert
+        assertThat(ledger).isPresent();
+        assertThat(ledger.get().applied().get(2025).get(3)).isEqualTo(15);
+        assertThat(ledger.get().requested().get(2025).get(3)).isEqualTo(15);
+    }
+
+    private static TrainerWorkloadSnapshotEntity snapshot(Instant asOf, int marchHours) {
+        return new TrainerWorkloadSnapshotEntity("s1", "john.doe", asOf, false,
+                new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, marchHours)))), null, null);
+    }
+
+    private static TrainerWorkloadEventEntity event(String id, Instant occurredAt, int delta) {
+        return new TrainerWorkloadEventEntity(id, "john.doe", 2025, 3, "ADD", Math.abs(delta), delta, occurredAt,
+                occurredAt);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.LocalDate;
+import javax.jms.BytesMessage;
+import javax.jms.Message;
+import javax.jms.Session;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQMapMessage;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.example.trainer.dto.request.TrainerWorkloadRequestDto;
+import org.example.trainer.service.WorkloadMessageCodec.MessageFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.support.converter.MessageConversionException;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkloadMessageCodecTest {
+
+    @Mock private Session session;
+
+    private WorkloadMessageCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new WorkloadMessageCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void encode_cbor_roundTripsAsSmallerBytesMessage() throws Exception {
+        // Arrange
+        TrainerWorkloadRequestDto request = new TrainerWorkloadRequestDto("john.doe", "John", "Doe", true,
+                LocalDate.of(2025, 3, 1), 5, "ADD");
+        when(session.createBytesMessage()).thenReturn(new ActiveMQBytesMessage());
+
+        // Act
+        Message message = codec.encode(session, request, MessageFormat.CBOR);
+        ((ActiveMQBytesMessage) message).reset();
+        TrainerWorkloadRequestDto decoded = codec.decode(message, TrainerWorkloadRequestDto.class);
+
+        // Assert
+        assertThat(message).isInstanceOf(BytesMessage.class);
+        assertThat(message.getStringProperty(WorkloadMessageCodec.CONTENT_TYPE_PROPERTY))
+                .isEqualTo("application/cbor");
+        assertThat(((BytesMessage) message).getBodyLength())
+                .isLessThan(codec.toBytes(request, MessageFormat.JSON).length);
+        assertThat(decoded.getTrainerUsername()).isEqualTo("john.doe");
+        assertThat(decoded.getTrainingDate()).isEqualTo(LocalDate.of(2025, 3, 1));
+        assertThat(decoded.getTrainingDuration()).isEqualTo(5);
+    }
+
+    @Test
+    void decode_textMessageWithoutProperties_readsJson() throws Exception {
+        // Arrange
+        ActiveMQTextMessage message = new ActiveMQTextMessage();
+        message.setText("{\"trainerUsername\":\"john.doe\",\"actionType\":\"ADD\"}");
+
+        // Act
+        TrainerWorkloadRequestDto decoded = codec.decode(message, TrainerWorkloadRequestDto.class);
+
+        // Assert
+        assertThat(decoded.getTrainerUsername()).isEqualTo("john.doe");
+    }
+
+    @Test
+    void decode_newerFormatVersion_isRejected() throws Exception {
+        // Arrange
+        ActiveMQTextMessage message = new ActiveMQTextMessage();
+        message.setText("{}");
+        message.setIntProperty(WorkloadMessageCodec.FORMAT_VERSION_PROPERTY, WorkloadMessageCodec.FORMAT_VERSION + 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> codec.decode(message, TrainerWorkloadRequestDto.class))
+                .isInstanceOf(MessageConversionException.class);
+    }
+
+    @Test
+    void replyFormat_followsAcceptPropertyAndFallsBackToJson() throws Exception {
+        // Arrange
+        ActiveMQMapMessage binaryRequest = new ActiveMQMapMessage();
+        binaryRequest.setStringProperty(WorkloadMessageCodec.ACCEPT_PROPERTY, "application/cbor");
+        ActiveMQMapMessage unknownRequest = new ActiveMQMapMessage();
+        unknownRequest.setStringProperty(WorkloadMessageCodec.ACCEPT_PROPERTY, "application/xml");
+
+        // Act & Assert
+        assertThat(codec.replyFormat(binaryRequest)).isEqualTo(MessageFormat.CBOR);
+        assertThat(codec.replyFormat(unknownRequest)).isEqualTo(MessageFormat.JSON);
+        assertThat(codec.replyFormat(new ActiveMQMapMessage())).isEqualTo(MessageFormat.JSON);
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.example.trainer.config.ReconciliationProperties;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.example.trainer.service.WorkloadHistoryService.Ledger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkloadReconciliationServiceTest {
+
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private WorkloadHistoryService historyService;
+    @Mock private TrainerSearchIndex searchIndex;
+    @Mock private TrainingHoursReplyCache replyCache;
+    @Mock private WorkloadTieringService tieringService;
+    @Mock private JobLeases jobLeases;
+
+    private final ReconciliationProperties properties = new ReconciliationProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MongoOverloadGuard overloadGuard;
+    private WorkloadReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        overloadGuard = new MongoOverloadGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        reconciliationService = new WorkloadReconciliationService(mongoTemplate, historyService, overloadGuard,
+                searchIndex, replyCache, tieringService, jobLeases, properties, RateLimiterRegistry.ofDefaults(),
+                meterRegistry);
+    }
+
+    @Test
+    void reconcile_totalsMatchEventLog_reportsNoDiscrepancy() {
+        // Arrange
+        when(jobLeases.tryAcquire(WorkloadReconciliationService.RECONCILIATION_JOB, properties.getLease()))
+                .thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(Stream.of(workload(3L, 5)));
+        when(historyService.replay("john.doe")).thenReturn(Optional.of(ledger(5, 5)));
+
+        // Act
+        reconciliationService.reconcile();
+
+        // Assert
+        verify(mongoTemplate, never()).findById(any(), eq(TrainerWorkloadEntity.class));
+        assertThat(meterRegistry.counter("trainer.reconciliation.trainers", "outcome", "consistent").count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("trainer.reconciliation.last.discrepancies").gauge().value()).isZero();
+    }
+
+    @Test
+    void reconcile_deleteClampedBeforeItsAdd_reportsWithoutRepairing() {
+        // Arrange
+        when(jobLeases.tryAcquire(WorkloadReconciliationService.RECONCILIATION_JOB, properties.getLease()))
+                .thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(Stream.of(workload(3L, 5)));
+        when(mongoTemplate.findById("w1", TrainerWorkloadEntity.class)).thenReturn(workload(3L, 5));
+        when(historyService.replay("john.doe")).thenReturn(Optional.of(ledger(5, 0)));
+
+        // Act
+        reconciliationService.reconcile();
+
+        // Assert
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadEntity.class));
+        assertThat(meterRegistry.counter("trainer.reconciliation.discrepancies", "cause",
+                WorkloadReconciliationService.CLAMPED).count()).isEqualTo(1);
+        assertThat(meterRegistry.summary("trainer.reconciliation.drift.hours", "cause",
+                WorkloadReconciliationService.CLAMPED).totalAmount()).isEqualTo(5);
+        assertThat(meterRegistry.get("trainer.reconciliation.last.discrepancies").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcile_repairEnabled_writesExpectedTotalAndLogsCorrection() {
+        // Arrange
+        properties.setRepair(true);
+        when(jobLeases.tryAcquire(WorkloadReconciliationService.RECONCILIATION_JOB, properties.getLease()))
+                .thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(Stream.of(workload(3L, 5)));
+        when(mongoTemplate.findById("w1", TrainerWorkloadEntity.class)).thenReturn(workload(3L, 5));
+        when(historyService.replay("john.doe")).thenReturn(Optional.of(ledger(5, 0)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        reconciliationService.reconcile();
+
+        // Assert
+        ArgumentCaptor<Update> repair = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), repair.capture(), eq(TrainerWorkloadEntity.class));
+        assertThat(repair.getValue().getUpdateObject().toJson())
+                .contains("\"trainingSummary.2025.3\": 0", "\"version\": 1");
+        verify(historyService).recordCorrection("john.doe", 2025, 3, 3L, -5, 0);
+        verify(replyCache).invalidate("john.doe", 4L);
+        assertThat(meterRegistry.counter("trainer.reconciliation.repairs", "result", "repaired").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reconcile_repairEnabled_documentAheadOfLog_recordsCorrectionWithoutOverwriting() {
+        // Arrange
+        properties.setRepair(true);
+        when(jobLeases.tryAcquire(WorkloadReconciliationService.RECONCILIATION_JOB, properties.getLease()))
+                .thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(Stream.of(workload(3L, 15)));
+        when(mongoTemplate.findById("w1", TrainerWorkloadEntity.class)).thenReturn(workload(3L, 15));
+        when(historyService.replay("john.doe")).thenReturn(Optional.of(ledger(10, 10)));
+
+        // Act
+        reconciliationService.reconcile();
+
+        // Assert
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadEntity.class));
+        verify(historyService).recordCorrection("john.doe", 2025, 3, 3L, 5, 5);
+        verify(replyCache, never()).invalidate(anyString(), anyLong());
+        assertThat(meterRegistry.summary("trainer.reconciliation.drift.hours", "cause",
+                WorkloadReconciliationService.UNLOGGED).totalAmount()).isEqualTo(5);
+        assertThat(meterRegistry.counter("trainer.reconciliation.repairs", "result", "repaired").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reconcile_workloadChangedBeforeRecheck_skipsTrainer() {
+        // Arrange
+        when(jobLeases.tryAcquire(WorkloadReconciliationService.RECONCILIATION_JOB, properties.getLease()))
+                .thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(Stream.of(workload(3L, 5)));
+        when(mongoTemplate.findById("w1", TrainerWorkloadEntity.class)).thenReturn(workload(4L, 9));
+        when(historyService.replay("john.doe")).thenReturn(Optional.of(ledger(9, 9)));
+
+        // Act
+        reconciliationService.reconcile();
+
+        // Assert
+        assertThat(meterRegistry.counter("trainer.reconciliation.trainers", "outcome", "changed").count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("trainer.reconciliation.last.discrepancies").gauge().value()).isZero();
+    }
+
+    @Test
+    void reconcile_mongoOverloaded_skipsRun() {
+        // Arrange
+        overloadGuard.getWriteCircuitBreaker().transitionToOpenState();
+
+        // Act
+        reconciliationService.reconcile();
+
+        // Assert
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(TrainerWorkloadEntity.class));
+        verify(historyService, never()).recordCorrection(anyString(), anyInt(), anyInt(), anyLong(), anyInt(),
+                anyInt());
+        verify(replyCache, never()).invalidate(anyString(), anyLong());
+    }
+
+    @Test
+    void reconcile_leaseHeldByAnotherInstance_skipsRun() {
+        // Arrange
+        when(jobLeases.tryAcquire(WorkloadReconciliationService.RECONCILIATION_JOB, properties.getLease()))
+                .thenReturn(false);
+
+        // Act
+        reconciliationService.reconcile();
+
+        // Assert
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(TrainerWorkloadEntity.class));
+        verify(jobLeases, never()).release(anyString());
+    }
+
+    @Test
+    void reconcile_withLease_releasesItAfterRun() {
+        // Arrange
+        when(jobLeases.tryAcquire(WorkloadReconciliationService.RECONCILIATION_JOB, properties.getLease()))
+                .thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(TrainerWorkloadEntity.class))).thenReturn(Stream.empty());
+
+        // Act
+        reconciliationService.reconcile();
+
+        // Assert
+        verify(jobLeases).release(WorkloadReconciliationService.RECONCILIATION_JOB);
+    }
+
+    @Test
+    void discrepancies_unloggedUpdate_attributedToMissingEvent() {
+        // Arrange
+        Map<Integer, Map<Integer, Integer>> stored = summary(8);
+
+        // Act
+        List<WorkloadReconciliationService.Discrepancy> found =
+                WorkloadReconciliationService.discrepancies(stored, ledger(5, 5));
+
+        // Assert
+        assertThat(found).containsExactly(new WorkloadReconciliationService.Discrepancy(2025, 3, 8, 5, 5));
+        assertThat(found.get(0).cause()).isEqualTo(WorkloadReconciliationService.UNLOGGED);
+    }
+
+    private static TrainerWorkloadEntity workload(Long version, int marchHours) {
+        return new TrainerWorkloadEntity("w1", "john.doe", "John", "Doe", true, summary(marchHours), version,
+                new HashSet<>());
+    }
+
+    private static Ledger ledger(int appliedMarchHours, int requestedMarchHours) {
+        return new Ledger(summary(appliedMarchHours), summary(requestedMarchHours));
+    }
+
+    private static Map<Integer, Map<Integer, Integer>> summary(int marchHours) {
+        return new HashMap<>(Map.of(2025, new HashMap<>(Map.of(3, marchHours))));
+    }
+}
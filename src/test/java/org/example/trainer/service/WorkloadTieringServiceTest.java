@@ -0,0 +1,239 @@
+package org.example.trainer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.bson.Document;
+import org.example.trainer.entity.TrainerWorkloadArchiveEntity;
+import org.example.trainer.entity.TrainerWorkloadEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkloadTieringServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T00:00:00Z");
+
+    @Mock private MongoTemplate mongoTemplate;
+
+    private MongoOverloadGuard overloadGuard;
+    private WorkloadTieringService tieringService;
+
+    @BeforeEach
+    void setUp() {
+        overloadGuard = new MongoOverloadGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        tieringService = new WorkloadTieringService(mongoTemplate, overloadGuard, Clock.fixed(NOW, ZoneOffset.UTC),
+                true, 2, "zstd");
+    }
+
+    @Test
+    void coldYears_activeTrainer_keepsRecentYearsHot() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(true, Set.of(), 2022, 2024, 2025, 2026);
+
+        // Act
+        Set<Integer> cold = tieringService.coldYears(workload, 2026);
+
+        // Assert
+        assertThat(cold).containsExactly(2022, 2024);
+    }
+
+    @Test
+    void coldYears_inactiveTrainer_keepsOnlyCurrentYearHot() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(false, Set.of(), 2025, 2026);
+
+        // Act
+        Set<Integer> cold = tieringService.coldYears(workload, 2026);
+
+        // Assert
+        assertThat(cold).containsExactly(2025);
+    }
+
+    @Test
+    void archive_copiesYearsBeforeMovingThemOutOfPrimaryDocument() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(false, Set.of(), 2022, 2026);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        boolean archived = tieringService.archive(workload, Set.of(2022));
+
+        // Assert
+        ArgumentCaptor<Query> olderCopy = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> copy = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(olderCopy.capture(), copy.capture(), eq(TrainerWorkloadArchiveEntity.class));
+        assertThat(olderCopy.getValue().getQueryObject().toJson()).contains("\"versions.2022\": {\"$lt\": 3}");
+        assertThat(copy.getValue().getUpdateObject().get("$set", Document.class))
+                .containsKey("trainingSummary.2022")
+                .containsEntry("versions.2022", 3L);
+        ArgumentCaptor<Update> move = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), move.capture(), eq(TrainerWorkloadEntity.class));
+        assertThat(move.getValue().getUpdateObject().get("$unset", Document.class))
+                .containsKey("trainingSummary.2022");
+        assertThat(move.getValue().getUpdateObject()).containsKeys("$addToSet", "$inc");
+        assertThat(archived).isTrue();
+    }
+
+    @Test
+    void archive_workloadChangedMeanwhile_leavesPrimaryDocumentAuthoritative() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(false, Set.of(), 2022, 2026);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        boolean archived = tieringService.archive(workload, Set.of(2022));
+
+        // Assert
+        assertThat(archived).isFalse();
+        assertThat(workload.getArchivedYears()).isEmpty();
+    }
+
+    @Test
+    void archive_newerCopyArchivedMeanwhile_keepsItAndLeavesPrimaryDocument() {
+        // Arrange
+        TrainerWorkloadEntity stale = workload(false, Set.of(), 2022, 2026);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(TrainerWorkloadArchiveEntity.class)))
+                .thenThrow(new DuplicateKeyException("archive of trainer1 holds version 5 of 2022"));
+
+        // Act
+        boolean archived = tieringService.archive(stale, Set.of(2022));
+
+        // Assert
+        assertThat(archived).isFalse();
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadEntity.class));
+    }
+
+    @Test
+    void withArchive_mergesOnlyYearsListedAsArchived() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(false, Set.of(2022), 2026);
+        Map<Integer, Map<Integer, Integer>> archived = new HashMap<>();
+        archived.put(2022, new HashMap<>(Map.of(3, 4)));
+        archived.put(2021, new HashMap<>(Map.of(3, 9)));
+        when(mongoTemplate.findById("trainer1", TrainerWorkloadArchiveEntity.class))
+                .thenReturn(new TrainerWorkloadArchiveEntity("trainer1", archived, new HashMap<>()));
+
+        // Act
+        TrainerWorkloadEntity merged = tieringService.withArchive(workload, year -> true);
+
+        // Assert
+        assertThat(merged.getTrainingSummary()).containsOnlyKeys(2022, 2026);
+        assertThat(merged.getTrainingSummary().get(2022)).containsEntry(3, 4);
+        assertThat(workload.getTrainingSummary()).containsOnlyKeys(2026);
+    }
+
+    @Test
+    void withArchive_archivedYearsNotRead_skipsArchiveLookup() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(true, Set.of(2022), 2026);
+
+        // Act
+        TrainerWorkloadEntity merged = tieringService.withArchive(workload, year -> year == 2026);
+
+        // Assert
+        assertThat(merged).isSameAs(workload);
+        verify(mongoTemplate, never()).findById(any(), eq(TrainerWorkloadArchiveEntity.class));
+    }
+
+    @Test
+    void restoreYear_movesYearBackAndAdvancesVersion() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(false, Set.of(2022), 2026);
+        when(mongoTemplate.findById("trainer1", TrainerWorkloadArchiveEntity.class))
+                .thenReturn(new TrainerWorkloadArchiveEntity("trainer1",
+                        new HashMap<>(Map.of(2022, new HashMap<>(Map.of(5, 6)))), new HashMap<>(Map.of(2022, 2L))));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        tieringService.restoreYear(workload, 2022);
+
+        // Assert
+        assertThat(workload.getTrainingSummary().get(2022)).containsEntry(5, 6);
+        assertThat(workload.getArchivedYears()).isEmpty();
+        assertThat(workload.getVersion()).isEqualTo(4L);
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadArchiveEntity.class));
+    }
+
+    @Test
+    void restoreYear_workloadChangedMeanwhile_throwsConflict() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(false, Set.of(2022), 2026);
+        when(mongoTemplate.findById("trainer1", TrainerWorkloadArchiveEntity.class))
+                .thenReturn(new TrainerWorkloadArchiveEntity("trainer1",
+                        new HashMap<>(Map.of(2022, new HashMap<>(Map.of(5, 6)))), new HashMap<>(Map.of(2022, 2L))));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadEntity.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act & Assert
+        assertThatThrownBy(() -> tieringService.restoreYear(workload, 2022))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(workload.getArchivedYears()).containsExactly(2022);
+    }
+
+    @Test
+    void restoreYear_archiveCopyMissing_throwsInsteadOfRestoringZeros() {
+        // Arrange
+        TrainerWorkloadEntity workload = workload(false, Set.of(2022), 2026);
+        when(mongoTemplate.findById("trainer1", TrainerWorkloadArchiveEntity.class))
+                .thenReturn(new TrainerWorkloadArchiveEntity("trainer1", new HashMap<>(), new HashMap<>()));
+
+        // Act & Assert
+        assertThatThrownBy(() -> tieringService.restoreYear(workload, 2022))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class),
+                eq(TrainerWorkloadEntity.class));
+        assertThat(workload.getArchivedYears()).containsExactly(2022);
+    }
+
+    @Test
+    void tier_mongoOverloaded_skipsRun() {
+        // Arrange
+        overloadGuard.getWriteCircuitBreaker().transitionToOpenState();
+
+        // Act
+        tieringService.tier();
+
+        // Assert
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(TrainerWorkloadEntity.class));
+    }
+
+    private static TrainerWorkloadEntity workload(boolean active, Set<Integer> archivedYears, Integer... years) {
+        Map<Integer, Map<Integer, Integer>> summary = new HashMap<>();
+        for (Integer year : years) {
+            summary.put(year, new HashMap<>(Map.of(3, 10)));
+        }
+        return new TrainerWorkloadEntity("1", "trainer1", "John", "Doe", active, summary, 3L,
+                new HashSet<>(archivedYears));
+    }
+}